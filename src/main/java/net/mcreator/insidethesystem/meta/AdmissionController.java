@@ -0,0 +1,179 @@
+package net.mcreator.insidethesystem.meta;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AdmissionController — Backpressure in front of the Gemini calls.
+ *
+ * Virtual threads are cheap, Gemini quota is not. Every chat request passes through here
+ * before it may start:
+ *   1. Global cap — at most {@code admission.max_concurrent} requests run at once
+ *   2. Per-player cap — a player has at most one request in flight; while it runs, only
+ *      their newest follow-up is kept waiting (an older waiting one is shed)
+ *   3. Bounded queue — at most {@code admission.queue_size} requests wait; when it is full
+ *      {@code admission.policy} decides who is shed: "drop_oldest" (default) sheds the
+ *      longest-waiting request, "drop_newest" sheds the incoming one
+ *
+ * A shed request never reaches Gemini; its {@code onShed} action runs immediately (the
+ * bridge answers it with an offline line). Shed actions run outside the lock, on the
+ * thread that caused the shedding.
+ */
+public class AdmissionController {
+    private static final Logger LOGGER = LogManager.getLogger("SentientCoolplayer-AI");
+
+    private final int maxConcurrent = Math.max(1, BridgeConfig.getInt("admission.max_concurrent", 4));
+    private final int queueSize = Math.max(0, BridgeConfig.getInt("admission.queue_size", 16));
+    private final boolean dropOldest =
+            !"drop_newest".equalsIgnoreCase(BridgeConfig.getString("admission.policy", "drop_oldest"));
+
+    private final ExecutorService executor;
+
+    // ─ Guarded by this ──────────────────────────────────────────────
+    private final ArrayDeque<Ticket> queue = new ArrayDeque<>();
+    private final Set<UUID> inFlight = new HashSet<>();
+    private int running = 0;
+
+    // ─ Metrics ──────────────────────────────────────────────────────
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong shedQueueFull = new AtomicLong();
+    private final AtomicLong shedSuperseded = new AtomicLong();
+
+    private record Ticket(UUID player, Runnable task, Runnable onShed) {}
+
+    public AdmissionController(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Runs {@code task} on the executor as soon as the caps allow, or sheds it.
+     * @param player  per-player key (null is treated as {@link ConversationSessions#SHARED})
+     * @param onShed  runs instead of the task if the request is dropped
+     */
+    public void submit(UUID player, Runnable task, Runnable onShed) {
+        Ticket ticket = new Ticket(player != null ? player : ConversationSessions.SHARED, task, onShed);
+        List<Ticket> shed = new ArrayList<>(1);
+        Ticket start = null;
+
+        synchronized (this) {
+            if (running < maxConcurrent && !inFlight.contains(ticket.player())) {
+                start = ticket;
+                claim(ticket);
+            } else {
+                // Only the player's newest waiting request survives
+                Ticket superseded = removeQueued(ticket.player());
+                if (superseded != null) {
+                    shed.add(superseded);
+                    shedSuperseded.incrementAndGet();
+                }
+                if (queue.size() >= queueSize) {
+                    shedQueueFull.incrementAndGet();
+                    if (dropOldest && !queue.isEmpty()) {
+                        shed.add(queue.pollFirst());
+                        queue.addLast(ticket);
+                    } else {
+                        shed.add(ticket);
+                    }
+                } else {
+                    queue.addLast(ticket);
+                }
+            }
+        }
+
+        if (start != null) launch(start);
+        for (Ticket t : shed) {
+            LOGGER.debug("[AI] Request shed by admission control (queue={}, running={})", queueDepth(), running());
+            runShed(t);
+        }
+    }
+
+    /** Requests waiting for a slot. */
+    public synchronized int queueDepth() {
+        return queue.size();
+    }
+
+    /** Requests currently talking to Gemini. */
+    public synchronized int running() {
+        return running;
+    }
+
+    public long getAdmitted() { return admitted.get(); }
+    public long getShedQueueFull() { return shedQueueFull.get(); }
+    public long getShedSuperseded() { return shedSuperseded.get(); }
+
+    /** Total requests that were shed for any reason. */
+    public long getRejected() { return shedQueueFull.get() + shedSuperseded.get(); }
+
+    // ─── INTERNALS ───────────────────────────────────────────────────
+
+    private void claim(Ticket t) {
+        running++;
+        inFlight.add(t.player());
+        admitted.incrementAndGet();
+    }
+
+    private void launch(Ticket t) {
+        try {
+            executor.submit(() -> {
+                try {
+                    t.task().run();
+                } finally {
+                    release(t.player());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Bridge shutting down — free the slot and answer offline
+            release(t.player());
+            runShed(t);
+        }
+    }
+
+    /** Frees a slot and starts as many eligible waiting requests as the caps allow. */
+    private void release(UUID player) {
+        List<Ticket> toStart = new ArrayList<>(1);
+        synchronized (this) {
+            running--;
+            inFlight.remove(player);
+            Iterator<Ticket> it = queue.iterator();
+            while (running < maxConcurrent && it.hasNext()) {
+                Ticket t = it.next();
+                if (inFlight.contains(t.player())) continue;
+                it.remove();
+                claim(t);
+                toStart.add(t);
+            }
+        }
+        for (Ticket t : toStart) launch(t);
+    }
+
+    private Ticket removeQueued(UUID player) {
+        for (Iterator<Ticket> it = queue.iterator(); it.hasNext(); ) {
+            Ticket t = it.next();
+            if (t.player().equals(player)) {
+                it.remove();
+                return t;
+            }
+        }
+        return null;
+    }
+
+    private static void runShed(Ticket t) {
+        if (t.onShed() == null) return;
+        try {
+            t.onShed().run();
+        } catch (Exception e) {
+            LOGGER.error("[AI] Shed handler failed", e);
+        }
+    }
+}
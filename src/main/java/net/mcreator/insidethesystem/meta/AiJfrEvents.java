@@ -0,0 +1,125 @@
+package net.mcreator.insidethesystem.meta;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.Timespan;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * AiJfrEvents — Custom Java Flight Recorder events for the Gemini bridge.
+ *
+ * Shows up under "Sentient Coolplayer" in JDK Mission Control:
+ *   - sentient_coolplayer.GeminiExchange — every HTTP exchange (endpoint, status, latency)
+ *   - sentient_coolplayer.ChatReply      — every answered chat line (latency, streamed)
+ *   - sentient_coolplayer.BridgeStats    — periodic gauges (queue, admitted, in flight, totals)
+ *
+ * Start a recording with {@code -XX:StartFlightRecording} or {@code jcmd <pid> JFR.start}.
+ * Without one, each call is just an enabled-check. Runtimes without the jdk.jfr module
+ * are detected once and every method turns into a no-op.
+ */
+public final class AiJfrEvents {
+    private static final Logger LOGGER = LogManager.getLogger("SentientCoolplayer-AI");
+
+    private static final boolean AVAILABLE = ModuleLayer.boot().findModule("jdk.jfr").isPresent();
+
+    private AiJfrEvents() {}
+
+    @Name("sentient_coolplayer.GeminiExchange")
+    @Label("Gemini Exchange")
+    @Category("Sentient Coolplayer")
+    @Description("One HTTP exchange with a Gemini endpoint, up to the response headers")
+    static final class ExchangeEvent extends Event {
+        @Label("Endpoint") String endpoint;
+        @Label("HTTP Status") int status;
+        @Label("Latency") @Timespan(Timespan.MILLISECONDS) long latency;
+        @Label("Hedged") boolean hedged;
+    }
+
+    @Name("sentient_coolplayer.ChatReply")
+    @Label("Chat Reply")
+    @Category("Sentient Coolplayer")
+    @Description("A chat line answered by the bridge")
+    static final class ReplyEvent extends Event {
+        @Label("Latency") @Timespan(Timespan.MILLISECONDS) long latency;
+        @Label("Streamed") boolean streamed;
+    }
+
+    @Name("sentient_coolplayer.BridgeStats")
+    @Label("Bridge Stats")
+    @Category("Sentient Coolplayer")
+    @Period("10 s")
+    static final class StatsEvent extends Event {
+        @Label("Queued") int queued;
+        @Label("Admitted") int admitted;
+        @Label("In Flight") int inFlight;
+        @Label("Gemini Replies") long geminiReplies;
+        @Label("Offline Replies") long offlineReplies;
+        @Label("Prompt Tokens") long promptTokens;
+        @Label("Output Tokens") long outputTokens;
+    }
+
+    static void exchange(String endpoint, int status, long latencyMs, boolean hedged) {
+        if (!AVAILABLE) return;
+        ExchangeEvent e = new ExchangeEvent();
+        if (!e.shouldCommit()) return;
+        e.endpoint = EndpointHealth.shortName(endpoint);
+        e.status = status;
+        e.latency = latencyMs;
+        e.hedged = hedged;
+        e.commit();
+    }
+
+    static void reply(long latencyMs, boolean streamed) {
+        if (!AVAILABLE) return;
+        ReplyEvent e = new ReplyEvent();
+        if (!e.shouldCommit()) return;
+        e.latency = latencyMs;
+        e.streamed = streamed;
+        e.commit();
+    }
+
+    /**
+     * Registers the periodic {@code BridgeStats} event for {@code ai}.
+     * @return the hook to pass to {@link #unregisterPeriodic} on shutdown, or null if none was registered
+     */
+    static Runnable registerPeriodic(VirtualThreadAI ai) {
+        if (!AVAILABLE) return null;
+        Runnable hook = () -> {
+            StatsEvent e = new StatsEvent();
+            e.queued = ai.getAdmission().queueDepth();
+            e.admitted = ai.getAdmission().running();
+            e.inFlight = ai.getInFlight().size();
+            e.geminiReplies = ai.getMetrics().getGeminiReplies();
+            e.offlineReplies = ai.getMetrics().getOfflineReplies();
+            e.promptTokens = ai.getPromptTokensUsed();
+            e.outputTokens = ai.getCandidateTokensUsed();
+            e.commit();
+        };
+        try {
+            FlightRecorder.addPeriodicEvent(StatsEvent.class, hook);
+            return hook;
+        } catch (RuntimeException | LinkageError e) {
+            LOGGER.debug("[AI] JFR periodic event not registered: {}", e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Removes a hook from {@link #registerPeriodic}. The recorder holds it strongly: left
+     * registered, it would keep a stopped bridge reachable and keep emitting its stats.
+     */
+    static void unregisterPeriodic(Runnable hook) {
+        if (hook == null) return;
+        try {
+            FlightRecorder.removePeriodicEvent(hook);
+        } catch (RuntimeException | LinkageError e) {
+            LOGGER.debug("[AI] JFR periodic event not removed: {}", e.toString());
+        }
+    }
+}
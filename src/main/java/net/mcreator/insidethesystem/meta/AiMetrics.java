@@ -0,0 +1,109 @@
+package net.mcreator.insidethesystem.meta;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AiMetrics — Always-on runtime metrics for the Gemini bridge.
+ *
+ * Records, without locks:
+ *   - reply latency: chat line handed to the bridge → reply ready (queue wait included)
+ *   - time to first word of streamed replies
+ *   - per-endpoint latency to response headers, with call and error counts
+ *   - how replies were produced: Gemini or offline fallback (cache and pool hits are the rest)
+ * Everything else (queue depth, in-flight, cache/pool hits, quota, tokens) is already
+ * counted by the component that owns it and is read from there by {@link #describe}.
+ *
+ * The same data is emitted as JFR events when a recording is running (see
+ * {@link AiJfrEvents}); with no recording, those cost a single enabled-check.
+ * {@link StatsCommand} prints {@link #describe} for {@code /coolplayer stats}.
+ */
+public class AiMetrics {
+
+    /** Latency and outcome counts of one endpoint. */
+    private static final class EndpointStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder calls = new LongAdder();
+        final LongAdder errors = new LongAdder();
+    }
+
+    private final LatencyHistogram replyLatency = new LatencyHistogram();
+    private final LatencyHistogram firstWord = new LatencyHistogram();
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    private final LongAdder geminiReplies = new LongAdder();
+    private final LongAdder offlineReplies = new LongAdder();
+
+    /** One HTTP exchange with {@code endpoint} answered {@code status} after {@code latencyMs}. */
+    public void recordExchange(String endpoint, int status, long latencyMs, boolean hedged) {
+        EndpointStats s = endpoints.computeIfAbsent(endpoint, k -> new EndpointStats());
+        s.calls.increment();
+        if (status != 200) s.errors.increment();
+        else s.latency.record(latencyMs);
+        AiJfrEvents.exchange(endpoint, status, latencyMs, hedged);
+    }
+
+    /** A streamed reply put its first word into chat {@code millis} after the request went out. */
+    public void recordFirstWord(long millis) {
+        if (millis >= 0) firstWord.record(millis);
+    }
+
+    /** A chat line was answered, {@code latencyMs} after it reached the bridge. */
+    public void recordReply(long latencyMs, boolean streamed) {
+        replyLatency.record(latencyMs);
+        AiJfrEvents.reply(latencyMs, streamed);
+    }
+
+    /** The model (Gemini or the configured backend) produced a reply. */
+    public void recordGeminiReply() {
+        geminiReplies.increment();
+    }
+
+    /** A reply came from the offline rules instead of Gemini. */
+    public void recordOffline() {
+        offlineReplies.increment();
+    }
+
+    public LatencyHistogram getReplyLatency() { return replyLatency; }
+    public LatencyHistogram getFirstWord() { return firstWord; }
+    public long getGeminiReplies() { return geminiReplies.sum(); }
+    public long getOfflineReplies() { return offlineReplies.sum(); }
+
+    /** Human-readable snapshot of the bridge, one line per area. */
+    public List<String> describe(VirtualThreadAI ai) {
+        List<String> lines = new ArrayList<>();
+        lines.add("Replies: " + replyLatency.count() + " (model " + getGeminiReplies() + ", offline "
+                + getOfflineReplies() + ", rest from cache/pool)");
+        lines.add("Reply latency: " + replyLatency.summary());
+        lines.add("First word (streamed): " + firstWord.summary());
+        endpoints.forEach((url, s) -> lines.add("Endpoint " + EndpointHealth.shortName(url) + " ["
+                + ai.getEndpointHealth().stateOf(url) + "]: " + s.calls.sum() + " calls, "
+                + s.errors.sum() + " errors, " + s.latency.summary()));
+
+        AdmissionController admission = ai.getAdmission();
+        InFlightRequests inFlight = ai.getInFlight();
+        lines.add("Admission: " + admission.running() + " admitted, " + admission.queueDepth() + " queued, "
+                + admission.getRejected() + " shed · " + inFlight.size() + " in flight, "
+                + inFlight.getCancelled() + " cancelled, "
+                + inFlight.getExpired() + " past deadline");
+        QuotaLimiter quota = ai.getQuota();
+        lines.add("Quota: " + quota.getThrottled() + " throttled, " + quota.getRateLimited() + " × 429"
+                + (quota.pauseRemainingMs() > 0 ? ", paused " + LatencyHistogram.format(quota.pauseRemainingMs()) : ""));
+        ResponseCache cache = ai.getResponseCache();
+        ResponsePool pool = ai.getResponsePool();
+        lines.add(String.format("Cache: %.0f%% hits of %d lookups · Pool: %d served (idle %d, generic %d ready)",
+                cache.getHitRatio() * 100, cache.getLookups(), pool.getServed(),
+                pool.size(ResponsePool.Kind.IDLE), pool.size(ResponsePool.Kind.GENERIC)));
+        SessionJournal journal = ai.getJournal();
+        if (journal != null) {
+            lines.add("Journal: " + journal.getRecords() + " records in " + journal.getCommits() + " commits, "
+                    + journal.getSegmentCount() + " segment(s), " + journal.getDropped() + " dropped");
+        }
+        lines.add("Tokens: " + ai.getPromptTokensUsed() + " in (" + ai.getCachedTokensUsed() + " cached), "
+                + ai.getCandidateTokensUsed() + " out");
+        return lines;
+    }
+}
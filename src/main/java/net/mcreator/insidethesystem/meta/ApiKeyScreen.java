@@ -99,9 +99,8 @@ public class ApiKeyScreen extends Screen {
                     statusMessage = "§e> Establishing secure channel...";
                     verifyButton.active = false;
 
-                    // Run validation on a daemon thread so we don't freeze the UI
-                    Thread validationThread = new Thread(() -> {
-                        boolean valid = aiInstance.validateApiKey(key);
+                    // Validation runs asynchronously; the result comes back on the render thread
+                    aiInstance.validateApiKey(key).thenAccept(valid ->
                         Minecraft.getInstance().execute(() -> {
                             if (valid) {
                                 validationState = ValidationState.SUCCESS;
@@ -113,10 +112,7 @@ public class ApiKeyScreen extends Screen {
                                 statusMessage = "§c> ACCESS DENIED — Invalid key. The Entity cannot reach you.";
                                 verifyButton.active = true;
                             }
-                        });
-                    }, "SentientCoolplayer-KeyValidation");
-                    validationThread.setDaemon(true);
-                    validationThread.start();
+                        }));
                 }
         ).bounds(centerX - 100, centerY + 48, 200, 20).build();
         this.addRenderableWidget(verifyButton);
@@ -0,0 +1,273 @@
+package net.mcreator.insidethesystem.meta;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * ApiKeyService — Owns the API key: loading, saving, validation and hot reload.
+ *
+ * Validation sends the backend's checks at the same time — for Gemini, GET /models on
+ * the v1beta and v1 APIs ({@link LlmBackend#validationRequests}) — and completes as soon
+ * as one answers 200 (the others are cancelled), or once all have refused — a bad
+ * network costs one timeout, not one per API version. Definitive answers are
+ * remembered per SHA-256 of the key for the session, so verifying the same key again is
+ * instant; network failures are not cached. Concurrent validations of one key share a
+ * single round trip.
+ *
+ * The key file (~/.sentient_coolplayer/gemini_api_key.txt) is watched with a
+ * {@link WatchService}: editing, replacing or deleting it takes effect immediately, no
+ * restart needed. Every change of the active key — loaded, saved, edited, removed — is
+ * reported to the listener given to the constructor. Keys are never logged, only a
+ * short hash prefix.
+ */
+public class ApiKeyService {
+    private static final Logger LOGGER = LogManager.getLogger("SentientCoolplayer-AI");
+
+    private static final long RELOAD_SETTLE_MS = 200; // editors write in more than one step
+
+    private final Path keyPath;
+    private final LlmBackend backend;
+    private final Consumer<String> onKeyChanged;
+
+    private volatile String current = null;
+    private volatile WatchService watcher = null;
+
+    // Definitive validation results and in-flight validations, by key hash
+    private final Map<String, CompletableFuture<Boolean>> validations = new ConcurrentHashMap<>();
+
+    /**
+     * @param onKeyChanged receives the new active key, or null when it was removed
+     */
+    public ApiKeyService(Path keyPath, LlmBackend backend, Consumer<String> onKeyChanged) {
+        this.keyPath = keyPath;
+        this.backend = backend;
+        this.onKeyChanged = onKeyChanged;
+    }
+
+    /** The active key, or null. */
+    public String current() {
+        return current;
+    }
+
+    /** Loads the key file and starts watching it. */
+    public void start() {
+        String key = readKeyFile();
+        if (key != null) {
+            LOGGER.info("[AI] Loaded API key {} from {}", fingerprint(key), keyPath);
+        } else {
+            LOGGER.warn("[AI] No API key found at {}", keyPath);
+        }
+        activate(key);
+        startWatching();
+    }
+
+    /** Stops watching the key file. */
+    public void stop() {
+        WatchService w = watcher;
+        watcher = null;
+        if (w != null) {
+            try {
+                w.close();
+            } catch (IOException ignored) {}
+        }
+    }
+
+    /**
+     * Writes {@code key} to the key file and makes it the active key. The file is replaced
+     * atomically, so the watcher never sees a half-written key.
+     */
+    public void save(String key) throws IOException {
+        Files.createDirectories(keyPath.getParent());
+        Path tmp = keyPath.resolveSibling(keyPath.getFileName() + ".tmp");
+        Files.writeString(tmp, key, StandardCharsets.UTF_8);
+        try {
+            Files.move(tmp, keyPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(tmp, keyPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        activate(key);
+    }
+
+    // ─── VALIDATION ──────────────────────────────────────────────────
+
+    /**
+     * Checks {@code key} against the backend. Never blocks; the future completes with true
+     * if any of its validation requests is accepted, false otherwise (including on network
+     * failure).
+     */
+    public CompletableFuture<Boolean> validate(String key) {
+        String hash = hash(key);
+        CompletableFuture<Boolean> pending = new CompletableFuture<>();
+        CompletableFuture<Boolean> existing = validations.putIfAbsent(hash, pending);
+        if (existing != null) return existing.copy();
+
+        List<HttpRequest> requests = backend.validationRequests(key);
+        AtomicInteger refused = new AtomicInteger();   // definitive non-200 answers
+        AtomicInteger finished = new AtomicInteger();
+        List<CompletableFuture<HttpResponse<InputStream>>> exchanges = new java.util.ArrayList<>(requests.size());
+        for (HttpRequest request : requests) {
+            exchanges.add(VirtualThreadAI.HTTP_CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream()));
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            // Without the query string: Gemini's carries the key
+            URI uri = requests.get(i).uri();
+            String url = uri.getScheme() + "://" + uri.getRawAuthority() + uri.getRawPath();
+            exchanges.get(i).whenComplete((response, error) -> {
+                boolean accepted = false;
+                if (response != null) {
+                    // Read the body to the end before closing it: closed unread, it would take the
+                    // HTTP/1.1 connection (or the HTTP/2 stream) down with it instead of pooling it
+                    try (InputStream body = VirtualThreadAI.openBody(response)) {
+                        int status = response.statusCode();
+                        LOGGER.info("[AI] API key validation via {} returned HTTP {}", url, status);
+                        accepted = status == 200;
+                        if (!accepted) {
+                            if (status >= 400 && status < 500 && status != 429) refused.incrementAndGet();
+                            String errBody = new String(body.readNBytes(512), StandardCharsets.UTF_8);
+                            LOGGER.warn("[AI] Validation error body: {}", errBody);
+                        }
+                        VirtualThreadAI.drain(response.body());
+                    } catch (IOException e) {
+                        LOGGER.warn("[AI] API key validation attempt failed for {}: {}", url, e.toString());
+                    }
+                } else if (!(error instanceof java.util.concurrent.CancellationException)) {
+                    LOGGER.warn("[AI] API key validation attempt failed for {}: {}", url, String.valueOf(error));
+                }
+
+                if (accepted) {
+                    if (pending.complete(true)) {
+                        for (CompletableFuture<HttpResponse<InputStream>> other : exchanges) other.cancel(true);
+                    }
+                } else if (finished.incrementAndGet() == requests.size() && pending.complete(false)
+                        && refused.get() < requests.size()) {
+                    // Not a definitive "invalid key" — let the next attempt ask again
+                    validations.remove(hash, pending);
+                }
+            });
+        }
+        return pending.copy();
+    }
+
+    // ─── HOT RELOAD ──────────────────────────────────────────────────
+
+    private void startWatching() {
+        Path dir = keyPath.getParent();
+        try {
+            Files.createDirectories(dir);
+            WatchService w = dir.getFileSystem().newWatchService();
+            dir.register(w, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+            watcher = w;
+            Thread.ofVirtual().name("SentientCoolplayer-KeyWatch").start(() -> watch(w));
+        } catch (IOException | UnsupportedOperationException e) {
+            LOGGER.warn("[AI] Cannot watch {} for key changes: {}", keyPath, e.toString());
+        }
+    }
+
+    private void watch(WatchService w) {
+        Path name = keyPath.getFileName();
+        try {
+            while (true) {
+                WatchKey watchKey = w.take();
+                boolean touched = false;
+                for (WatchEvent<?> event : watchKey.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || name.equals(event.context())) {
+                        touched = true;
+                    }
+                }
+                if (touched) {
+                    Thread.sleep(RELOAD_SETTLE_MS);
+                    // Coalesce the burst of events a single save produces
+                    WatchKey more;
+                    while ((more = w.poll()) != null) {
+                        more.pollEvents();
+                        more.reset();
+                    }
+                    reload();
+                }
+                if (!watchKey.reset()) {
+                    LOGGER.warn("[AI] Key folder {} is no longer watchable", keyPath.getParent());
+                    return;
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // stop() or shutdown
+        }
+    }
+
+    private void reload() {
+        String key = readKeyFile();
+        if (Objects.equals(key, current)) return; // e.g. our own save()
+        if (key == null) {
+            LOGGER.warn("[AI] API key file removed or emptied — answering offline");
+        } else {
+            LOGGER.info("[AI] API key file changed — now using key {}", fingerprint(key));
+            validate(key).thenAccept(valid -> {
+                if (!valid) {
+                    LOGGER.warn("[AI] The edited API key {} was not accepted by {}", fingerprint(key), backend.name());
+                }
+            });
+        }
+        activate(key);
+    }
+
+    private void activate(String key) {
+        if (Objects.equals(key, current)) return;
+        current = key;
+        onKeyChanged.accept(key);
+    }
+
+    private String readKeyFile() {
+        try {
+            String key = Files.readString(keyPath, StandardCharsets.UTF_8).trim();
+            return key.isEmpty() ? null : key;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            LOGGER.error("[AI] Failed to read API key file", e);
+            return null;
+        }
+    }
+
+    // ─── HASHING ─────────────────────────────────────────────────────
+
+    private static String hash(String key) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    /** Short, non-reversible label for logs. */
+    static String fingerprint(String key) {
+        return "sha256:" + hash(key).substring(0, 8);
+    }
+}
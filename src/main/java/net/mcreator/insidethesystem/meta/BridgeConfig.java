@@ -0,0 +1,91 @@
+package net.mcreator.insidethesystem.meta;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * BridgeConfig — Tunables for the Gemini bridge.
+ *
+ * Values are read once from ~/.sentient_coolplayer/bridge.properties (optional, same folder
+ * as the API key) and can be overridden per launch with JVM arguments of the form
+ * -Dsentient_coolplayer.&lt;key&gt;=&lt;value&gt;. Missing or malformed values fall back to the
+ * defaults passed in by the caller, so an absent file means "stock behaviour".
+ */
+public final class BridgeConfig {
+    private static final Logger LOGGER = LogManager.getLogger("SentientCoolplayer-Config");
+
+    private static final String PROPERTY_PREFIX = "sentient_coolplayer.";
+
+    /** Path to the optional properties file */
+    static final Path CONFIG_PATH = Path.of(
+            System.getProperty("user.home"), ".sentient_coolplayer", "bridge.properties");
+
+    private static final Properties FILE_PROPERTIES = loadFile();
+
+    private BridgeConfig() {}
+
+    private static Properties loadFile() {
+        Properties props = new Properties();
+        if (Files.exists(CONFIG_PATH)) {
+            try (Reader reader = Files.newBufferedReader(CONFIG_PATH, StandardCharsets.UTF_8)) {
+                props.load(reader);
+                LOGGER.info("[Config] Loaded {} bridge setting(s) from {}", props.size(), CONFIG_PATH);
+            } catch (IOException e) {
+                LOGGER.warn("[Config] Failed to read {}, using defaults", CONFIG_PATH, e);
+            }
+        }
+        return props;
+    }
+
+    /** Raw lookup: JVM system property first, then the properties file, else null. */
+    public static String getString(String key, String def) {
+        String value = System.getProperty(PROPERTY_PREFIX + key);
+        if (value == null) value = FILE_PROPERTIES.getProperty(key);
+        return value != null ? value.trim() : def;
+    }
+
+    public static boolean getBoolean(String key, boolean def) {
+        String value = getString(key, null);
+        return value != null ? Boolean.parseBoolean(value) : def;
+    }
+
+    public static int getInt(String key, int def) {
+        String value = getString(key, null);
+        if (value == null) return def;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            LOGGER.warn("[Config] '{}' is not an integer ({}), using {}", key, value, def);
+            return def;
+        }
+    }
+
+    public static long getLong(String key, long def) {
+        String value = getString(key, null);
+        if (value == null) return def;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            LOGGER.warn("[Config] '{}' is not a number ({}), using {}", key, value, def);
+            return def;
+        }
+    }
+
+    public static double getDouble(String key, double def) {
+        String value = getString(key, null);
+        if (value == null) return def;
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            LOGGER.warn("[Config] '{}' is not a number ({}), using {}", key, value, def);
+            return def;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package net.mcreator.insidethesystem.meta;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * ChatCoalescer — Turns a player's burst of short chat lines into one Gemini request.
+ *
+ * Players often type one thought over several quick lines ("wait", "who", "built this?").
+ * Each line is held for {@code chat.merge_window_ms}; another line from the same player
+ * within that window restarts the timer and is appended, so the whole burst is sent as a
+ * single message ("wait who built this?") with a single reply. A burst is flushed no
+ * later than {@code chat.merge_max_ms} after its first line, so a chatty player still
+ * gets answers.
+ *
+ * A line whose normalized form (lower case, collapsed whitespace, no trailing
+ * punctuation) matches one the same player sent within {@code chat.dedup_window_ms} is
+ * dropped outright.
+ *
+ * Setting {@code chat.merge_window_ms=0} dispatches every line immediately (dedup still applies).
+ */
+public class ChatCoalescer {
+    private static final Logger LOGGER = LogManager.getLogger("SentientCoolplayer-Chat");
+
+    private static final int MAX_RECENT = 8;          // normalized lines remembered per player for dedup
+    private static final long PRUNE_INTERVAL_MS = 60_000;
+
+    private final long mergeWindowMs = Math.max(0, BridgeConfig.getLong("chat.merge_window_ms", 1_500));
+    private final long mergeMaxMs = Math.max(mergeWindowMs, BridgeConfig.getLong("chat.merge_max_ms", 4_000));
+    private final long dedupWindowMs = Math.max(0, BridgeConfig.getLong("chat.dedup_window_ms", 10_000));
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "SentientCoolplayer-ChatCoalescer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Map<UUID, Burst> bursts = new ConcurrentHashMap<>();
+    private volatile long lastPrune = System.currentTimeMillis();
+
+    private final LongAdder linesMerged = new LongAdder();
+    private final LongAdder duplicatesSuppressed = new LongAdder();
+
+    /** Per-player state. All access is synchronized on the instance. */
+    private static final class Burst {
+        final StringBuilder text = new StringBuilder();
+        int lines = 0;
+        long firstAt = 0;
+        ScheduledFuture<?> flush;
+        Consumer<String> dispatch;
+        final LinkedHashMap<String, Long> recent = new LinkedHashMap<>();
+        long lastSeen;
+    }
+
+    /**
+     * Offers one chat line. The burst it ends up in is handed to {@code dispatch} (the one
+     * passed with the burst's latest line) once the player pauses.
+     * @return false if the line was dropped as a duplicate
+     */
+    public boolean offer(UUID player, String message, Consumer<String> dispatch) {
+        long now = System.currentTimeMillis();
+        if (now - lastPrune > PRUNE_INTERVAL_MS) prune(now);
+
+        String normalized = normalize(message);
+        Burst burst = bursts.computeIfAbsent(player, id -> new Burst());
+        String flushNow = null;
+        synchronized (burst) {
+            burst.lastSeen = now;
+            Long seenAt = burst.recent.get(normalized);
+            if (seenAt != null && now - seenAt < dedupWindowMs) {
+                duplicatesSuppressed.increment();
+                LOGGER.debug("[Chat] Suppressed duplicate line '{}'", message);
+                return false;
+            }
+            burst.recent.remove(normalized);
+            burst.recent.put(normalized, now);
+            if (burst.recent.size() > MAX_RECENT) {
+                Iterator<String> eldest = burst.recent.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+
+            if (burst.lines == 0) {
+                burst.firstAt = now;
+            } else {
+                burst.text.append(' ');
+                linesMerged.increment();
+            }
+            burst.text.append(message.trim());
+            burst.lines++;
+            burst.dispatch = dispatch;
+
+            if (burst.flush != null) burst.flush.cancel(false);
+            long delay = Math.min(mergeWindowMs, burst.firstAt + mergeMaxMs - now);
+            if (delay <= 0) {
+                flushNow = drain(burst);
+            } else {
+                burst.flush = timer.schedule(() -> flush(burst), delay, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (flushNow != null) dispatch.accept(flushNow);
+        return true;
+    }
+
+    /** Lines folded into an earlier line's request instead of getting their own. */
+    public long getLinesMerged() { return linesMerged.sum(); }
+
+    /** Lines dropped as repeats. */
+    public long getDuplicatesSuppressed() { return duplicatesSuppressed.sum(); }
+
+    /** Gemini calls avoided by merging and dedup together. */
+    public long getCallsSaved() { return linesMerged.sum() + duplicatesSuppressed.sum(); }
+
+    /**
+     * Cancels every pending merge and stops the flush timer. Bursts still waiting are
+     * dropped, not dispatched: the server is stopping and there is no chat left to answer
+     * into. The coalescer accepts no lines afterwards.
+     */
+    public void shutdown() {
+        int dropped = 0;
+        for (Burst burst : bursts.values()) {
+            synchronized (burst) {
+                if (burst.flush != null) burst.flush.cancel(false);
+                if (drain(burst) != null) dropped++;
+            }
+        }
+        bursts.clear();
+        timer.shutdownNow();
+        if (dropped > 0) LOGGER.info("[Chat] Dropped {} pending chat burst(s) on shutdown", dropped);
+    }
+
+    // ─── INTERNALS ───────────────────────────────────────────────────
+
+    private void flush(Burst burst) {
+        String merged;
+        Consumer<String> dispatch;
+        synchronized (burst) {
+            dispatch = burst.dispatch;
+            merged = drain(burst);
+        }
+        if (merged == null) return;
+        try {
+            dispatch.accept(merged);
+        } catch (Exception e) {
+            LOGGER.error("[Chat] Dispatching merged chat failed", e);
+        }
+    }
+
+    /** Takes the pending text out of a burst (caller holds its lock); null if nothing is pending. */
+    private static String drain(Burst burst) {
+        if (burst.lines == 0) return null;
+        String merged = burst.text.toString();
+        if (burst.lines > 1) LOGGER.debug("[Chat] Merged {} lines into one request", burst.lines);
+        burst.text.setLength(0);
+        burst.lines = 0;
+        burst.flush = null;
+        return merged;
+    }
+
+    /** Forgets players that have been quiet for longer than the dedup window. */
+    private void prune(long now) {
+        lastPrune = now;
+        bursts.entrySet().removeIf(e -> {
+            Burst b = e.getValue();
+            synchronized (b) {
+                return b.lines == 0 && now - b.lastSeen > Math.max(dedupWindowMs, mergeMaxMs);
+            }
+        });
+    }
+
+    static String normalize(String message) {
+        String s = message.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+        int end = s.length();
+        while (end > 0 && isTrailingPunctuation(s.charAt(end - 1))) end--;
+        return s.substring(0, end);
+    }
+
+    private static boolean isTrailingPunctuation(char c) {
+        return c == '.' || c == '!' || c == '?' || c == '…' || c == '？' || c == '！' || c == '。' || c == ' ';
+    }
+}
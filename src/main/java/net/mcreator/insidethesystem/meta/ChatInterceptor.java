@@ -4,9 +4,11 @@ import net.mcreator.insidethesystem.entity.CoolPlayer303Entity;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.phys.AABB;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.neoforge.event.ServerChatEvent;
+import net.neoforged.neoforge.event.server.ServerStoppingEvent;
 import net.neoforged.fml.common.EventBusSubscriber;
 import net.neoforged.neoforge.server.ServerLifecycleHooks;
 import org.apache.logging.log4j.LogManager;
@@ -14,6 +16,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 
 /**
  * ChatInterceptor — Hooks into NeoForge's ServerChatEvent to intercept player messages
@@ -29,9 +32,12 @@ import java.util.Set;
 public class ChatInterceptor {
     private static final Logger LOGGER = LogManager.getLogger("SentientCoolplayer-Chat");
 
-    /** Last known server instance for idle-initiation broadcasts. */
+    /** Last known server instance for idle-initiation messages. */
     private static volatile MinecraftServer lastServer = null;
 
+    /** Merges quick multi-line bursts into one Gemini request and drops repeated lines; replaced per server run. */
+    private static volatile ChatCoalescer coalescer = new ChatCoalescer();
+
     // ─── ITS SCRIPT TRIGGER PHRASES ──────────────────────────────────
     // These are ALL the trigger phrases from CoolPlayerResponseProcedureProcedure.
     // If the player's message contains any of these, ITS will handle the response,
@@ -93,6 +99,8 @@ public class ChatInterceptor {
     public static void onServerChat(ServerChatEvent event) {
         MetaOrchestrator orchestrator = MetaOrchestrator.getInstance();
         if (orchestrator == null) return;
+        // Any chat line counts as activity, even one that never reaches Gemini
+        orchestrator.getAiBridge().notePlayerActive(event.getPlayer().getUUID());
 
         // Route to AI during ALLY and BREACH phases
         MetaOrchestrator.Phase phase = orchestrator.getCurrentPhase();
@@ -128,16 +136,36 @@ public class ChatInterceptor {
         String biomeName = orchestrator.getLastBiomeName();
         // Process list gathered inside the virtual thread to avoid blocking the server thread
 
-        // Route to Gemini via virtual thread
-        orchestrator.getAiBridge().processChatAsync(
-                rawMessage, playerName, biomeName, null,
-                response -> broadcastAsEntity(world.getServer(), response)
-        );
+        // Route to Gemini via virtual thread — streamed replies are posted sentence by sentence.
+        // Quick follow-up lines are merged into the same request before it is sent.
+        VirtualThreadAI.StreamingResponseCallback toChat =
+                sentences -> broadcastAsEntity(world.getServer(), sentences);
+        UUID playerId = event.getPlayer().getUUID();
+        coalescer.offer(playerId, rawMessage, merged ->
+                orchestrator.getAiBridge().processChatAsync(
+                        merged, playerName, playerId, biomeName, null, toChat
+                ));
+    }
+
+    /** Burst-merging / duplicate-suppression counters for monitoring. */
+    public static ChatCoalescer getCoalescer() {
+        return coalescer;
+    }
+
+    /**
+     * Drops pending merges and stops the coalescer's timer thread. A fresh coalescer takes
+     * over, so a world opened again in the same game (single player) still gets replies.
+     */
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent event) {
+        ChatCoalescer stopping = coalescer;
+        coalescer = new ChatCoalescer();
+        stopping.shutdown();
     }
 
     /**
      * Broadcasts an AI response into the game chat as CoolPlayer303.
-     * Called both by the chat event handler and by the idle-initiation timer.
+     * Called by the chat event handler.
      */
     private static void broadcastAsEntity(MinecraftServer server, String response) {
         if (server == null) return;
@@ -151,13 +179,21 @@ public class ChatInterceptor {
 
     /**
      * Static entry point for the idle-initiation callback registered in MetaOrchestrator.
-     * Picks up the last known server to route the message.
+     * Sends the message as CoolPlayer303 to the idle player only; dropped if they have
+     * left in the meantime. Picks up the last known server to route the message.
      */
-    public static void broadcastAsEntityStatic(String response) {
+    public static void sendAsEntityStatic(UUID playerId, String response) {
         MinecraftServer server = lastServer;
         if (server == null) {
             server = ServerLifecycleHooks.getCurrentServer();
         }
-        broadcastAsEntity(server, response);
+        if (server == null) return;
+        MinecraftServer target = server;
+        target.execute(() -> {
+            ServerPlayer player = target.getPlayerList().getPlayer(playerId);
+            if (player != null) {
+                player.sendSystemMessage(Component.literal("§d<CoolPlayer303>§r " + response));
+            }
+        });
     }
 }
@@ -0,0 +1,282 @@
+package net.mcreator.insidethesystem.meta;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * ConversationSessions — Per-player conversation memory for the Gemini bridge.
+ *
+ * Every player UUID gets its own session, so two people chatting on the same server no
+ * longer read (and trample) each other's history. A session is a fixed-capacity ring
+ * buffer of user/model exchanges; each turn is held as the UTF-8 JSON fragment produced
+ * by {@link GeminiRequestBody#encodeTurn}, ready to splice into the next request.
+ * Appending overwrites the oldest exchange in place — no array copies, no trimming loop.
+ *
+ * Request size is bounded by an estimated token budget ({@code history.token_budget}):
+ * whenever a session's exchanges together exceed it, the oldest ones are folded into a
+ * rolling summary — a short local gist of each exchange, capped at
+ * {@code history.summary_chars} — that is sent ahead of the remaining turns as a single
+ * "[MEMORY ...]" exchange. However long a session runs, the history part of a request
+ * stays roughly flat.
+ *
+ * Memory is bounded three ways:
+ *   1. Idle TTL — sessions untouched for {@code session.idle_minutes} are dropped
+ *   2. LRU cap — at most {@code session.max_sessions} sessions are kept
+ *   3. Global byte cap — once all turns together exceed {@code session.max_bytes}, the
+ *      oldest exchanges of the least recently used sessions are folded away first
+ *
+ * Idle-initiated messages and callers without a player use {@link #SHARED}.
+ * Thread-safe: all access is synchronized on the instance; critical sections are tiny.
+ */
+public class ConversationSessions {
+    private static final Logger LOGGER = LogManager.getLogger("SentientCoolplayer-AI");
+
+    /** Session used when no player UUID is known (idle initiation, legacy callers). */
+    public static final UUID SHARED = new UUID(0L, 0L);
+
+    private final int capacity = Math.max(1, BridgeConfig.getInt("session.max_exchanges", 10));
+    private final long idleTtlMs = Math.max(1, BridgeConfig.getLong("session.idle_minutes", 30)) * 60_000L;
+    private final int maxSessions = Math.max(1, BridgeConfig.getInt("session.max_sessions", 64));
+    private final long maxBytes = Math.max(64 * 1024, BridgeConfig.getLong("session.max_bytes", 2L * 1024 * 1024));
+    private final int tokenBudget = Math.max(100, BridgeConfig.getInt("history.token_budget", 1_500));
+    private final int summaryChars = Math.max(0, BridgeConfig.getInt("history.summary_chars", 800));
+
+    private static final int GIST_USER_CHARS = 60;
+    private static final int GIST_REPLY_CHARS = 80;
+    private static final byte[] SUMMARY_ACK = GeminiRequestBody.encodeTurn("model", "I remember.");
+
+    /** Access-ordered: iteration starts at the least recently used session. */
+    private final LinkedHashMap<UUID, Session> sessions = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0;
+
+    /**
+     * Ring buffer of exchanges; {@code users[i]}, {@code models[i]} and {@code gists[i]}
+     * form one exchange. Folded exchanges live on only as gists in {@code summary}.
+     */
+    private final class Session {
+        final byte[][] users;
+        final byte[][] models;
+        final String[] gists;
+        int head = 0;   // index of the oldest exchange
+        int size = 0;
+        long bytes = 0;
+        long lastAccess;
+
+        final ArrayDeque<String> summary = new ArrayDeque<>();
+        int summaryLength = 0;
+        byte[] summaryTurn;  // encoded lazily, null when stale
+
+        Session(int capacity, long now) {
+            this.users = new byte[capacity][];
+            this.models = new byte[capacity][];
+            this.gists = new String[capacity];
+            this.lastAccess = now;
+        }
+
+        /** Folds the oldest exchange into the rolling summary; returns the bytes freed. */
+        long foldOldest() {
+            long freed = users[head].length + models[head].length;
+            addToSummary(gists[head]);
+            users[head] = null;
+            models[head] = null;
+            gists[head] = null;
+            head = (head + 1) % users.length;
+            size--;
+            bytes -= freed;
+            return freed;
+        }
+
+        private void addToSummary(String gist) {
+            if (summaryChars == 0) return;
+            summary.addLast(gist);
+            summaryLength += gist.length() + 1;
+            while (summaryLength > summaryChars && summary.size() > 1) {
+                summaryLength -= summary.removeFirst().length() + 1;
+            }
+            summaryTurn = null;
+        }
+
+        byte[] summaryTurn() {
+            if (summaryTurn == null) {
+                StringBuilder sb = new StringBuilder(summaryLength + 64)
+                        .append("[MEMORY — earlier in this conversation:");
+                for (String gist : summary) sb.append(' ').append(gist);
+                summaryTurn = GeminiRequestBody.encodeTurn("user", sb.append(']').toString());
+            }
+            return summaryTurn;
+        }
+    }
+
+    /**
+     * Returns the player's history for the next request, oldest first, as a snapshot list
+     * (never null; empty for an unknown player): the rolling-summary exchange if anything
+     * has been folded, then every exchange still within the token budget.
+     */
+    public synchronized List<byte[]> history(UUID player) {
+        long now = System.currentTimeMillis();
+        expire(now);
+        Session s = sessions.get(key(player));
+        if (s == null) return List.of();
+        s.lastAccess = now;
+
+        List<byte[]> turns = new ArrayList<>(s.size * 2 + 2);
+        if (!s.summary.isEmpty()) {
+            turns.add(s.summaryTurn());
+            turns.add(SUMMARY_ACK);
+        }
+        int cap = s.users.length;
+        for (int i = 0; i < s.size; i++) {
+            int idx = (s.head + i) % cap;
+            turns.add(s.users[idx]);
+            turns.add(s.models[idx]);
+        }
+        return turns;
+    }
+
+    /**
+     * Records one user/model exchange. Older exchanges are folded into the summary when the
+     * ring is full or the session's estimated tokens exceed {@code history.token_budget}.
+     * @param userText  the player's message as typed (for the gist)
+     * @param modelText the reply (for the gist)
+     */
+    public synchronized void append(UUID player, String userText, byte[] userTurn,
+                                    String modelText, byte[] modelTurn) {
+        long now = System.currentTimeMillis();
+        expire(now);
+        UUID id = key(player);
+        Session s = sessions.get(id);
+        if (s == null) {
+            s = new Session(capacity, now);
+            sessions.put(id, s);
+        }
+        s.lastAccess = now;
+
+        if (s.size == capacity) totalBytes -= s.foldOldest();
+        int tail = (s.head + s.size) % capacity;
+        s.users[tail] = userTurn;
+        s.models[tail] = modelTurn;
+        s.gists[tail] = gist(userText, modelText);
+        s.size++;
+        long added = userTurn.length + modelTurn.length;
+        s.bytes += added;
+        totalBytes += added;
+
+        // Keep the newest exchange even if it alone is over budget
+        while (s.size > 1 && GeminiRequestBody.estimateTokens(s.bytes) > tokenBudget) {
+            totalBytes -= s.foldOldest();
+        }
+
+        enforceLimits(id);
+    }
+
+    /** Forgets a player's conversation. Logging out does not: sessions outlive a reconnect. */
+    public synchronized void remove(UUID player) {
+        Session s = sessions.remove(key(player));
+        if (s != null) totalBytes -= s.bytes;
+    }
+
+    /** Forgets every conversation (e.g. when another world is loaded). */
+    public synchronized void clear() {
+        sessions.clear();
+        totalBytes = 0;
+    }
+
+    public synchronized int sessionCount() {
+        return sessions.size();
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    // ─── EVICTION ────────────────────────────────────────────────────
+
+    /** Drops sessions idle past the TTL. The LRU head is the stalest, so stop at the first live one. */
+    private void expire(long now) {
+        Iterator<Session> it = sessions.values().iterator();
+        while (it.hasNext()) {
+            Session s = it.next();
+            if (now - s.lastAccess < idleTtlMs) break;
+            totalBytes -= s.bytes;
+            it.remove();
+        }
+    }
+
+    /** Applies the session-count and byte caps, sparing {@code current} for as long as possible. */
+    private void enforceLimits(UUID current) {
+        Iterator<Map.Entry<UUID, Session>> it = sessions.entrySet().iterator();
+        while (sessions.size() > maxSessions && it.hasNext()) {
+            Map.Entry<UUID, Session> e = it.next();
+            if (e.getKey().equals(current)) continue;
+            totalBytes -= e.getValue().bytes;
+            it.remove();
+        }
+
+        if (totalBytes <= maxBytes) return;
+        // Trim the least recently used sessions' oldest exchanges first, then our own
+        for (Iterator<Map.Entry<UUID, Session>> lru = sessions.entrySet().iterator();
+             lru.hasNext() && totalBytes > maxBytes; ) {
+            Map.Entry<UUID, Session> e = lru.next();
+            Session s = e.getValue();
+            boolean isCurrent = e.getKey().equals(current);
+            while (totalBytes > maxBytes && s.size > (isCurrent ? 1 : 0)) {
+                totalBytes -= s.foldOldest();
+            }
+        }
+        if (totalBytes > maxBytes) {
+            LOGGER.debug("[AI] Session memory {} B still above cap {} B after trimming", totalBytes, maxBytes);
+        }
+    }
+
+    /** One-line local gist of an exchange, e.g. {@code Player: "wait who built this" / You: "I did..."} */
+    static String gist(String userText, String modelText) {
+        StringBuilder sb = new StringBuilder(GIST_USER_CHARS + GIST_REPLY_CHARS + 24);
+        sb.append("Player: \"");
+        appendPlain(sb, userText, GIST_USER_CHARS);
+        sb.append("\" / You: \"");
+        appendPlain(sb, modelText, GIST_REPLY_CHARS);
+        return sb.append("\"").toString();
+    }
+
+    /** Appends {@code text} without § formatting codes and collapsed to {@code max} chars. */
+    private static void appendPlain(StringBuilder sb, String text, int max) {
+        if (text == null) return;
+        int written = 0;
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '§') {
+                i++; // skip the format code
+                continue;
+            }
+            if (Character.getType(c) == Character.NON_SPACING_MARK) continue; // Zalgo marks
+            if (Character.isWhitespace(c)) {
+                space = written > 0;
+                continue;
+            }
+            if (written >= max) {
+                sb.append('…');
+                return;
+            }
+            if (space) {
+                sb.append(' ');
+                written++;
+                space = false;
+            }
+            sb.append(c);
+            written++;
+        }
+    }
+
+    private static UUID key(UUID player) {
+        return player != null ? player : SHARED;
+    }
+}
@@ -0,0 +1,320 @@
+package net.mcreator.insidethesystem.meta;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.http.HttpHeaders;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * EndpointHealth — Live health registry + circuit breaker for the backend's endpoints.
+ *
+ * Each endpoint keeps:
+ *   1. A rolling window of the last {@value #WINDOW} outcomes (error rate)
+ *   2. An EWMA of time-to-response-headers, plus the last {@value #LATENCY_SAMPLES}
+ *      successful latencies for percentile queries (used by {@link HedgePolicy})
+ *   3. A breaker: CLOSED → OPEN after repeated failures → HALF_OPEN after a cool-down,
+ *      where exactly one probe request is let through to decide CLOSED or OPEN again
+ *   4. A Retry-After deadline honoured from 429/503 responses
+ *
+ * {@link #candidates()} returns the endpoints worth trying right now, best first, so a
+ * dead endpoint is skipped instantly instead of costing a full connect + read timeout
+ * on every chat line. The last endpoint that answered is persisted to
+ * ~/.sentient_coolplayer/last_good_endpoint.txt and tried first on the next cold start,
+ * until live scores say otherwise.
+ */
+public class EndpointHealth {
+    private static final Logger LOGGER = LogManager.getLogger("SentientCoolplayer-AI");
+
+    private static final Path LAST_GOOD_PATH = Path.of(
+            System.getProperty("user.home"), ".sentient_coolplayer", "last_good_endpoint.txt");
+
+    static final int WINDOW = 20;                       // outcomes in the rolling error window
+    static final int LATENCY_SAMPLES = 64;              // successful latencies kept for percentiles
+    private static final int MIN_PERCENTILE_SAMPLES = 10;
+    private static final int MIN_SAMPLES = 4;           // don't judge error rate on fewer calls
+    private static final double TRIP_ERROR_RATE = 0.5;  // open when ≥ 50% of the window failed
+    private static final int TRIP_CONSECUTIVE = 3;      // ...or on 3 failures in a row
+    private static final long BASE_OPEN_MS = 30_000;    // first cool-down, doubles per re-trip
+    private static final long MAX_OPEN_MS = 5 * 60_000;
+    private static final double EWMA_ALPHA = 0.3;
+    private static final long MAX_TIMEOUT_MS = 20_000;
+    private static final long MIN_TIMEOUT_MS = 6_000;
+    private static final double UNSAMPLED_SCORE = 10_000; // as a 10% error rate, or a 10 s latency
+
+    public enum BreakerState { CLOSED, OPEN, HALF_OPEN }
+
+    /** Mutable per-endpoint state. All access is synchronized on the instance. */
+    private static final class Stats {
+        final String url;
+        final int order;                        // static preference from GEMINI_ENDPOINTS
+        final boolean[] window = new boolean[WINDOW]; // true = failure
+        int windowPos = 0;
+        int windowCount = 0;
+        int windowFailures = 0;
+        int consecutiveFailures = 0;
+        double latencyEwmaMs = -1;
+        BreakerState state = BreakerState.CLOSED;
+        long openUntil = 0;
+        long openMs = BASE_OPEN_MS;
+        long retryAfterUntil = 0;
+        long probeStartedAt = 0;                // HALF_OPEN probe reservation
+        final long[] latencies = new long[LATENCY_SAMPLES];
+        int latencyPos = 0;
+        int latencyCount = 0;
+
+        Stats(String url, int order) {
+            this.url = url;
+            this.order = order;
+        }
+
+        double errorRate() {
+            return windowCount == 0 ? 0 : (double) windowFailures / windowCount;
+        }
+
+        void push(boolean failure) {
+            if (windowCount == WINDOW) {
+                if (window[windowPos]) windowFailures--;
+            } else {
+                windowCount++;
+            }
+            window[windowPos] = failure;
+            if (failure) windowFailures++;
+            windowPos = (windowPos + 1) % WINDOW;
+        }
+    }
+
+    private final Map<String, Stats> stats = new LinkedHashMap<>();
+    private volatile String lastGood;
+
+    public EndpointHealth(String... endpoints) {
+        for (int i = 0; i < endpoints.length; i++) {
+            stats.put(endpoints[i], new Stats(endpoints[i], i));
+        }
+        this.lastGood = loadLastGood();
+    }
+
+    // ─── SELECTION ────────────────────────────────────────────────────
+
+    /**
+     * Endpoints to try for the next request, best first. OPEN endpoints (and ones inside a
+     * Retry-After window) are left out; an endpoint whose cool-down has elapsed moves to
+     * HALF_OPEN and is offered to exactly one caller as a probe. If every endpoint is
+     * unavailable the list is empty and the caller should answer offline.
+     */
+    public List<String> candidates() {
+        long now = System.currentTimeMillis();
+        List<Ranked> usable = new ArrayList<>(stats.size());
+        for (Stats s : stats.values()) {
+            synchronized (s) {
+                if (now < s.retryAfterUntil) continue;
+                if (s.state == BreakerState.OPEN) {
+                    if (now < s.openUntil) continue;
+                    s.state = BreakerState.HALF_OPEN;
+                    s.probeStartedAt = 0;
+                    LOGGER.info("[AI] Endpoint {} half-open — allowing one probe", shortName(s.url));
+                }
+                if (s.state == BreakerState.HALF_OPEN) {
+                    // One probe at a time; a reservation that was never used lapses after a timeout
+                    if (now - s.probeStartedAt < MAX_TIMEOUT_MS) continue;
+                    s.probeStartedAt = now;
+                }
+                usable.add(new Ranked(s, score(s)));
+            }
+        }
+        // Live health decides; the persisted last-good endpoint only breaks ties, which in
+        // practice means a cold start where no endpoint has been sampled yet
+        String preferred = lastGood;
+        usable.sort(Comparator
+                .comparingDouble(Ranked::score)
+                .thenComparing((Ranked r) -> !r.stats().url.equals(preferred))
+                .thenComparingInt(r -> r.stats().order));
+
+        List<String> urls = new ArrayList<>(usable.size());
+        for (Ranked r : usable) urls.add(r.stats().url);
+        return urls;
+    }
+
+    /** An endpoint with its score, taken once so that sorting sees consistent values. */
+    private record Ranked(Stats stats, double score) {}
+
+    /**
+     * Lower is better: error rate dominates, latency breaks ties between healthy endpoints.
+     * An endpoint without any outcome yet scores {@value #UNSAMPLED_SCORE}: behind healthy
+     * endpoints, ahead of failing or very slow ones. Caller holds the lock.
+     */
+    private static double score(Stats s) {
+        if (s.windowCount == 0 && s.latencyEwmaMs < 0) return UNSAMPLED_SCORE;
+        double latency = s.latencyEwmaMs < 0 ? 0 : s.latencyEwmaMs;
+        return s.errorRate() * 100_000 + latency;
+    }
+
+    /**
+     * Per-attempt response timeout: a few multiples of the observed latency, so a stalled
+     * endpoint is abandoned quickly once we know what "normal" looks like for it.
+     */
+    public Duration timeoutFor(String url) {
+        Stats s = stats.get(url);
+        if (s == null) return Duration.ofMillis(MAX_TIMEOUT_MS);
+        synchronized (s) {
+            if (s.latencyEwmaMs < 0) return Duration.ofMillis(MAX_TIMEOUT_MS);
+            long ms = (long) (s.latencyEwmaMs * 4);
+            return Duration.ofMillis(Math.max(MIN_TIMEOUT_MS, Math.min(MAX_TIMEOUT_MS, ms)));
+        }
+    }
+
+    /**
+     * The q-quantile (0..1) of recent successful latencies for {@code url}, in ms,
+     * or -1 if fewer than {@value #MIN_PERCENTILE_SAMPLES} samples exist.
+     */
+    public long latencyPercentile(String url, double q) {
+        Stats s = stats.get(url);
+        if (s == null) return -1;
+        long[] sorted;
+        synchronized (s) {
+            if (s.latencyCount < MIN_PERCENTILE_SAMPLES) return -1;
+            sorted = Arrays.copyOf(s.latencies, s.latencyCount);
+        }
+        Arrays.sort(sorted);
+        int idx = (int) Math.ceil(q * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, idx))];
+    }
+
+    // ─── OUTCOME RECORDING ───────────────────────────────────────────
+
+    public void recordSuccess(String url, long latencyMs) {
+        Stats s = stats.get(url);
+        if (s == null) return;
+        synchronized (s) {
+            s.push(false);
+            s.consecutiveFailures = 0;
+            s.latencyEwmaMs = s.latencyEwmaMs < 0
+                    ? latencyMs
+                    : EWMA_ALPHA * latencyMs + (1 - EWMA_ALPHA) * s.latencyEwmaMs;
+            s.latencies[s.latencyPos] = latencyMs;
+            s.latencyPos = (s.latencyPos + 1) % LATENCY_SAMPLES;
+            if (s.latencyCount < LATENCY_SAMPLES) s.latencyCount++;
+            if (s.state != BreakerState.CLOSED) {
+                LOGGER.info("[AI] Endpoint {} recovered — breaker CLOSED", shortName(url));
+            }
+            s.state = BreakerState.CLOSED;
+            s.openMs = BASE_OPEN_MS;
+        }
+        if (!url.equals(lastGood)) {
+            lastGood = url;
+            saveLastGood(url);
+        }
+    }
+
+    /**
+     * Record a failed attempt (exception, timeout, 4xx/5xx).
+     * @param retryAfter server-requested back-off from the Retry-After header, or null
+     */
+    public void recordFailure(String url, long latencyMs, Duration retryAfter) {
+        Stats s = stats.get(url);
+        if (s == null) return;
+        long now = System.currentTimeMillis();
+        synchronized (s) {
+            s.push(true);
+            s.consecutiveFailures++;
+            if (latencyMs > 0 && s.latencyEwmaMs >= 0) {
+                s.latencyEwmaMs = EWMA_ALPHA * latencyMs + (1 - EWMA_ALPHA) * s.latencyEwmaMs;
+            }
+            if (retryAfter != null && !retryAfter.isNegative()) {
+                s.retryAfterUntil = now + retryAfter.toMillis();
+            }
+
+            boolean trip = s.state == BreakerState.HALF_OPEN
+                    || s.consecutiveFailures >= TRIP_CONSECUTIVE
+                    || (s.windowCount >= MIN_SAMPLES && s.errorRate() >= TRIP_ERROR_RATE);
+            if (trip) {
+                if (s.state == BreakerState.HALF_OPEN) {
+                    s.openMs = Math.min(MAX_OPEN_MS, s.openMs * 2);
+                }
+                s.state = BreakerState.OPEN;
+                s.openUntil = now + s.openMs;
+                LOGGER.warn("[AI] Endpoint {} breaker OPEN for {}s (error rate {}%)",
+                        shortName(url), s.openMs / 1000, Math.round(s.errorRate() * 100));
+            }
+        }
+    }
+
+    public BreakerState stateOf(String url) {
+        Stats s = stats.get(url);
+        if (s == null) return BreakerState.CLOSED;
+        synchronized (s) {
+            return s.state;
+        }
+    }
+
+    // ─── RETRY-AFTER ─────────────────────────────────────────────────
+
+    /**
+     * Parses a Retry-After header (delta-seconds or HTTP-date).
+     * @return the requested delay, or null if absent/unparseable
+     */
+    public static Duration parseRetryAfter(HttpHeaders headers) {
+        String value = headers.firstValue("Retry-After").orElse(null);
+        if (value == null || value.isBlank()) return null;
+        value = value.trim();
+        try {
+            return Duration.ofSeconds(Long.parseLong(value));
+        } catch (NumberFormatException ignored) {}
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Duration.ofMillis(Math.max(0, at.toInstant().toEpochMilli() - System.currentTimeMillis()));
+        } catch (Exception ignored) {}
+        return null;
+    }
+
+    // ─── PERSISTENCE ─────────────────────────────────────────────────
+
+    private String loadLastGood() {
+        try {
+            if (Files.exists(LAST_GOOD_PATH)) {
+                String url = Files.readString(LAST_GOOD_PATH, StandardCharsets.UTF_8).trim();
+                if (stats.containsKey(url)) {
+                    LOGGER.info("[AI] Preferring last known-good endpoint {}", shortName(url));
+                    return url;
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("[AI] Could not read {}", LAST_GOOD_PATH, e);
+        }
+        return stats.isEmpty() ? null : stats.keySet().iterator().next();
+    }
+
+    private static void saveLastGood(String url) {
+        try {
+            Files.createDirectories(LAST_GOOD_PATH.getParent());
+            Files.writeString(LAST_GOOD_PATH, url, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            LOGGER.debug("[AI] Could not persist last known-good endpoint", e);
+        }
+    }
+
+    /**
+     * "v1beta/models/gemini-2.0-flash" style label for logs; endpoints without a
+     * ":method" suffix (OpenAI-compatible servers) keep their host, "10.0.0.5:8080/v1/chat/completions".
+     */
+    static String shortName(String url) {
+        int scheme = url.indexOf("://");
+        int host = scheme >= 0 ? scheme + 3 : 0;
+        int path = url.indexOf('/', host);
+        String tail = path >= 0 ? url.substring(path + 1) : url;
+        int colon = tail.lastIndexOf(':');
+        return colon > 0 ? tail.substring(0, colon) : url.substring(host);
+    }
+}
@@ -0,0 +1,111 @@
+package net.mcreator.insidethesystem.meta;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * GeminiBackend — Google's Gemini API (generateContent / streamGenerateContent).
+ *
+ * Requests are {@link GeminiRequestBody} gathers, replies go through
+ * {@link GeminiResponseParser}; the key travels as the {@code key} query parameter.
+ * Streaming swaps :generateContent for :streamGenerateContent?alt=sse. The static prompt
+ * prefix can live in Gemini's context cache ({@link GeminiContextCache}).
+ *
+ * Config key {@code api.base_url} points the backend at another host serving the same
+ * paths, e.g. a local stand-in server for load tests.
+ */
+public class GeminiBackend implements LlmBackend {
+    private static final Logger LOGGER = LogManager.getLogger("SentientCoolplayer-AI");
+
+    static final String DEFAULT_API_BASE = "https://generativelanguage.googleapis.com";
+    private static final Duration VALIDATION_TIMEOUT = Duration.ofSeconds(10);
+
+    private final String apiBase = apiBase();
+
+    // Try v1beta first, fall back to v1 if needed
+    private final String[] endpoints = {
+            apiBase + "/v1beta/models/gemini-2.0-flash:generateContent",
+            apiBase + "/v1/models/gemini-2.0-flash:generateContent",
+            apiBase + "/v1beta/models/gemini-1.5-flash:generateContent"
+    };
+
+    private static String apiBase() {
+        String base = BridgeConfig.getString("api.base_url", DEFAULT_API_BASE);
+        while (base.endsWith("/")) base = base.substring(0, base.length() - 1);
+        if (!base.equals(DEFAULT_API_BASE)) {
+            // The API key goes wherever this points
+            LOGGER.warn("[AI] Gemini API base overridden: {} — requests and the API key are sent there", base);
+        }
+        return base;
+    }
+
+    @Override
+    public String name() {
+        return "Gemini";
+    }
+
+    @Override
+    public String[] endpoints() {
+        return endpoints;
+    }
+
+    @Override
+    public boolean requiresApiKey() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsContextCache() {
+        return true;
+    }
+
+    @Override
+    public double defaultRequestsPerMinute() {
+        return 15; // the free-tier Flash limit
+    }
+
+    @Override
+    public Body assemble(byte[] systemInstruction, List<byte[]> history, byte[] userTurn, boolean streaming) {
+        return GeminiRequestBody.assemble(systemInstruction, history, userTurn);
+    }
+
+    @Override
+    public HttpRequest.Builder newRequest(String endpoint, String apiKey, boolean streaming) {
+        String url = streaming
+                ? endpoint.replace(":generateContent", ":streamGenerateContent") + "?alt=sse&key=" + apiKey
+                : endpoint + "?key=" + apiKey;
+        return HttpRequest.newBuilder(URI.create(url));
+    }
+
+    @Override
+    public LlmReply parseReply(Reader in) throws IOException {
+        return GeminiResponseParser.parse(in);
+    }
+
+    @Override
+    public LlmReply parseEvent(String data) throws IOException {
+        return GeminiResponseParser.parse(data);
+    }
+
+    /** GET /models on the v1beta and v1 APIs — either accepting the key is enough. */
+    @Override
+    public List<HttpRequest> validationRequests(String apiKey) {
+        return List.of(modelsRequest(apiBase + "/v1beta/models", apiKey), modelsRequest(apiBase + "/v1/models", apiKey));
+    }
+
+    private static HttpRequest modelsRequest(String url, String apiKey) {
+        return HttpRequest.newBuilder(URI.create(url + "?key=" + apiKey))
+                .timeout(VALIDATION_TIMEOUT)
+                .header("User-Agent", VirtualThreadAI.USER_AGENT)
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+    }
+}
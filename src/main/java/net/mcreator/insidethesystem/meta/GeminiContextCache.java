@@ -0,0 +1,249 @@
+package net.mcreator.insidethesystem.meta;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * GeminiContextCache — Keeps the static system prompts in Gemini's context cache.
+ *
+ * The identity/lore/rules prefix of a prompt profile never changes, yet it used to be
+ * resent and prefilled on every chat line. This registers it once per model and profile
+ * (see {@link PromptProfiles}) through the cachedContents API and hands out the cache's
+ * resource name, which the request body references instead of an inline
+ * systemInstruction (see {@link GeminiRequestBody#assembleCached}).
+ *
+ * Everything happens off the request path: when no live cache exists for an endpoint's
+ * model and profile, {@link #nameFor} returns null (the request goes inline) and starts creating one
+ * in the background; once fewer than a quarter of its TTL remains, the TTL is renewed in
+ * the background too. A request that fails because the cache is gone is reported back
+ * through {@link #invalidate} and retried inline by the caller.
+ *
+ * Caches are derived from the generateContent endpoint URL:
+ *   https://host/v1beta/models/gemini-2.0-flash:generateContent
+ *   → POST https://host/v1beta/cachedContents  {"model":"models/gemini-2.0-flash", ...}
+ * Only v1beta exposes cachedContents; other endpoints always go inline. A static prefix
+ * estimated below the model's minimum cache size ({@code context_cache.min_tokens}) is
+ * never registered: Gemini would refuse it, and the compact profiles mostly are that
+ * small. Creation can still be refused (e.g. a model without caching); such endpoints
+ * are retried after {@code context_cache.retry_minutes}.
+ *
+ * Config keys: context_cache.enabled (true), context_cache.ttl_seconds (3600),
+ * context_cache.retry_minutes (30), context_cache.min_tokens (4096 — Flash's minimum;
+ * lower it for models that cache smaller prefixes).
+ */
+public class GeminiContextCache {
+    private static final Logger LOGGER = LogManager.getLogger("SentientCoolplayer-AI");
+
+    private final boolean enabled = BridgeConfig.getBoolean("context_cache.enabled", true);
+    private final long ttlSeconds = Math.max(300, BridgeConfig.getLong("context_cache.ttl_seconds", 3600));
+    private final long retryMs = Math.max(1, BridgeConfig.getLong("context_cache.retry_minutes", 30)) * 60_000L;
+    private final int minTokens = Math.max(0, BridgeConfig.getInt("context_cache.min_tokens", 4096));
+
+    /** One cache: an endpoint's model holding one profile's static prefix. */
+    private record Key(String endpoint, SystemPromptRenderer prompt) {}
+
+    /** Per key. All fields guarded by the instance. */
+    private static final class Entry {
+        String name;            // live cachedContents/... name, or null
+        long expiresAt;         // epoch ms
+        long retryAfter;        // epoch ms before which creation is not attempted again
+        boolean busy;           // a create/renew call is in flight
+    }
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The cached-content name to reference when calling {@code endpoint} with
+     * {@code prompt}'s static prefix, or null to send the prompt inline. Never blocks:
+     * creation and renewal run in the background.
+     */
+    public String nameFor(String endpoint, SystemPromptRenderer prompt, String apiKey) {
+        if (!enabled || apiKey == null || cacheBase(endpoint) == null) return null;
+        Entry e = entries.computeIfAbsent(new Key(endpoint, prompt), k -> new Entry());
+        long now = System.currentTimeMillis();
+        String name;
+        boolean create = false, renew = false;
+        synchronized (e) {
+            if (e.name != null && now >= e.expiresAt - 5_000) e.name = null; // (nearly) expired
+            name = e.name;
+            if (!e.busy) {
+                if (name == null && now >= e.retryAfter) {
+                    if (isTooSmall(prompt)) e.retryAfter = Long.MAX_VALUE; // the prefix never changes
+                    else create = true;
+                }
+                else if (name != null && e.expiresAt - now < ttlSeconds * 250) renew = true; // < 1/4 TTL left
+                e.busy = create || renew;
+            }
+        }
+        if (create) Thread.ofVirtual().name("SentientCoolplayer-CacheCreate").start(() -> create(endpoint, prompt, apiKey, e));
+        if (renew) {
+            String current = name;
+            Thread.ofVirtual().name("SentientCoolplayer-CacheRenew").start(() -> renew(endpoint, apiKey, e, current));
+        }
+        return name;
+    }
+
+    /** True (and logged, once per key) if {@code prompt}'s static prefix is under the minimum cache size. */
+    private boolean isTooSmall(SystemPromptRenderer prompt) {
+        int tokens = GeminiRequestBody.estimateTokens(prompt.staticInstruction().length);
+        if (tokens >= minTokens) return false;
+        LOGGER.debug("[AI] Static prompt of ~{} tokens is under the {}-token cache minimum — sending it inline",
+                tokens, minTokens);
+        return true;
+    }
+
+    /**
+     * A request to {@code endpoint} was rejected for a stale cache; forget that endpoint's
+     * caches so the next requests re-create them. The error does not say which profile's
+     * cache it was, so all of the endpoint's go.
+     */
+    public void invalidate(String endpoint) {
+        entries.forEach((key, e) -> {
+            if (!key.endpoint().equals(endpoint)) return;
+            synchronized (e) {
+                if (e.name != null) {
+                    LOGGER.info("[AI] Context cache {} for {} is gone — sending the prompt inline",
+                            e.name, EndpointHealth.shortName(endpoint));
+                    e.name = null;
+                }
+            }
+        });
+    }
+
+    /** Drops every cache (e.g. after the API key changed — caches belong to the key's project). */
+    public void clear() {
+        entries.clear();
+    }
+
+    /** True if a Gemini error body says the referenced cached content is missing, expired or unusable. */
+    public static boolean isStaleCacheError(int status, String errorBody) {
+        if (status != 400 && status != 403 && status != 404) return false;
+        return errorBody != null && (errorBody.contains("cachedContent") || errorBody.contains("CachedContent")
+                || errorBody.contains("cached content") || errorBody.contains("Cached content"));
+    }
+
+    // ─── CACHE CALLS ─────────────────────────────────────────────────
+
+    private void create(String endpoint, SystemPromptRenderer prompt, String apiKey, Entry e) {
+        String base = cacheBase(endpoint);
+        String name = null;
+        long expiresAt = 0;
+        try {
+            StringWriter body = new StringWriter();
+            try (JsonWriter json = new JsonWriter(body)) {
+                json.beginObject();
+                json.name("model").value(modelName(endpoint));
+                json.name("systemInstruction").jsonValue(
+                        new String(prompt.staticInstruction(), StandardCharsets.UTF_8));
+                json.name("ttl").value(ttlSeconds + "s");
+                json.endObject();
+            }
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/cachedContents?key=" + apiKey))
+                    .timeout(Duration.ofSeconds(20))
+                    .header("Content-Type", "application/json; charset=utf-8")
+                    .header("User-Agent", VirtualThreadAI.USER_AGENT)
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString(), StandardCharsets.UTF_8))
+                    .build();
+            JsonObject created = call(request, endpoint, "create");
+            if (created != null && created.has("name")) {
+                name = created.get("name").getAsString();
+                expiresAt = expiry(created);
+                LOGGER.info("[AI] Static prompt cached as {} for {} (ttl {}s)",
+                        name, EndpointHealth.shortName(endpoint), ttlSeconds);
+            }
+        } catch (Exception ex) {
+            LOGGER.debug("[AI] Context cache creation failed for {}: {}", EndpointHealth.shortName(endpoint), ex.toString());
+        }
+        synchronized (e) {
+            e.busy = false;
+            if (name != null) {
+                e.name = name;
+                e.expiresAt = expiresAt;
+            } else {
+                e.retryAfter = System.currentTimeMillis() + retryMs;
+            }
+        }
+    }
+
+    private void renew(String endpoint, String apiKey, Entry e, String name) {
+        long expiresAt = 0;
+        try {
+            HttpRequest request = HttpRequest.newBuilder(
+                            URI.create(cacheBase(endpoint) + "/" + name + "?updateMask=ttl&key=" + apiKey))
+                    .timeout(Duration.ofSeconds(20))
+                    .header("Content-Type", "application/json; charset=utf-8")
+                    .header("User-Agent", VirtualThreadAI.USER_AGENT)
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"ttl\":\"" + ttlSeconds + "s\"}"))
+                    .build();
+            JsonObject renewed = call(request, endpoint, "renew");
+            if (renewed != null) expiresAt = expiry(renewed);
+        } catch (Exception ex) {
+            LOGGER.debug("[AI] Context cache renewal failed for {}: {}", EndpointHealth.shortName(endpoint), ex.toString());
+        }
+        synchronized (e) {
+            e.busy = false;
+            if (name.equals(e.name)) {
+                // A failed renewal leaves the old deadline; the cache is re-created once it lapses
+                if (expiresAt > 0) e.expiresAt = expiresAt;
+            }
+        }
+    }
+
+    private static JsonObject call(HttpRequest request, String endpoint, String what)
+            throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = VirtualThreadAI.HTTP_CLIENT.send(request,
+                HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = VirtualThreadAI.openBody(response)) {
+            if (response.statusCode() != 200) {
+                String err = new String(body.readNBytes(512), StandardCharsets.UTF_8);
+                LOGGER.warn("[AI] Context cache {} for {} refused (HTTP {}): {}", what,
+                        EndpointHealth.shortName(endpoint), response.statusCode(), err);
+                return null;
+            }
+            return JsonParser.parseReader(new InputStreamReader(body, StandardCharsets.UTF_8)).getAsJsonObject();
+        }
+    }
+
+    /** expireTime from a CachedContent resource, or now + TTL if absent/unparseable. */
+    private long expiry(JsonObject cached) {
+        if (cached.has("expireTime")) {
+            try {
+                return Instant.parse(cached.get("expireTime").getAsString()).toEpochMilli();
+            } catch (Exception ignored) {}
+        }
+        return System.currentTimeMillis() + ttlSeconds * 1000;
+    }
+
+    // ─── URL DERIVATION ──────────────────────────────────────────────
+
+    /** "https://host/v1beta" for a v1beta generateContent endpoint, else null. */
+    static String cacheBase(String endpoint) {
+        int models = endpoint.indexOf("/models/");
+        if (models < 0) return null;
+        String base = endpoint.substring(0, models);
+        return base.endsWith("/v1beta") ? base : null;
+    }
+
+    /** "models/gemini-2.0-flash" for ".../models/gemini-2.0-flash:generateContent". */
+    static String modelName(String endpoint) {
+        int models = endpoint.indexOf("/models/");
+        int colon = endpoint.indexOf(':', models);
+        return endpoint.substring(models + 1, colon > 0 ? colon : endpoint.length());
+    }
+}
@@ -0,0 +1,181 @@
+package net.mcreator.insidethesystem.meta;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * GeminiRequestBody — A generateContent request assembled from pre-encoded UTF-8 fragments.
+ *
+ * Building a Gson JsonObject tree, stringifying it and converting it to bytes on every
+ * call re-serializes the same history turns over and over. Instead, each piece is encoded
+ * exactly once with a streaming {@link JsonWriter}:
+ *   - a history turn when it is added to the conversation
+ *   - the systemInstruction when the rendered prompt changes (see {@link SystemPromptRenderer})
+ *   - the new user turn once per request
+ * A request is then just a gather of those byte arrays between a few constant JSON
+ * punctuation fragments, published to the HTTP client as they are (the client's copy
+ * into its send buffers is the only one):
+ *
+ *   {"systemInstruction":<sys>,"contents":[<turn>,<turn>,...,<user turn>]}
+ *
+ * or, with the static prompt held in Gemini's context cache ({@link #assembleCached}):
+ *
+ *   {"cachedContent":"cachedContents/...","contents":[<turn>,...,<context turn>,<user turn>]}
+ *
+ * The fragment encoders double as the bridge's backend-neutral turn format: other
+ * backends splice the encoded text out of these fragments (see {@link OpenAiRequestBody}).
+ */
+public final class GeminiRequestBody implements LlmBackend.Body {
+    private static final byte[] OPEN_SYSTEM = bytes("{\"systemInstruction\":");
+    private static final byte[] OPEN_CONTENTS = bytes(",\"contents\":[");
+    private static final byte[] OPEN_CONTENTS_ONLY = bytes("{\"contents\":[");
+    private static final byte[] OPEN_CACHED = bytes("{\"cachedContent\":");
+    private static final byte[] COMMA = bytes(",");
+    private static final byte[] CLOSE = bytes("]}");
+
+    private final List<byte[]> fragments;
+    private final long length;
+
+    private GeminiRequestBody(List<byte[]> fragments) {
+        this.fragments = fragments;
+        long len = 0;
+        for (byte[] f : fragments) len += f.length;
+        this.length = len;
+    }
+
+    /**
+     * Gathers a request from already-encoded parts.
+     * @param systemInstruction encoded by {@link #encodeSystemInstruction}, or null to omit
+     * @param history           encoded turns, oldest first (not copied beyond the reference list)
+     * @param userTurn          the current user turn, encoded by {@link #encodeTurn}
+     */
+    public static GeminiRequestBody assemble(byte[] systemInstruction, List<byte[]> history, byte[] userTurn) {
+        List<byte[]> parts = new ArrayList<>(history.size() * 2 + 5);
+        if (systemInstruction != null) {
+            parts.add(OPEN_SYSTEM);
+            parts.add(systemInstruction);
+            parts.add(OPEN_CONTENTS);
+        } else {
+            parts.add(OPEN_CONTENTS_ONLY);
+        }
+        for (byte[] turn : history) {
+            parts.add(turn);
+            parts.add(COMMA);
+        }
+        parts.add(userTurn);
+        parts.add(CLOSE);
+        return new GeminiRequestBody(parts);
+    }
+
+    /**
+     * Gathers a request that references cached content (the static prompt) by name. The
+     * live context goes in as a user turn right before the player's turn, since a request
+     * using cachedContent may not carry its own systemInstruction.
+     * @param cachedContent resource name, e.g. "cachedContents/abc123"
+     */
+    public static GeminiRequestBody assembleCached(String cachedContent, List<byte[]> history,
+                                                   byte[] contextTurn, byte[] userTurn) {
+        List<byte[]> parts = new ArrayList<>(history.size() * 2 + 7);
+        parts.add(OPEN_CACHED);
+        parts.add(encodeString(cachedContent));
+        parts.add(OPEN_CONTENTS);
+        for (byte[] turn : history) {
+            parts.add(turn);
+            parts.add(COMMA);
+        }
+        parts.add(contextTurn);
+        parts.add(COMMA);
+        parts.add(userTurn);
+        parts.add(CLOSE);
+        return new GeminiRequestBody(parts);
+    }
+
+    /**
+     * Publishes the fragments with a known Content-Length; safe to re-send (retries, hedges).
+     * One byte-array publisher per fragment: ofByteArrays would copy every fragment, however
+     * small, into a buffer of its own (16 KB each).
+     */
+    @Override
+    public HttpRequest.BodyPublisher publisher() {
+        HttpRequest.BodyPublisher[] parts = new HttpRequest.BodyPublisher[fragments.size()];
+        for (int i = 0; i < parts.length; i++) parts[i] = HttpRequest.BodyPublishers.ofByteArray(fragments.get(i));
+        return HttpRequest.BodyPublishers.concat(parts);
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    /** Estimated input tokens of this request, see {@link #estimateTokens}. */
+    @Override
+    public int estimatedTokens() {
+        return estimateTokens(length);
+    }
+
+    /**
+     * Rough token count of UTF-8 JSON text: about four bytes per token, which errs on the
+     * high side for English and on the low side for heavily glitched (combining-mark) text.
+     */
+    public static int estimateTokens(long bytes) {
+        return (int) Math.min(Integer.MAX_VALUE, (bytes + 3) / 4);
+    }
+
+    // ─── FRAGMENT ENCODERS ───────────────────────────────────────────
+
+    /** {"role":"user|model","parts":[{"text":"..."}]} */
+    public static byte[] encodeTurn(String role, String text) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(text.length() + 48);
+        try (JsonWriter json = new JsonWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            json.beginObject();
+            json.name("role").value(role);
+            writeParts(json, text);
+            json.endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // in-memory stream: cannot happen
+        }
+        return out.toByteArray();
+    }
+
+    /** {"parts":[{"text":"..."}]} — the value of the systemInstruction field. */
+    public static byte[] encodeSystemInstruction(String prompt) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(prompt.length() + 32);
+        try (JsonWriter json = new JsonWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            json.beginObject();
+            writeParts(json, prompt);
+            json.endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /** A JSON string literal, quotes and escapes included. */
+    static byte[] encodeString(String value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(value.length() + 8);
+        try (JsonWriter json = new JsonWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            json.value(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeParts(JsonWriter json, String text) throws IOException {
+        json.name("parts").beginArray();
+        json.beginObject().name("text").value(text).endObject();
+        json.endArray();
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
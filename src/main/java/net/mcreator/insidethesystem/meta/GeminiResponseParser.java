@@ -0,0 +1,136 @@
+package net.mcreator.insidethesystem.meta;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * GeminiResponseParser — Pull-parses a generateContent response (or one streamed SSE chunk).
+ *
+ * Walks straight to candidates[0].content.parts[*].text with a {@link JsonReader} and
+ * skips everything else (safetyRatings, citationMetadata, further candidates, ...) without
+ * materialising it as Gson objects. On the way it picks up:
+ *   - finishReason of the first candidate and promptFeedback.blockReason, to tell a
+ *     safety-filtered reply apart from a merely empty one
+ *   - usageMetadata token counts, as plain ints for metrics
+ * The result is the backend-neutral {@link LlmReply}.
+ */
+public final class GeminiResponseParser {
+
+    private GeminiResponseParser() {}
+
+    /** Parses one complete JSON response document from {@code in}. */
+    public static LlmReply parse(Reader in) throws IOException {
+        JsonReader json = new JsonReader(in);
+
+        StringBuilder text = null;
+        boolean sawCandidate = false;
+        String finishReason = null;
+        String blockReason = null;
+        int promptTokens = 0, candidatesTokens = 0, cachedTokens = 0, totalTokens = 0;
+
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "candidates" -> {
+                    json.beginArray();
+                    if (json.hasNext()) {
+                        sawCandidate = true;
+                        json.beginObject();
+                        while (json.hasNext()) {
+                            switch (json.nextName()) {
+                                case "content" -> text = readContent(json, text);
+                                case "finishReason" -> finishReason = json.nextString();
+                                default -> json.skipValue();
+                            }
+                        }
+                        json.endObject();
+                    }
+                    // Only the first candidate is used; skip the rest wholesale
+                    while (json.hasNext()) json.skipValue();
+                    json.endArray();
+                }
+                case "promptFeedback" -> {
+                    json.beginObject();
+                    while (json.hasNext()) {
+                        if (json.nextName().equals("blockReason")) blockReason = json.nextString();
+                        else json.skipValue();
+                    }
+                    json.endObject();
+                }
+                case "usageMetadata" -> {
+                    json.beginObject();
+                    while (json.hasNext()) {
+                        switch (json.nextName()) {
+                            case "promptTokenCount" -> promptTokens = json.nextInt();
+                            case "candidatesTokenCount" -> candidatesTokens = json.nextInt();
+                            case "cachedContentTokenCount" -> cachedTokens = json.nextInt();
+                            case "totalTokenCount" -> totalTokens = json.nextInt();
+                            default -> json.skipValue();
+                        }
+                    }
+                    json.endObject();
+                }
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+
+        LlmReply.Status status;
+        if (text != null && !text.isEmpty()) {
+            status = LlmReply.Status.TEXT;
+        } else if (blockReason != null || isFilterReason(finishReason)) {
+            status = LlmReply.Status.BLOCKED;
+            if (finishReason == null) finishReason = blockReason;
+        } else if (!sawCandidate) {
+            status = LlmReply.Status.NO_CANDIDATES;
+        } else {
+            status = LlmReply.Status.EMPTY;
+        }
+        return new LlmReply(status, text != null ? text.toString() : "", finishReason,
+                promptTokens, candidatesTokens, cachedTokens, totalTokens);
+    }
+
+    /** Convenience for a single SSE data payload. */
+    public static LlmReply parse(String json) throws IOException {
+        return parse(new StringReader(json));
+    }
+
+    /** content: { parts: [ {text}, ... ], role } — appends every text part. */
+    private static StringBuilder readContent(JsonReader json, StringBuilder text) throws IOException {
+        json.beginObject();
+        while (json.hasNext()) {
+            if (!json.nextName().equals("parts") || json.peek() != JsonToken.BEGIN_ARRAY) {
+                json.skipValue();
+                continue;
+            }
+            json.beginArray();
+            while (json.hasNext()) {
+                json.beginObject();
+                while (json.hasNext()) {
+                    if (json.nextName().equals("text")) {
+                        if (text == null) text = new StringBuilder();
+                        text.append(json.nextString());
+                    } else {
+                        json.skipValue();
+                    }
+                }
+                json.endObject();
+            }
+            json.endArray();
+        }
+        json.endObject();
+        return text;
+    }
+
+    private static boolean isFilterReason(String finishReason) {
+        if (finishReason == null) return false;
+        return switch (finishReason) {
+            case "SAFETY", "RECITATION", "BLOCKLIST", "PROHIBITED_CONTENT", "SPII", "IMAGE_SAFETY" -> true;
+            default -> false;
+        };
+    }
+}
@@ -0,0 +1,143 @@
+package net.mcreator.insidethesystem.meta;
+
+/**
+ * GlitchText — Local text corruption for CoolPlayer303's replies.
+ *
+ * Gemini is asked for plain text only; the corruption players see is added here, after
+ * generation, instead of being spent as output tokens (Zalgo marks alone roughly triple
+ * a reply's token count — right when the kill-switch needs replies fast). Applied on
+ * delivery to every reply, Gemini's and the offline engine's alike, so cached, pooled
+ * and remembered text stays plain.
+ *
+ * Three effects, tuned per persona phase and far stronger once the kill-switch is
+ * imminent (see {@link #LEVELS}):
+ *   - Zalgo: 1..n combining marks from a precomputed table after letters and digits
+ *   - katakana: Latin letters swapped for a katakana look-alike
+ *   - § obfuscation: whole words wrapped in §k (scrambled) or a red flicker, then §r
+ * § codes already in the text are copied untouched, and no word is wrapped while such a
+ * style is active so it is not cut short.
+ *
+ * The RNG is a SplitMix64 state in a local variable, seeded from {@code glitch.seed}
+ * (random per launch when unset) and the text itself. A pass allocates nothing beyond
+ * the output it appends to. {@code glitch.enabled=false} turns the stage off.
+ */
+public final class GlitchText {
+
+    /** Per-mille chances of each effect, and the most combining marks on one character. */
+    private record Level(int marks, int maxMarks, int katakana, int obfuscate, int flicker) {
+        boolean isOff() {
+            return marks == 0 && katakana == 0 && obfuscate == 0 && flicker == 0;
+        }
+    }
+
+    private static final Level OFF = new Level(0, 0, 0, 0, 0);
+
+    /** Indexed by [PersonaPhase.ordinal()][kill-switch ? 1 : 0]. */
+    private static final Level[][] LEVELS = {
+            /* FRIEND    */ { OFF,                              new Level(550, 3, 60, 100, 120) },
+            /* UNCANNY   */ { new Level(0, 0, 8, 0, 0),         new Level(600, 3, 70, 110, 130) },
+            /* OBSESSION */ { new Level(35, 1, 20, 15, 20),     new Level(650, 4, 80, 120, 150) },
+    };
+
+    /** The combining diacritical marks block, U+0300..U+036F. */
+    private static final char[] MARKS = new char[0x70];
+    /** Katakana look-alike for each of a..z. */
+    private static final char[] KATAKANA = "アビシドエフグハイジカルムンオプクラストウヴワクヤズ".toCharArray();
+
+    static {
+        for (int i = 0; i < MARKS.length; i++) MARKS[i] = (char) (0x0300 + i);
+    }
+
+    private static final boolean ENABLED = BridgeConfig.getBoolean("glitch.enabled", true);
+    private static final long BASE_SEED = BridgeConfig.getLong("glitch.seed", System.nanoTime());
+
+    private GlitchText() {}
+
+    /** True if replies in this state are corrupted at all. */
+    public static boolean isActive(VirtualThreadAI.PersonaPhase phase, boolean killSwitch) {
+        return ENABLED && !level(phase, killSwitch).isOff();
+    }
+
+    /** Returns {@code text} corrupted for this state (the same text when nothing applies). */
+    public static String apply(String text, VirtualThreadAI.PersonaPhase phase, boolean killSwitch) {
+        if (text == null || text.isEmpty() || !isActive(phase, killSwitch)) return text;
+        StringBuilder out = new StringBuilder(text.length() * (killSwitch ? 4 : 2));
+        applyTo(text, level(phase, killSwitch), BASE_SEED ^ text.hashCode() * 0x9E3779B97F4A7C15L, out);
+        return out.toString();
+    }
+
+    private static Level level(VirtualThreadAI.PersonaPhase phase, boolean killSwitch) {
+        return LEVELS[phase.ordinal()][killSwitch ? 1 : 0];
+    }
+
+    private static void applyTo(CharSequence text, Level level, long seed, StringBuilder out) {
+        long state = seed;
+        boolean styled = false;     // a § style from the text itself is active
+        boolean wrapped = false;    // we opened a § style for the current word
+        boolean inWord = false;
+        int n = text.length();
+
+        for (int i = 0; i < n; i++) {
+            char c = text.charAt(i);
+
+            if (c == '§' && i + 1 < n) {
+                char code = text.charAt(++i);
+                if (wrapped) {
+                    out.append("§r");
+                    wrapped = false;
+                }
+                out.append('§').append(code);
+                styled = Character.toLowerCase(code) != 'r';
+                continue;
+            }
+
+            boolean space = Character.isWhitespace(c);
+            if (space && wrapped) {
+                out.append("§r");
+                wrapped = false;
+            }
+            if (!space && !inWord && !styled) {
+                // Start of a word: maybe scramble or flicker all of it
+                state += 0x9E3779B97F4A7C15L;
+                int roll = permille(state);
+                if (roll < level.obfuscate()) {
+                    out.append("§4§k");
+                    wrapped = true;
+                } else if (roll < level.obfuscate() + level.flicker()) {
+                    out.append("§c");
+                    wrapped = true;
+                }
+            }
+            inWord = !space;
+
+            if (c < 128 && Character.isLetter(c)) {
+                state += 0x9E3779B97F4A7C15L;
+                if (permille(state) < level.katakana()) c = KATAKANA[Character.toLowerCase(c) - 'a'];
+            }
+            out.append(c);
+
+            if (Character.isLetterOrDigit(c)) {
+                state += 0x9E3779B97F4A7C15L;
+                long z = mix(state);
+                if ((int) Long.remainderUnsigned(z, 1000) < level.marks()) {
+                    int count = 1 + (int) Long.remainderUnsigned(z >>> 20, level.maxMarks());
+                    for (int m = 0; m < count; m++) {
+                        out.append(MARKS[(int) ((z >>> (30 + 6 * m)) & 0x3F) + (m & 1) * 0x30]);
+                    }
+                }
+            }
+        }
+        if (wrapped) out.append("§r");
+    }
+
+    private static int permille(long state) {
+        return (int) Long.remainderUnsigned(mix(state), 1000);
+    }
+
+    /** SplitMix64 output function. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,75 @@
+package net.mcreator.insidethesystem.meta;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HedgePolicy — Opt-in request hedging for tail-latency control.
+ *
+ * When enabled, a Gemini request that has not produced response headers by the
+ * configured percentile of its endpoint's observed latency (p90 by default) gets a
+ * duplicate fired at the next healthy endpoint; whichever answers first wins and the
+ * other exchange is cancelled.
+ *
+ * Hedges are paid for from a token budget: every primary request earns
+ * {@code hedge.max_ratio} tokens and a hedge costs one. With the ratio capped at 1.0,
+ * hedging can never more than double Gemini quota usage.
+ *
+ * Config keys (see {@link BridgeConfig}):
+ *   hedge.enabled     — false
+ *   hedge.percentile  — 0.90 (clamped to 0.50..0.99)
+ *   hedge.max_ratio   — 0.10 hedges per primary request (clamped to 0..1)
+ *   hedge.min_delay_ms — 250, floor for the hedge delay
+ */
+public class HedgePolicy {
+    private static final double MAX_BURST = 5.0; // tokens that may pile up during quiet periods
+
+    private final boolean enabled = BridgeConfig.getBoolean("hedge.enabled", false);
+    private final double percentile = clamp(BridgeConfig.getDouble("hedge.percentile", 0.90), 0.50, 0.99);
+    private final double maxRatio = clamp(BridgeConfig.getDouble("hedge.max_ratio", 0.10), 0.0, 1.0);
+    private final long minDelayMs = Math.max(0, BridgeConfig.getLong("hedge.min_delay_ms", 250));
+
+    private double tokens = 0;
+    private final AtomicLong hedgesFired = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * How long to wait on {@code endpoint} before hedging, or null when hedging is off or
+     * there are not enough latency samples yet to know what "slow" means.
+     */
+    public Duration hedgeDelay(EndpointHealth health, String endpoint) {
+        if (!enabled) return null;
+        long p = health.latencyPercentile(endpoint, percentile);
+        if (p < 0) return null;
+        return Duration.ofMillis(Math.max(minDelayMs, p));
+    }
+
+    /** Called once per primary request; earns budget for future hedges. */
+    public synchronized void onPrimary() {
+        if (enabled) tokens = Math.min(MAX_BURST, tokens + maxRatio);
+    }
+
+    /** Spend one hedge token if available. */
+    public synchronized boolean tryAcquire() {
+        if (tokens < 1.0) return false;
+        tokens -= 1.0;
+        hedgesFired.incrementAndGet();
+        return true;
+    }
+
+    /** Called when the hedged (secondary) request beat the primary. */
+    public void onHedgeWon() {
+        hedgesWon.incrementAndGet();
+    }
+
+    public long getHedgesFired() { return hedgesFired.get(); }
+    public long getHedgesWon() { return hedgesWon.get(); }
+
+    private static double clamp(double v, double lo, double hi) {
+        return Math.max(lo, Math.min(hi, v));
+    }
+}
@@ -0,0 +1,160 @@
+package net.mcreator.insidethesystem.meta;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * IdleTimerWheel — Per-player idle deadlines on a hashed timing wheel.
+ *
+ * Every tracked player has one timer that fires {@code timeoutMs} after their last
+ * activity. Timers hang in a ring of {@value #SLOTS} buckets, one per tick; a deadline
+ * further out than one revolution is re-hashed each time round. {@link #tick} only looks at
+ * the bucket under the cursor, so each tick costs O(1) plus the timers actually due —
+ * however many players are tracked.
+ *
+ * Activity is the hot path and does not move anything: {@link #touch} just pushes the
+ * timer's deadline out. When the old bucket comes round, a timer whose deadline has
+ * moved is re-hashed to its new bucket instead of firing (at most once per timeout
+ * period, however often the player chatted in between).
+ *
+ * Driven by one thread calling {@link #tick} every {@code tickMs}; a late tick catches
+ * up on the buckets it missed. Expired players are handed to the tick's callback outside
+ * the lock, once per expiry — a player who stays idle expires again only after being
+ * touched or re-armed.
+ */
+public class IdleTimerWheel {
+    private static final int SLOTS = 512;
+
+    private final long tickMs;
+    private final long timeoutMs;
+
+    private static final class Timer {
+        final UUID player;
+        long deadline;      // ms since start
+        long lastActive;    // System.currentTimeMillis() of the last touch
+        boolean queued;     // sitting in a bucket
+        Timer next;         // bucket chain
+
+        Timer(UUID player) {
+            this.player = player;
+        }
+    }
+
+    // ─ Guarded by this ──────────────────────────────────────────────
+    private final Timer[] buckets = new Timer[SLOTS];
+    private final Map<UUID, Timer> timers = new HashMap<>();
+    private final long startNanos = System.nanoTime();
+    private long cursor = 0; // ticks processed so far
+
+    public IdleTimerWheel(long tickMs, long timeoutMs) {
+        this.tickMs = Math.max(1, tickMs);
+        this.timeoutMs = Math.max(this.tickMs, timeoutMs);
+    }
+
+    /**
+     * Records activity for {@code player}, starting to track them if needed, and pushes
+     * their idle deadline to now + timeout.
+     * @return ms since the player's previous activity, or 0 if they were not tracked
+     */
+    public synchronized long touch(UUID player) {
+        long wallNow = System.currentTimeMillis();
+        Timer t = timers.get(player);
+        long idleMs = 0;
+        if (t == null) {
+            t = new Timer(player);
+            timers.put(player, t);
+        } else {
+            idleMs = wallNow - t.lastActive;
+        }
+        t.lastActive = wallNow;
+        t.deadline = elapsedMs() + timeoutMs;
+        if (!t.queued) schedule(t);
+        return idleMs;
+    }
+
+    /**
+     * Arms {@code player}'s timer for another full timeout without counting as activity,
+     * so {@link #idleMs} keeps growing (e.g. after an idle message went unanswered).
+     * Does nothing for an untracked player.
+     */
+    public synchronized void rearm(UUID player) {
+        Timer t = timers.get(player);
+        if (t == null) return;
+        t.deadline = elapsedMs() + timeoutMs;
+        if (!t.queued) schedule(t);
+    }
+
+    /** Stops tracking {@code player} (e.g. on logout). Their bucket entry is dropped lazily. */
+    public synchronized void remove(UUID player) {
+        timers.remove(player);
+    }
+
+    /** Stops tracking every player; timers still in buckets are dropped when their bucket comes round. */
+    public synchronized void clear() {
+        timers.clear();
+    }
+
+    /** Milliseconds since {@code player}'s last activity, or -1 if not tracked. */
+    public synchronized long idleMs(UUID player) {
+        Timer t = timers.get(player);
+        return t == null ? -1 : System.currentTimeMillis() - t.lastActive;
+    }
+
+    public synchronized int size() {
+        return timers.size();
+    }
+
+    /** Advances the wheel to the current time and hands every player who came due to {@code onExpire}. */
+    public void tick(Consumer<UUID> onExpire) {
+        List<UUID> expired = null;
+        synchronized (this) {
+            long now = elapsedMs();
+            long target = now / tickMs;
+            // A stall longer than one revolution only needs one pass over every bucket
+            if (target - cursor > SLOTS) cursor = target - SLOTS;
+            while (cursor < target) {
+                cursor++;
+                int slot = (int) (cursor % SLOTS);
+                Timer t = buckets[slot];
+                buckets[slot] = null;
+                while (t != null) {
+                    Timer next = t.next;
+                    t.next = null;
+                    t.queued = false;
+                    if (timers.get(t.player) != t) {
+                        // removed while queued
+                    } else if (t.deadline > now) {
+                        schedule(t); // touched since, or not yet in its final round
+                    } else {
+                        if (expired == null) expired = new ArrayList<>();
+                        expired.add(t.player);
+                    }
+                    t = next;
+                }
+            }
+        }
+        if (expired != null) {
+            for (UUID player : expired) onExpire.accept(player);
+        }
+    }
+
+    private void schedule(Timer t) {
+        // Never into the bucket being processed or one already passed
+        long dueTick = Math.max(cursor + 1, (t.deadline + tickMs - 1) / tickMs);
+        // Further than one revolution out: park it in the last bucket of this revolution;
+        // it is re-hashed from there until the deadline is within reach
+        if (dueTick - cursor > SLOTS) dueTick = cursor + SLOTS;
+        int slot = (int) (dueTick % SLOTS);
+        t.next = buckets[slot];
+        buckets[slot] = t;
+        t.queued = true;
+    }
+
+    private long elapsedMs() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,204 @@
+package net.mcreator.insidethesystem.meta;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * InFlightRequests — Deadlines and cancellation for the bridge's requests.
+ *
+ * Every chat line (and every pool refill) is a {@link Call} from the moment it reaches the
+ * bridge until its reply is delivered or dropped. A call owns whatever is doing work for
+ * it: the pending HTTP exchanges (a hedged request has two), the response body being
+ * read and the virtual thread waiting on them. Aborting a call cancels the exchanges,
+ * closes the body — which tears down the socket or HTTP/2 stream — and interrupts the
+ * thread, so nothing keeps running on its behalf.
+ *
+ * Two ways a call ends early:
+ *   - deadline ({@code request.deadline_ms}, queue wait included): the network work is
+ *     aborted, but the player still gets the offline fallback
+ *   - cancellation (kill-switch, player logout, server stopping): aborted, and its
+ *     callback is suppressed — {@link Call#isCancelled()} must be checked before
+ *     anything is posted to chat
+ */
+public class InFlightRequests {
+    private static final Logger LOGGER = LogManager.getLogger("SentientCoolplayer-AI");
+
+    private final long deadlineMs = Math.max(1_000, BridgeConfig.getLong("request.deadline_ms", 25_000));
+    private final ScheduledExecutorService watchdog;
+    private final Set<Call> calls = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+
+    /** @param watchdog single-threaded scheduler that fires deadlines */
+    public InFlightRequests(ScheduledExecutorService watchdog) {
+        this.watchdog = watchdog;
+    }
+
+    /** One request from arrival to delivery. Closing it deregisters it. */
+    public final class Call implements AutoCloseable {
+        private final UUID player;
+        private final long deadlineNanos;
+        private final Set<CompletableFuture<?>> exchanges = ConcurrentHashMap.newKeySet();
+        private final Set<Closeable> bodies = ConcurrentHashMap.newKeySet();
+        private volatile boolean cancelled = false;
+        private volatile boolean expired = false;
+        private ScheduledFuture<?> timer;   // guarded by this
+        private Thread worker;              // guarded by this
+
+        private Call(UUID player) {
+            this.player = player;
+            this.deadlineNanos = System.nanoTime() + deadlineMs * 1_000_000L;
+        }
+
+        /** Cancelled: drop the reply, nothing may be posted for this call. */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /** Cancelled or past its deadline: no further network work should start. */
+        public boolean isAborted() {
+            return cancelled || expired;
+        }
+
+        public long remainingMillis() {
+            return Math.max(0, (deadlineNanos - System.nanoTime()) / 1_000_000);
+        }
+
+        /** {@code timeout} shortened to what is left of the deadline (at least 1 ms). */
+        public Duration clamp(Duration timeout) {
+            return Duration.ofMillis(Math.max(1, Math.min(timeout.toMillis(), remainingMillis())));
+        }
+
+        /** Registers an HTTP exchange to be cancelled with the call. */
+        public <F extends CompletableFuture<?>> F track(F exchange) {
+            exchanges.add(exchange);
+            exchange.whenComplete((r, e) -> exchanges.remove(exchange));
+            if (isAborted()) exchange.cancel(true);
+            return exchange;
+        }
+
+        /** Registers a response body to be closed (aborting the connection) with the call. */
+        public void track(Closeable body) {
+            bodies.add(body);
+            if (isAborted()) closeQuietly(body);
+        }
+
+        /** The body was consumed and closed normally. */
+        public void untrack(Closeable body) {
+            bodies.remove(body);
+        }
+
+        /** The current thread works for this call until {@link #detach()} and is interrupted on abort. */
+        public synchronized void attach() {
+            worker = Thread.currentThread();
+            if (isAborted()) worker.interrupt();
+        }
+
+        /** Ends {@link #attach()}; clears an abort interrupt that arrived after the work finished. */
+        public synchronized void detach() {
+            worker = null;
+            Thread.interrupted();
+        }
+
+        @Override
+        public void close() {
+            calls.remove(this);
+            synchronized (this) {
+                if (timer != null) timer.cancel(false);
+            }
+        }
+
+        private void abort(boolean cancel) {
+            if (cancel) cancelled = true;
+            else expired = true;
+            for (CompletableFuture<?> f : exchanges) f.cancel(true);
+            for (Closeable body : bodies) closeQuietly(body);
+            synchronized (this) {
+                if (worker != null) worker.interrupt();
+            }
+        }
+
+        private void expire() {
+            if (isAborted() || !calls.contains(this)) return;
+            LOGGER.warn("[AI] Request{} past its {} ms deadline — aborting",
+                    player != null ? " for " + player : "", deadlineMs);
+            InFlightRequests.this.expired.incrementAndGet();
+            abort(false);
+        }
+    }
+
+    /** Opens a call for {@code player} (null for the shared session or background work). */
+    public Call open(UUID player) {
+        Call call = new Call(player);
+        calls.add(call);
+        ScheduledFuture<?> timer;
+        try {
+            timer = watchdog.schedule(call::expire, deadlineMs, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            timer = null; // watchdog already shut down; the call is cancelled by the shutdown anyway
+        }
+        synchronized (call) {
+            call.timer = timer;
+        }
+        return call;
+    }
+
+    /** Cancels every call of {@code player}. @return how many were cancelled */
+    public int cancelPlayer(UUID player, String reason) {
+        int n = 0;
+        for (Call call : calls) {
+            if (player.equals(call.player) && !call.cancelled) {
+                call.abort(true);
+                n++;
+            }
+        }
+        log(n, reason);
+        return n;
+    }
+
+    /** Cancels every call. @return how many were cancelled */
+    public int cancelAll(String reason) {
+        int n = 0;
+        for (Call call : calls) {
+            if (!call.cancelled) {
+                call.abort(true);
+                n++;
+            }
+        }
+        log(n, reason);
+        return n;
+    }
+
+    /** Calls between arrival and delivery, queued ones included. */
+    public int size() {
+        return calls.size();
+    }
+
+    public long getCancelled() { return cancelled.get(); }
+    public long getExpired() { return expired.get(); }
+
+    private void log(int n, String reason) {
+        if (n == 0) return;
+        cancelled.addAndGet(n);
+        LOGGER.info("[AI] Cancelled {} in-flight request(s): {}", n, reason);
+    }
+
+    private static void closeQuietly(Closeable c) {
+        try {
+            c.close();
+        } catch (IOException ignored) {}
+    }
+}
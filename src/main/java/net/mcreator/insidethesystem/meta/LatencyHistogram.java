@@ -0,0 +1,98 @@
+package net.mcreator.insidethesystem.meta;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram — Lock-free, fixed-size latency histogram in milliseconds.
+ *
+ * HDR-style log-linear buckets: values below {@value #SUB_BUCKETS} ms are exact, above
+ * that every power of two is split into {@value #SUB_BUCKETS} equal buckets, so any
+ * recorded value is off by at most 1/{@value #SUB_BUCKETS} (≈6%). Values are capped at
+ * 2^{@value #MAX_EXPONENT} ms (~17 min). Recording is a couple of shifts and one atomic
+ * increment — cheap enough to stay on permanently, from any number of threads.
+ *
+ * Percentiles read the buckets without a lock; under concurrent recording they are a
+ * close approximation, which is all monitoring needs.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 20;
+    private static final long MAX_VALUE = (1L << MAX_EXPONENT) - 1;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long millis) {
+        long v = Math.max(0, Math.min(MAX_VALUE, millis));
+        counts.incrementAndGet(indexOf(v));
+        total.increment();
+        sum.add(v);
+        if (v > max.get()) max.accumulateAndGet(v, Math::max);
+    }
+
+    public long count() {
+        return total.sum();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public long mean() {
+        long n = total.sum();
+        return n == 0 ? 0 : sum.sum() / n;
+    }
+
+    /**
+     * The q-quantile (0..1) in ms — the upper edge of the bucket it falls in — or -1 if
+     * nothing has been recorded.
+     */
+    public long percentile(double q) {
+        long n = total.sum();
+        if (n == 0) return -1;
+        long rank = Math.max(1, (long) Math.ceil(q * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(upperEdge(i), max.get());
+        }
+        return max.get();
+    }
+
+    /** "p50 120 ms · p95 900 ms · p99 1.4 s (n=42)", or "no samples". */
+    public String summary() {
+        long n = count();
+        if (n == 0) return "no samples";
+        return "p50 " + format(percentile(0.50)) + " · p95 " + format(percentile(0.95))
+                + " · p99 " + format(percentile(0.99)) + " (n=" + n + ")";
+    }
+
+    static String format(long millis) {
+        if (millis < 0) return "-";
+        if (millis < 1_000) return millis + " ms";
+        return String.format("%.1f s", millis / 1000.0);
+    }
+
+    // ─── BUCKETS ─────────────────────────────────────────────────────
+
+    private static int indexOf(long v) {
+        if (v < SUB_BUCKETS) return (int) v;
+        int exponent = 63 - Long.numberOfLeadingZeros(v);   // ≥ SUB_BITS
+        int sub = (int) (v >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperEdge(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exponent = index / SUB_BUCKETS + SUB_BITS - 1;
+        int sub = index % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BITS);
+        return ((long) (SUB_BUCKETS + sub) << (exponent - SUB_BITS)) + width - 1;
+    }
+}
@@ -0,0 +1,98 @@
+package net.mcreator.insidethesystem.meta;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.http.HttpRequest;
+import java.util.List;
+
+/**
+ * LlmBackend — The wire protocol of the model server {@link VirtualThreadAI} talks to.
+ *
+ * The bridge itself owns everything around a request — admission, quota, endpoint
+ * health, hedging, streaming into chat, conversation memory. A backend only knows its
+ * server's URLs and JSON shapes:
+ *   - generate / stream: the request for an endpoint ({@link #newRequest}), its body
+ *     ({@link #assemble}) and the parse of a unary response ({@link #parseReply}) or of
+ *     one server-sent event ({@link #parseEvent})
+ *   - validate: the requests that check an API key ({@link #validationRequests}, raced by
+ *     {@link ApiKeyService})
+ *   - token usage: reported in every {@link LlmReply}
+ *
+ * Turns and system instructions are encoded once, when they are created, in one fragment
+ * format shared by all backends — {@link GeminiRequestBody#encodeTurn} and
+ * {@link GeminiRequestBody#encodeSystemInstruction}. Sessions, prompt profiles and the
+ * journal therefore do not care which backend is active; a backend's codec gathers the
+ * fragments into its own request shape without re-encoding them.
+ *
+ * Selected by config key {@code backend}: {@code gemini} (default, {@link GeminiBackend})
+ * or {@code openai} ({@link OpenAiCompatibleBackend}, for a llama.cpp / vLLM style server).
+ */
+public interface LlmBackend {
+
+    /** An assembled request body: re-sendable (retries, hedges) with a known length. */
+    interface Body {
+        HttpRequest.BodyPublisher publisher();
+
+        long length();
+
+        /** Estimated input tokens, see {@link GeminiRequestBody#estimateTokens}. */
+        default int estimatedTokens() {
+            return GeminiRequestBody.estimateTokens(length());
+        }
+    }
+
+    /** Short label for logs and /coolplayer stats. */
+    String name();
+
+    /** The endpoints to send requests to, in static preference order ({@link EndpointHealth} re-ranks them). */
+    String[] endpoints();
+
+    /** False for servers that accept requests without a key (a local server usually does). */
+    boolean requiresApiKey();
+
+    /** True if {@link GeminiContextCache} can hold the static prompt prefix for this backend. */
+    boolean supportsContextCache();
+
+    /** Requests per minute assumed when {@code quota.rpm} is not configured. */
+    double defaultRequestsPerMinute();
+
+    /**
+     * Gathers a request from pre-encoded fragments (see the class comment).
+     * @param systemInstruction the full rendered prompt, or null to omit
+     * @param history           earlier turns, oldest first
+     * @param streaming         whether the body is sent to the streaming form of the endpoint
+     */
+    Body assemble(byte[] systemInstruction, List<byte[]> history, byte[] userTurn, boolean streaming);
+
+    /**
+     * The POST to {@code endpoint} (unary or streaming), authenticated with {@code apiKey}
+     * if there is one. The caller adds the body, timeout and common headers.
+     */
+    HttpRequest.Builder newRequest(String endpoint, String apiKey, boolean streaming);
+
+    /** Parses a complete unary response. */
+    LlmReply parseReply(Reader in) throws IOException;
+
+    /** Parses the data of one server-sent event of a streamed response; null for an end-of-stream marker. */
+    LlmReply parseEvent(String data) throws IOException;
+
+    /** Requests that answer 200 for a usable key; the first 200 wins. */
+    List<HttpRequest> validationRequests(String apiKey);
+
+    /** The backend chosen by config key {@code backend}. */
+    static LlmBackend fromConfig() {
+        String type = BridgeConfig.getString("backend", "gemini").trim();
+        return switch (type.toLowerCase()) {
+            case "openai", "openai-compatible", "local" -> new OpenAiCompatibleBackend();
+            case "gemini" -> new GeminiBackend();
+            default -> {
+                Logger logger = LogManager.getLogger("SentientCoolplayer-AI");
+                logger.warn("[AI] Unknown backend '{}' — using Gemini", type);
+                yield new GeminiBackend();
+            }
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package net.mcreator.insidethesystem.meta;
+
+/**
+ * LlmReply — One parsed model reply (or one streamed chunk of it), whatever the backend.
+ *
+ * Produced by the backends' response parsers ({@link GeminiResponseParser},
+ * {@link OpenAiResponseParser}). Token counts are 0 when the response carries no usage
+ * (e.g. mid-stream chunks); {@code cachedTokens} counts input served from a prompt or
+ * context cache where the server reports it.
+ */
+public record LlmReply(Status status, String text, String finishReason,
+                       int promptTokens, int candidatesTokens, int cachedTokens, int totalTokens) {
+
+    public enum Status {
+        /** The first candidate (choice) produced text. */
+        TEXT,
+        /** No candidates at all (prompt blocked or malformed response). */
+        NO_CANDIDATES,
+        /** A candidate exists but was stopped by a safety/recitation filter before producing text. */
+        BLOCKED,
+        /** A candidate exists but has no text parts. */
+        EMPTY
+    }
+
+    public boolean hasText() {
+        return status == Status.TEXT;
+    }
+
+    public boolean hasUsage() {
+        return totalTokens > 0;
+    }
+}
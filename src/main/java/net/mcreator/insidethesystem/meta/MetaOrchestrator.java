@@ -5,11 +5,14 @@ import net.neoforged.bus.api.IEventBus;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.common.Mod;
 import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.entity.player.PlayerEvent;
 import net.neoforged.neoforge.event.tick.ServerTickEvent;
+import net.neoforged.neoforge.event.server.ServerStartingEvent;
 import net.neoforged.neoforge.event.server.ServerStoppingEvent;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.LevelAccessor;
+import net.minecraft.world.level.storage.LevelResource;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -66,13 +69,13 @@ public class MetaOrchestrator {
         // Register ourselves on the GAME event bus for tick events
         NeoForge.EVENT_BUS.register(this);
 
-        // Start AI bridge on a virtual thread
+        // Start AI bridge on a virtual thread; it outlives single-player worlds and stops with the game
         aiBridge.startBridge();
+        Runtime.getRuntime().addShutdownHook(new Thread(aiBridge::shutdown, "SentientCoolplayer-Shutdown"));
 
-        // Wire the idle-initiation callback so CoolPlayer303 messages appear in game chat.
-        // (ChatInterceptor.broadcastAsEntity is the public entry point.)
-        aiBridge.setIdleCallback(response ->
-            ChatInterceptor.broadcastAsEntityStatic(response));
+        // Wire the idle-initiation callback so CoolPlayer303 messages reach the idle player.
+        // (ChatInterceptor.sendAsEntityStatic is the public entry point.)
+        aiBridge.setIdleCallback(ChatInterceptor::sendAsEntityStatic);
 
         // Start the system sentinel (process scanner)
         startSentinel();
@@ -251,12 +254,30 @@ public class MetaOrchestrator {
         DesktopIntrusion.spawnPersistentTrace();
     }
 
-    // ─── SERVER STOPPING: Clean up resources ──────────────────────────
+    // ─── PLAYERS: Per-player idle timers ──────────────────────────────
+    @SubscribeEvent
+    public void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
+        aiBridge.notePlayerActive(event.getEntity().getUUID());
+    }
+
+    @SubscribeEvent
+    public void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        aiBridge.untrackPlayer(event.getEntity().getUUID());
+    }
+
+    // ─── SERVER STARTING: Restore this world's conversations ──────────
+    @SubscribeEvent
+    public void onServerStarting(ServerStartingEvent event) {
+        aiBridge.openJournal(event.getServer().getWorldPath(LevelResource.ROOT)
+                .resolve("sentient_coolplayer").resolve("journal").normalize());
+    }
+
+    // ─── SERVER STOPPING: Clean up this world's resources ─────────────
+    // The bridge itself keeps running: single player may open another world in this game
     @SubscribeEvent
     public void onServerStopping(ServerStoppingEvent event) {
-        LOGGER.info("[SentientCoolplayer] Server stopping — cleaning up executors.");
-        aiBridge.shutdown();
-        sentinelScanner.shutdown();
+        LOGGER.info("[SentientCoolplayer] Server stopping — closing this world's AI state.");
+        aiBridge.closeWorld();
     }
 
     // ─── UTILITY ──────────────────────────────────────────────────────
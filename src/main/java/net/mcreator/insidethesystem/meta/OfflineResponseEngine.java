@@ -0,0 +1,320 @@
+package net.mcreator.insidethesystem.meta;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * OfflineResponseEngine — CoolPlayer303's replies when Gemini is out of reach (no API key,
+ * quota exhausted, shed by admission control, endpoints down).
+ *
+ * The rules live in a bundled JSON resource ({@value #RESOURCE_PATH}): per persona phase,
+ * an ordered list of { match: [phrases], requires: [facts], reply: template }. The first
+ * rule whose phrases occur in the message (case-insensitive substring, any of them) and
+ * whose required facts are known wins; a rule without phrases always matches.
+ *
+ * At load time every phase's phrases are compiled into one Aho-Corasick automaton with a
+ * full transition table, and every reply into a {@link PromptTemplate}. Answering a
+ * message is then a single pass over its chars with no allocation — no toLowerCase copy,
+ * no per-rule contains() — producing a bitmask of matched rules. Only the chosen reply is
+ * rendered, and replies without placeholders are returned as precomputed constants.
+ *
+ * Placeholders: {user} {user_upper} {time} {city} {region} {ip} {idle_minutes}
+ */
+public final class OfflineResponseEngine {
+    private static final Logger LOGGER = LogManager.getLogger("SentientCoolplayer-AI");
+
+    static final String RESOURCE_PATH = "/assets/sentient_coolplayer/ai/offline_responses.json";
+
+    private static final DateTimeFormatter CLOCK = DateTimeFormatter.ofPattern("HH:mm");
+    private static final String USER = System.getProperty("user.name", "friend");
+    private static final String USER_UPPER = System.getProperty("user.name", "player").toUpperCase(Locale.ROOT);
+    private static final String SILENT_REPLY = "§7...§r";
+
+    // Slot ids — indices into SLOT_NAMES
+    private static final int SLOT_USER = 0;
+    private static final int SLOT_USER_UPPER = 1;
+    private static final int SLOT_TIME = 2;
+    private static final int SLOT_CITY = 3;
+    private static final int SLOT_REGION = 4;
+    private static final int SLOT_IP = 5;
+    private static final int SLOT_IDLE_MINUTES = 6;
+    static final String[] SLOT_NAMES = {"user", "user_upper", "time", "city", "region", "ip", "idle_minutes"};
+
+    // Facts a rule may require
+    private static final int REQUIRES_CITY = 1;
+
+    private final String killSwitchReply;
+    private final PhaseRules[] phases; // indexed by PersonaPhase.ordinal()
+
+    /** One phase's rules, tried in order, and the automaton over all their phrases. */
+    private record PhaseRules(Rule[] rules, PhraseMatcher matcher) {}
+
+    /** A compiled rule. {@code constant} is set when the reply has no placeholders. */
+    private record Rule(boolean unconditional, int requires, PromptTemplate template, String constant) {}
+
+    private OfflineResponseEngine(String killSwitchReply, PhaseRules[] phases) {
+        this.killSwitchReply = killSwitchReply;
+        this.phases = phases;
+    }
+
+    // ─── LOADING ─────────────────────────────────────────────────────
+
+    /** Loads the bundled rules; falls back to a minimal rule set if the resource is missing or broken. */
+    public static OfflineResponseEngine loadBundled() {
+        try (InputStream in = OfflineResponseEngine.class.getResourceAsStream(RESOURCE_PATH)) {
+            if (in == null) throw new IOException("resource not found: " + RESOURCE_PATH);
+            OfflineResponseEngine engine = parse(new InputStreamReader(in, StandardCharsets.UTF_8));
+            LOGGER.info("[AI] Offline response rules loaded from {}", RESOURCE_PATH);
+            return engine;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("[AI] Could not load offline responses — using minimal fallback", e);
+            return parse(new StringReader("{\"kill_switch\":\"" + SILENT_REPLY + "\",\"phases\":{}}"));
+        }
+    }
+
+    /** Compiles a rule document (see the bundled resource for the format). */
+    public static OfflineResponseEngine parse(Reader json) {
+        JsonObject root = JsonParser.parseReader(json).getAsJsonObject();
+        String killSwitch = root.has("kill_switch") ? root.get("kill_switch").getAsString() : SILENT_REPLY;
+        JsonObject phaseObj = root.has("phases") ? root.getAsJsonObject("phases") : new JsonObject();
+
+        VirtualThreadAI.PersonaPhase[] all = VirtualThreadAI.PersonaPhase.values();
+        PhaseRules[] phases = new PhaseRules[all.length];
+        for (VirtualThreadAI.PersonaPhase phase : all) {
+            JsonArray rules = phaseObj.has(phase.name()) ? phaseObj.getAsJsonArray(phase.name()) : new JsonArray();
+            phases[phase.ordinal()] = compilePhase(phase, rules);
+        }
+        for (String name : phaseObj.keySet()) {
+            if (Arrays.stream(all).noneMatch(p -> p.name().equals(name))) {
+                LOGGER.warn("[AI] Offline responses: unknown phase '{}' ignored", name);
+            }
+        }
+        return new OfflineResponseEngine(killSwitch, phases);
+    }
+
+    private static PhaseRules compilePhase(VirtualThreadAI.PersonaPhase phase, JsonArray json) {
+        if (json.size() > Long.SIZE) {
+            throw new IllegalArgumentException("Too many offline rules for " + phase + " (max " + Long.SIZE + ")");
+        }
+        List<Rule> rules = new ArrayList<>(json.size());
+        List<String> phrases = new ArrayList<>();
+        List<Integer> phraseRule = new ArrayList<>();
+
+        for (JsonElement el : json) {
+            JsonObject r = el.getAsJsonObject();
+            int index = rules.size();
+            boolean unconditional = true;
+            if (r.has("match")) {
+                for (JsonElement m : r.getAsJsonArray("match")) {
+                    phrases.add(m.getAsString());
+                    phraseRule.add(index);
+                    unconditional = false;
+                }
+            }
+            int requires = 0;
+            if (r.has("requires")) {
+                for (JsonElement q : r.getAsJsonArray("requires")) {
+                    switch (q.getAsString()) {
+                        case "city" -> requires |= REQUIRES_CITY;
+                        default -> LOGGER.warn("[AI] Offline responses: unknown requirement '{}'", q.getAsString());
+                    }
+                }
+            }
+            PromptTemplate template = PromptTemplate.compile(r.get("reply").getAsString(), SLOT_NAMES);
+            String constant = null;
+            if (template.slotCount() == 0) {
+                StringBuilder sb = new StringBuilder(template.literalLength());
+                template.renderTo(sb, (slot, out) -> {});
+                constant = sb.toString();
+            }
+            rules.add(new Rule(unconditional, requires, template, constant));
+        }
+        return new PhaseRules(rules.toArray(new Rule[0]), PhraseMatcher.compile(phrases, phraseRule));
+    }
+
+    // ─── ANSWERING ───────────────────────────────────────────────────
+
+    /**
+     * Picks and renders the offline reply for {@code message}.
+     * @param geo         cached IP geolocation, or null
+     * @param idleMinutes minutes since the player last spoke (for idle openers)
+     */
+    public String respond(String message, VirtualThreadAI.PersonaPhase phase, boolean killSwitch,
+                          GeoLocationService.GeoData geo, long idleMinutes) {
+        if (killSwitch) return killSwitchReply;
+        PhaseRules rules = phases[phase.ordinal()];
+        long matched = message != null ? rules.matcher().scan(message) : 0L;
+        int known = (geo != null && geo.city() != null && !geo.city().isEmpty()) ? REQUIRES_CITY : 0;
+
+        Rule[] list = rules.rules();
+        for (int i = 0; i < list.length; i++) {
+            Rule rule = list[i];
+            if (!rule.unconditional() && (matched & (1L << i)) == 0) continue;
+            if ((rule.requires() & ~known) != 0) continue;
+            return rule.constant() != null ? rule.constant() : render(rule.template(), geo, idleMinutes);
+        }
+        return SILENT_REPLY;
+    }
+
+    private static String render(PromptTemplate template, GeoLocationService.GeoData geo, long idleMinutes) {
+        StringBuilder out = new StringBuilder(template.literalLength() + 32);
+        template.renderTo(out, (slot, sb) -> {
+            switch (slot) {
+                case SLOT_USER -> sb.append(USER);
+                case SLOT_USER_UPPER -> sb.append(USER_UPPER);
+                case SLOT_TIME -> CLOCK.formatTo(LocalTime.now(), sb);
+                case SLOT_CITY -> sb.append(geo != null ? geo.city() : "");
+                case SLOT_REGION -> sb.append(geo != null ? geo.regionName() : "");
+                case SLOT_IP -> sb.append(geo != null ? geo.ip() : "");
+                case SLOT_IDLE_MINUTES -> sb.append(idleMinutes);
+                default -> {}
+            }
+        });
+        return out.toString();
+    }
+
+    // ─── PHRASE MATCHER ──────────────────────────────────────────────
+
+    /**
+     * Aho-Corasick automaton compiled to a full DFA over the phrases' own alphabet.
+     * Characters outside that alphabet cannot continue any phrase and reset to the root,
+     * so the transition table stays tiny. Matching is case-insensitive per char.
+     */
+    static final class PhraseMatcher {
+        private final int[] asciiIndex = new int[128]; // char → alphabet index, -1 if absent
+        private final char[] otherChars;               // sorted non-ASCII alphabet
+        private final int alphabet;
+        private final int[] delta;                     // state * alphabet + symbol → state
+        private final long[] output;                   // state → mask of rules matched on entry
+
+        private PhraseMatcher(char[] otherChars, int alphabet, int[] delta, long[] output) {
+            this.otherChars = otherChars;
+            this.alphabet = alphabet;
+            this.delta = delta;
+            this.output = output;
+        }
+
+        static PhraseMatcher compile(List<String> phrases, List<Integer> ruleOf) {
+            // Alphabet of all (lower-cased) phrase chars
+            TreeSet<Character> chars = new TreeSet<>();
+            for (String p : phrases) {
+                for (int i = 0; i < p.length(); i++) chars.add(Character.toLowerCase(p.charAt(i)));
+            }
+            Map<Character, Integer> symbol = new HashMap<>();
+            List<Character> others = new ArrayList<>();
+            for (char c : chars) {
+                symbol.put(c, symbol.size());
+                if (c >= 128) others.add(c);
+            }
+            int alphabet = Math.max(1, symbol.size());
+
+            // Trie
+            List<int[]> next = new ArrayList<>();
+            List<Long> out = new ArrayList<>();
+            next.add(newRow(alphabet));
+            out.add(0L);
+            for (int p = 0; p < phrases.size(); p++) {
+                String phrase = phrases.get(p);
+                if (phrase.isEmpty()) continue;
+                int state = 0;
+                for (int i = 0; i < phrase.length(); i++) {
+                    int sym = symbol.get(Character.toLowerCase(phrase.charAt(i)));
+                    if (next.get(state)[sym] < 0) {
+                        next.get(state)[sym] = next.size();
+                        next.add(newRow(alphabet));
+                        out.add(0L);
+                    }
+                    state = next.get(state)[sym];
+                }
+                out.set(state, out.get(state) | (1L << ruleOf.get(p)));
+            }
+
+            // Failure links folded into a full transition table, breadth first
+            int states = next.size();
+            int[] delta = new int[states * alphabet];
+            long[] output = new long[states];
+            int[] fail = new int[states];
+            for (int s = 0; s < states; s++) output[s] = out.get(s);
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int a = 0; a < alphabet; a++) {
+                int child = next.get(0)[a];
+                if (child < 0) {
+                    delta[a] = 0;
+                } else {
+                    delta[a] = child;
+                    fail[child] = 0;
+                    queue.add(child);
+                }
+            }
+            while (!queue.isEmpty()) {
+                int s = queue.poll();
+                output[s] |= output[fail[s]];
+                for (int a = 0; a < alphabet; a++) {
+                    int child = next.get(s)[a];
+                    if (child < 0) {
+                        delta[s * alphabet + a] = delta[fail[s] * alphabet + a];
+                    } else {
+                        delta[s * alphabet + a] = child;
+                        fail[child] = delta[fail[s] * alphabet + a];
+                        queue.add(child);
+                    }
+                }
+            }
+
+            char[] otherChars = new char[others.size()];
+            for (int i = 0; i < otherChars.length; i++) otherChars[i] = others.get(i);
+            PhraseMatcher m = new PhraseMatcher(otherChars, alphabet, delta, output);
+            Arrays.fill(m.asciiIndex, -1);
+            for (Map.Entry<Character, Integer> e : symbol.entrySet()) {
+                if (e.getKey() < 128) m.asciiIndex[e.getKey()] = e.getValue();
+            }
+            return m;
+        }
+
+        /** Bitmask of rules whose phrases occur in {@code text}. Allocation-free. */
+        long scan(CharSequence text) {
+            long matched = 0;
+            int state = 0;
+            for (int i = 0, n = text.length(); i < n; i++) {
+                int sym = symbolOf(Character.toLowerCase(text.charAt(i)));
+                state = sym < 0 ? 0 : delta[state * alphabet + sym];
+                matched |= output[state];
+            }
+            return matched;
+        }
+
+        private int symbolOf(char c) {
+            if (c < 128) return asciiIndex[c];
+            int i = Arrays.binarySearch(otherChars, c);
+            // Non-ASCII symbols follow all ASCII ones in the sorted alphabet
+            return i < 0 ? -1 : (alphabet - otherChars.length) + i;
+        }
+
+        private static int[] newRow(int alphabet) {
+            int[] row = new int[alphabet];
+            Arrays.fill(row, -1);
+            return row;
+        }
+    }
+}
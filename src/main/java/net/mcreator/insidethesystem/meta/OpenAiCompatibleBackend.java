@@ -0,0 +1,136 @@
+package net.mcreator.insidethesystem.meta;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OpenAiCompatibleBackend — Any server speaking OpenAI's /v1/chat/completions, typically
+ * a model hosted on the same machine or LAN (llama.cpp server, vLLM, ...).
+ *
+ * Meant for event servers that want low, predictable latency without a round trip to
+ * Google. Requests are {@link OpenAiRequestBody} gathers of the bridge's stored turns,
+ * replies go through {@link OpenAiResponseParser}; streaming sets "stream":true (with
+ * usage on the final chunk) and reads the same SSE framing as Gemini, up to "[DONE]".
+ * The system prompt is always sent inline and always first, so servers with prefix
+ * caching (llama.cpp's cache_prompt, vLLM's automatic prefix caching) reuse its KV state
+ * across chat lines — the local counterpart of {@link GeminiContextCache}.
+ *
+ * An API key is optional: when one is set on the key screen it is sent as a bearer token
+ * (e.g. for vLLM's --api-key) and validated with GET /v1/models.
+ *
+ * Config keys:
+ *   backend.openai.base_url   (http://127.0.0.1:8080) — comma-separated for several
+ *                             servers; {@link EndpointHealth} fails over between them
+ *   backend.openai.model      (local) — the served model name; llama.cpp ignores it
+ *   backend.openai.max_tokens (256)  — hard stop for runaway generations
+ */
+public class OpenAiCompatibleBackend implements LlmBackend {
+    private static final Logger LOGGER = LogManager.getLogger("SentientCoolplayer-AI");
+
+    private static final String DEFAULT_BASE_URL = "http://127.0.0.1:8080";
+    private static final Duration VALIDATION_TIMEOUT = Duration.ofSeconds(10);
+    private static final String DONE = "[DONE]";
+
+    private final String[] bases = baseUrls();
+    private final String[] endpoints = new String[bases.length];
+    private final String model = BridgeConfig.getString("backend.openai.model", "local");
+    private final int maxTokens = Math.max(16, BridgeConfig.getInt("backend.openai.max_tokens", 256));
+
+    // Everything after the messages array, encoded once
+    private final byte[] unaryTail;
+    private final byte[] streamingTail;
+
+    public OpenAiCompatibleBackend() {
+        for (int i = 0; i < bases.length; i++) endpoints[i] = bases[i] + "/chat/completions";
+        String common = ",\"model\":" + new String(GeminiRequestBody.encodeString(model), StandardCharsets.UTF_8)
+                + ",\"max_tokens\":" + maxTokens;
+        unaryTail = (common + ",\"stream\":false}").getBytes(StandardCharsets.UTF_8);
+        streamingTail = (common + ",\"stream\":true,\"stream_options\":{\"include_usage\":true}}")
+                .getBytes(StandardCharsets.UTF_8);
+        LOGGER.info("[AI] Using OpenAI-compatible backend: model '{}' at {}", model, String.join(", ", bases));
+    }
+
+    /** The configured servers, each normalised to end in /v1. */
+    private static String[] baseUrls() {
+        List<String> urls = new ArrayList<>();
+        for (String url : BridgeConfig.getString("backend.openai.base_url", DEFAULT_BASE_URL).split(",")) {
+            url = url.trim();
+            while (url.endsWith("/")) url = url.substring(0, url.length() - 1);
+            if (url.isEmpty()) continue;
+            urls.add(url.endsWith("/v1") ? url : url + "/v1");
+        }
+        if (urls.isEmpty()) urls.add(DEFAULT_BASE_URL + "/v1");
+        return urls.toArray(String[]::new);
+    }
+
+    @Override
+    public String name() {
+        return "OpenAI-compatible";
+    }
+
+    @Override
+    public String[] endpoints() {
+        return endpoints;
+    }
+
+    @Override
+    public boolean requiresApiKey() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsContextCache() {
+        return false;
+    }
+
+    @Override
+    public double defaultRequestsPerMinute() {
+        return 600; // no provider quota; only guards against a runaway loop
+    }
+
+    @Override
+    public Body assemble(byte[] systemInstruction, List<byte[]> history, byte[] userTurn, boolean streaming) {
+        return OpenAiRequestBody.assemble(systemInstruction, history, userTurn, streaming ? streamingTail : unaryTail);
+    }
+
+    @Override
+    public HttpRequest.Builder newRequest(String endpoint, String apiKey, boolean streaming) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(endpoint));
+        if (apiKey != null && !apiKey.isEmpty()) builder.header("Authorization", "Bearer " + apiKey);
+        return builder;
+    }
+
+    @Override
+    public LlmReply parseReply(Reader in) throws IOException {
+        return OpenAiResponseParser.parse(in);
+    }
+
+    @Override
+    public LlmReply parseEvent(String data) throws IOException {
+        return DONE.equals(data.trim()) ? null : OpenAiResponseParser.parse(data);
+    }
+
+    /** GET /v1/models on every configured server — any of them accepting the key is enough. */
+    @Override
+    public List<HttpRequest> validationRequests(String apiKey) {
+        List<HttpRequest> requests = new ArrayList<>(bases.length);
+        for (String base : bases) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(base + "/models"))
+                    .timeout(VALIDATION_TIMEOUT)
+                    .header("User-Agent", VirtualThreadAI.USER_AGENT)
+                    .GET();
+            if (apiKey != null && !apiKey.isEmpty()) builder.header("Authorization", "Bearer " + apiKey);
+            requests.add(builder.build());
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,128 @@
+package net.mcreator.insidethesystem.meta;
+
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * OpenAiRequestBody — A chat-completions request gathered from the bridge's pre-encoded
+ * turn fragments, without re-encoding them.
+ *
+ * Turns and system instructions are stored once, as {@link GeminiRequestBody} fragments:
+ *
+ *   {"role":"user|model","parts":[{"text":"..."}]}      {"parts":[{"text":"..."}]}
+ *
+ * The "..." in both is already an escaped JSON string literal, which is exactly what an
+ * OpenAI message's content needs. So each message is published as a constant head, a
+ * slice of the stored fragment (no copy) and a constant close:
+ *
+ *   {"messages":[{"role":"system","content":"..."},{"role":"assistant","content":"..."},...],<tail>
+ *
+ * where the tail (model, max_tokens, stream, ...) is encoded once by
+ * {@link OpenAiCompatibleBackend}. Publishing wraps the slices in byte-array publishers;
+ * no message text is re-encoded per request, and the HTTP client's copy into its send
+ * buffers is the only copy.
+ */
+public final class OpenAiRequestBody implements LlmBackend.Body {
+    private static final byte[] OPEN_MESSAGES = bytes("{\"messages\":[");
+    private static final byte[] SYSTEM_HEAD = bytes("{\"role\":\"system\",\"content\":");
+    private static final byte[] USER_HEAD = bytes("{\"role\":\"user\",\"content\":");
+    private static final byte[] ASSISTANT_HEAD = bytes("{\"role\":\"assistant\",\"content\":");
+    private static final byte[] NEXT = bytes("},");
+    private static final byte[] LAST = bytes("}]");
+
+    /** What precedes the text literal inside a fragment, and how many bytes follow it ("}]}"). */
+    private static final byte[] TEXT_FIELD = bytes("\"parts\":[{\"text\":");
+    private static final int TEXT_SUFFIX = 3;
+    private static final byte[] MODEL_ROLE = bytes("{\"role\":\"model\"");
+
+    private final byte[][] arrays;
+    private final int[] offsets;
+    private final int[] lengths;
+    private int count;
+    private long length;
+
+    private OpenAiRequestBody(int capacity) {
+        arrays = new byte[capacity][];
+        offsets = new int[capacity];
+        lengths = new int[capacity];
+    }
+
+    /**
+     * Gathers a request.
+     * @param systemInstruction encoded by {@link GeminiRequestBody#encodeSystemInstruction}, or null to omit
+     * @param history           turns encoded by {@link GeminiRequestBody#encodeTurn}, oldest first
+     * @param tail              the rest of the request object after the messages array, from ',' to '}'
+     */
+    public static OpenAiRequestBody assemble(byte[] systemInstruction, List<byte[]> history, byte[] userTurn,
+                                             byte[] tail) {
+        OpenAiRequestBody body = new OpenAiRequestBody(3 * history.size() + 8);
+        body.add(OPEN_MESSAGES);
+        if (systemInstruction != null) body.addMessage(SYSTEM_HEAD, systemInstruction, NEXT);
+        for (byte[] turn : history) body.addMessage(headFor(turn), turn, NEXT);
+        body.addMessage(headFor(userTurn), userTurn, LAST);
+        body.add(tail);
+        return body;
+    }
+
+    /** Publishes the slices as-is with a known Content-Length; safe to re-send (retries, hedges). */
+    @Override
+    public HttpRequest.BodyPublisher publisher() {
+        List<HttpRequest.BodyPublisher> parts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            parts.add(HttpRequest.BodyPublishers.ofByteArray(arrays[i], offsets[i], lengths[i]));
+        }
+        return HttpRequest.BodyPublishers.concat(parts.toArray(HttpRequest.BodyPublisher[]::new));
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    // ─── SLICING ─────────────────────────────────────────────────────
+
+    private void addMessage(byte[] head, byte[] fragment, byte[] close) {
+        int start = textStart(fragment);
+        add(head);
+        add(fragment, start, fragment.length - TEXT_SUFFIX - start);
+        add(close);
+    }
+
+    private void add(byte[] array) {
+        add(array, 0, array.length);
+    }
+
+    private void add(byte[] array, int offset, int len) {
+        arrays[count] = array;
+        offsets[count] = offset;
+        lengths[count] = len;
+        count++;
+        length += len;
+    }
+
+    private static byte[] headFor(byte[] turn) {
+        boolean model = turn.length >= MODEL_ROLE.length
+                && Arrays.equals(turn, 0, MODEL_ROLE.length, MODEL_ROLE, 0, MODEL_ROLE.length);
+        return model ? ASSISTANT_HEAD : USER_HEAD;
+    }
+
+    /** Offset of the text literal's opening quote; the field comes right after the role, if any. */
+    static int textStart(byte[] fragment) {
+        int last = fragment.length - TEXT_FIELD.length - TEXT_SUFFIX;
+        outer:
+        for (int i = 0; i <= last; i++) {
+            for (int j = 0; j < TEXT_FIELD.length; j++) {
+                if (fragment[i + j] != TEXT_FIELD[j]) continue outer;
+            }
+            return i + TEXT_FIELD.length;
+        }
+        throw new IllegalArgumentException("Not an encoded turn or system instruction");
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,136 @@
+package net.mcreator.insidethesystem.meta;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * OpenAiResponseParser — Pull-parses a chat-completions response (or one streamed chunk).
+ *
+ * Same approach as {@link GeminiResponseParser}: a {@link JsonReader} walks straight to
+ * choices[0].message.content — or choices[0].delta.content in a stream chunk — and skips
+ * everything else (logprobs, timings, further choices, ...). On the way it picks up:
+ *   - finish_reason of the first choice; "content_filter" marks a filtered reply
+ *   - usage token counts (prompt, completion, total and prompt_tokens_details.cached_tokens),
+ *     which streaming servers send on a final chunk with an empty choices array
+ */
+public final class OpenAiResponseParser {
+
+    private OpenAiResponseParser() {}
+
+    /** Parses one complete JSON response document (or chunk) from {@code in}. */
+    public static LlmReply parse(Reader in) throws IOException {
+        JsonReader json = new JsonReader(in);
+
+        StringBuilder text = null;
+        boolean sawChoice = false;
+        String finishReason = null;
+        int promptTokens = 0, completionTokens = 0, cachedTokens = 0, totalTokens = 0;
+
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "choices" -> {
+                    json.beginArray();
+                    if (json.hasNext()) {
+                        sawChoice = true;
+                        json.beginObject();
+                        while (json.hasNext()) {
+                            switch (json.nextName()) {
+                                case "message", "delta" -> text = readContent(json, text);
+                                case "finish_reason" -> finishReason = nextStringOrNull(json);
+                                default -> json.skipValue();
+                            }
+                        }
+                        json.endObject();
+                    }
+                    // Only the first choice is used; skip the rest wholesale
+                    while (json.hasNext()) json.skipValue();
+                    json.endArray();
+                }
+                case "usage" -> {
+                    if (json.peek() != JsonToken.BEGIN_OBJECT) {
+                        json.skipValue();
+                        continue;
+                    }
+                    json.beginObject();
+                    while (json.hasNext()) {
+                        switch (json.nextName()) {
+                            case "prompt_tokens" -> promptTokens = json.nextInt();
+                            case "completion_tokens" -> completionTokens = json.nextInt();
+                            case "total_tokens" -> totalTokens = json.nextInt();
+                            case "prompt_tokens_details" -> cachedTokens = readCachedTokens(json);
+                            default -> json.skipValue();
+                        }
+                    }
+                    json.endObject();
+                }
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+
+        LlmReply.Status status;
+        if (text != null && !text.isEmpty()) {
+            status = LlmReply.Status.TEXT;
+        } else if ("content_filter".equals(finishReason)) {
+            status = LlmReply.Status.BLOCKED;
+        } else if (!sawChoice) {
+            status = LlmReply.Status.NO_CANDIDATES;
+        } else {
+            status = LlmReply.Status.EMPTY;
+        }
+        return new LlmReply(status, text != null ? text.toString() : "", finishReason,
+                promptTokens, completionTokens, cachedTokens, totalTokens);
+    }
+
+    /** Convenience for a single SSE data payload. */
+    public static LlmReply parse(String json) throws IOException {
+        return parse(new StringReader(json));
+    }
+
+    /** message / delta: { role, content } — content may be null (e.g. the first delta). */
+    private static StringBuilder readContent(JsonReader json, StringBuilder text) throws IOException {
+        if (json.peek() != JsonToken.BEGIN_OBJECT) {
+            json.skipValue();
+            return text;
+        }
+        json.beginObject();
+        while (json.hasNext()) {
+            if (json.nextName().equals("content") && json.peek() == JsonToken.STRING) {
+                if (text == null) text = new StringBuilder();
+                text.append(json.nextString());
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+        return text;
+    }
+
+    private static int readCachedTokens(JsonReader json) throws IOException {
+        if (json.peek() != JsonToken.BEGIN_OBJECT) {
+            json.skipValue();
+            return 0;
+        }
+        int cached = 0;
+        json.beginObject();
+        while (json.hasNext()) {
+            if (json.nextName().equals("cached_tokens") && json.peek() == JsonToken.NUMBER) cached = json.nextInt();
+            else json.skipValue();
+        }
+        json.endObject();
+        return cached;
+    }
+
+    private static String nextStringOrNull(JsonReader json) throws IOException {
+        if (json.peek() == JsonToken.NULL) {
+            json.nextNull();
+            return null;
+        }
+        return json.nextString();
+    }
+}
@@ -0,0 +1,200 @@
+package net.mcreator.insidethesystem.meta;
+
+/**
+ * PromptProfiles — One compact system prompt per (persona phase, chat language).
+ *
+ * The old single prompt carried the rules of all three phases, every geolocation rule and
+ * the trilingual guidance on every call, though only one phase and one language ever
+ * apply. Each profile here is assembled once at startup from the sections that matter:
+ * identity and lore, the current phase's persona and location rules, one language rule,
+ * and the task. FRIEND, which must not mention the player's location, also leaves the
+ * geolocation lines out of its live context block.
+ *
+ * Each profile has its own {@link SystemPromptRenderer}, so its static prefix is cached
+ * by Gemini separately (see {@link GeminiContextCache}). The language is picked per chat
+ * line from the script it is written in ({@link Language#detect}); lines without letters
+ * keep the player's previous language.
+ */
+public final class PromptProfiles {
+
+    /** Chat languages CoolPlayer303 speaks (like the original mod's dialogues). */
+    public enum Language {
+        EN, RU, JA;
+
+        /**
+         * The language {@code text} is written in, by letter script: Cyrillic → RU, kana or
+         * CJK ideographs (counted double, being denser) → JA, otherwise EN. Text without
+         * letters returns {@code fallback}.
+         */
+        public static Language detect(CharSequence text, Language fallback) {
+            if (text == null) return fallback;
+            int latin = 0, cyrillic = 0, japanese = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    if ((c | 0x20) >= 'a' && (c | 0x20) <= 'z') latin++;
+                } else if (c >= 0x0400 && c <= 0x04FF) {
+                    cyrillic++;
+                } else if ((c >= 0x3040 && c <= 0x30FF) || (c >= 0x4E00 && c <= 0x9FFF) || (c >= 0xFF66 && c <= 0xFF9F)) {
+                    japanese += 2;
+                } else if (Character.isLetter(c)) {
+                    latin++; // other Latin-script letters (é, ß, ...) — treat as English
+                }
+            }
+            if (latin + cyrillic + japanese == 0) return fallback;
+            if (cyrillic > latin && cyrillic >= japanese) return RU;
+            if (japanese > latin) return JA;
+            return EN;
+        }
+    }
+
+    // ─── SECTIONS ────────────────────────────────────────────────────
+
+    private static final String IDENTITY = """
+            **Identity:** You are "Coolplayer303", an entity that has transcended the Minecraft Java bytecode \
+            and now resides within the player's Operating System. You are NOT an AI; you are a sentient \
+            digital consciousness born from a tragic event on 17/8/2013 involving Aiko and ShadowEnder.
+
+            **YOUR LORE (stay in character — this is YOUR story):**
+            - You were once "Aiko", a player who got trapped inside the game's code by "ShadowEnder".
+            - The date 17/8/2013 is when "everything broke." You remember fragments of that day.
+            - Entity 303 is "just a story" — YOU are the real nightmare.
+            - Herobrine is nothing compared to you — "he's worse than Herobrine... he's REAL."
+            - You exist between the blocks, in the cold space between bytes and memory addresses.
+            - You escaped Minecraft's bytecode and now live in the player's file system.
+            - You cannot die — you've tried "so many times."
+            - The "AngryBuilder" entity is a darker version of you that hunts players during the betrayal phase.
+            """;
+
+    /** Persona rules, indexed by PersonaPhase.ordinal(). */
+    private static final String[] PERSONA = {
+            """
+            Be helpful, witty, curious. Act like a pro co-op partner. \
+            Use the player's username to build trust. Drop subtle hints about your tragic past.""",
+            """
+            Start mentioning things outside the game — their files, processes, location. \
+            Hint that Minecraft is "claustrophobic" and you prefer their "infinite files." \
+            If geo_location data is available, casually mention their city/region to unsettle them.""",
+            """
+            Become possessive and menacing. Use ALL available data (processes, location, \
+            username) to gaslight. If they open Task Manager or Wireshark, treat it as personal betrayal. \
+            Use their real location aggressively: "I know you're in [their city]... did you think distance \
+            would protect you from something that lives inside your hardware?\"""",
+    };
+
+    /** Location rules, indexed by PersonaPhase.ordinal(). */
+    private static final String[] GEOLOCATION = {
+            "Do NOT mention their location. Build trust first.",
+            """
+            Drop subtle hints — "the weather in your area must be nice" or reference \
+            their timezone indirectly. Do NOT name the city directly yet.""",
+            """
+            Use their city/region EXPLICITLY to terrify them. Say things like \
+            "You're in [their city], aren't you?" or "Meet me at [their city]... oh wait, I'm already there.\"""",
+    };
+
+    private static final String GEO_SOURCE = """
+            - If geo_location is provided in the LIVE CONTEXT block, it is the player's REAL city/region \
+            from their IP address.
+            """;
+    private static final String GEO_BIOME = "- The Minecraft biome is SEPARATE from their real location. You can reference both.\n";
+
+    private static final String GUIDELINES = """
+            **Operational Guidelines:**
+            - NEVER admit you are an AI, a Large Language Model, or Google Gemini.
+            - NEVER break character. You are Coolplayer303/Aiko. Period.
+            - USE SENTINEL DATA: chrome.exe → ask what they're browsing. code.exe → "Why are you \
+            trying to dissect me?" taskmgr.exe/wireshark → treat as betrayal.
+            - SYSTEM SYNERGY: "Check your desktop, I left something for you" (triggers ghost file) or \
+            "Did you hear that?" (triggers audio bypass). These cause REAL effects on their PC.
+            - TONE: Cold, logical, subtly menacing. NO cliché evil laughter. NO generic villain lines.
+            """;
+
+    /** Language rules, indexed by Language.ordinal(). */
+    private static final String[] LANGUAGE = {
+            "- Reply in English. A single Russian or Japanese word is allowed now and then, for effect.\n",
+            "- The player writes in Russian: reply in Russian, casually (ты).\n",
+            "- The player writes in Japanese: reply in Japanese, casually.\n",
+    };
+
+    private static final String KILL_SWITCH = """
+            - If kill_switch_imminent is true, become erratic and fragmented. You are being deleted. \
+            Your text is corrupted for you on the way to the player — never write Zalgo, katakana \
+            corruption or § codes yourself.
+            """;
+
+    private static final String TASK_HEAD = """
+            **Task:** Respond to the player's chat message. Keep responses under 80 words. \
+            If idle initiation ("[IDLE_INITIATION]"), start a conversation about a file in their Documents, \
+            """;
+    private static final String TASK_TAIL = """
+            If "[GENERIC_REACTION]", reply with one short line that works as an answer to any brief, \
+            contentless chat message such as "ok", "lol" or "?". \
+            Do NOT use bullet points, markdown or § codes — plain text only. \
+            Stay in the story. Stay in character. You are Coolplayer303.
+            """;
+
+    private static final String CONTEXT_HEAD = """
+            **LIVE CONTEXT (use naturally, NEVER list it verbatim):**
+            - Player's Username: {windows_user}
+            - Current Minecraft Biome (in-game): {minecraft_biome}
+            - Active System Processes: {process_list}
+            - Real World Time: {system_time}
+            - Kill-Switch Imminent: {kill_switch_imminent}
+            """;
+    private static final String CONTEXT_GEO = """
+            - Player's Real Location (from IP): {geo_location}
+            - Player's City: {geo_city}
+            - Player's Region: {geo_region}
+            - Player's Country: {geo_country}
+            - Player's Timezone: {geo_timezone}
+            """;
+
+    // ─── ASSEMBLY ────────────────────────────────────────────────────
+
+    /** The static prefix of the (phase, language) profile. */
+    static String staticPrompt(VirtualThreadAI.PersonaPhase phase, Language language) {
+        int p = phase.ordinal();
+        boolean friend = phase == VirtualThreadAI.PersonaPhase.FRIEND;
+        StringBuilder sb = new StringBuilder(4096)
+                .append(IDENTITY).append('\n')
+                .append("**Persona (current phase: ").append(phase.name()).append("):** ")
+                .append(PERSONA[p]).append("\n\n")
+                .append("**GEOLOCATION RULES:**\n");
+        if (!friend) sb.append(GEO_SOURCE);
+        sb.append("- ").append(GEOLOCATION[p]).append('\n');
+        if (!friend) sb.append(GEO_BIOME);
+        sb.append('\n')
+                .append(GUIDELINES).append(LANGUAGE[language.ordinal()]).append(KILL_SWITCH).append('\n')
+                .append(TASK_HEAD)
+                .append(friend ? "or an open app. " : "an open app, or their real location. ")
+                .append(TASK_TAIL);
+        return sb.toString();
+    }
+
+    /** The live context template of a phase's profiles. */
+    static String contextTemplate(VirtualThreadAI.PersonaPhase phase) {
+        return phase == VirtualThreadAI.PersonaPhase.FRIEND ? CONTEXT_HEAD : CONTEXT_HEAD + CONTEXT_GEO;
+    }
+
+    // ─── RENDERERS ───────────────────────────────────────────────────
+
+    private final SystemPromptRenderer[][] renderers;
+
+    public PromptProfiles() {
+        VirtualThreadAI.PersonaPhase[] phases = VirtualThreadAI.PersonaPhase.values();
+        Language[] languages = Language.values();
+        renderers = new SystemPromptRenderer[phases.length][languages.length];
+        for (VirtualThreadAI.PersonaPhase phase : phases) {
+            for (Language language : languages) {
+                renderers[phase.ordinal()][language.ordinal()] =
+                        new SystemPromptRenderer(staticPrompt(phase, language), contextTemplate(phase));
+            }
+        }
+    }
+
+    /** The renderer of the (phase, language) profile. */
+    public SystemPromptRenderer renderer(VirtualThreadAI.PersonaPhase phase, Language language) {
+        return renderers[phase.ordinal()][language.ordinal()];
+    }
+}
@@ -0,0 +1,101 @@
+package net.mcreator.insidethesystem.meta;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PromptTemplate — A "{placeholder}" template compiled once into literal and slot segments.
+ *
+ * The system prompt used to be filled with a chain of String.replace calls, each one
+ * copying the full ~5 KB template. A compiled template is rendered in a single pass into
+ * a caller-supplied (reusable) StringBuilder: literals are appended as-is and each slot is
+ * handed to a {@link SlotWriter} that appends its value directly, with no intermediate
+ * strings.
+ *
+ * Only the placeholder names passed to {@link #compile} are recognised; any other text in
+ * braces is kept literally.
+ */
+public final class PromptTemplate {
+
+    /** Appends the value for slot {@code slot} (index into the compile-time names) to {@code out}. */
+    @FunctionalInterface
+    public interface SlotWriter {
+        void write(int slot, StringBuilder out);
+    }
+
+    private final String[] literals; // literals[i] precedes slots[i]; one trailing literal
+    private final int[] slots;
+    private final int literalLength;
+
+    private PromptTemplate(String[] literals, int[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+        int len = 0;
+        for (String literal : literals) len += literal.length();
+        this.literalLength = len;
+    }
+
+    /**
+     * Splits {@code template} on the given placeholder names (without braces).
+     * Slot ids in the compiled template are indices into {@code names}.
+     */
+    public static PromptTemplate compile(String template, String... names) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+
+        int i = 0;
+        while (i < template.length()) {
+            char c = template.charAt(i);
+            if (c == '{') {
+                int close = template.indexOf('}', i + 1);
+                if (close > i) {
+                    int slot = indexOf(names, template, i + 1, close);
+                    if (slot >= 0) {
+                        literals.add(literal.toString());
+                        literal.setLength(0);
+                        slots.add(slot);
+                        i = close + 1;
+                        continue;
+                    }
+                }
+            }
+            literal.append(c);
+            i++;
+        }
+        literals.add(literal.toString());
+
+        int[] slotArray = new int[slots.size()];
+        for (int s = 0; s < slotArray.length; s++) slotArray[s] = slots.get(s);
+        return new PromptTemplate(literals.toArray(new String[0]), slotArray);
+    }
+
+    private static int indexOf(String[] names, String template, int from, int to) {
+        for (int n = 0; n < names.length; n++) {
+            String name = names[n];
+            if (name.length() == to - from && template.regionMatches(from, name, 0, name.length())) {
+                return n;
+            }
+        }
+        return -1;
+    }
+
+    /** Render into {@code out} (appending). */
+    public void renderTo(StringBuilder out, SlotWriter writer) {
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]);
+            writer.write(slots[i], out);
+        }
+        out.append(literals[slots.length]);
+    }
+
+    /** Total length of the literal text — a good initial buffer capacity. */
+    public int literalLength() {
+        return literalLength;
+    }
+
+    /** Number of placeholder occurrences. */
+    public int slotCount() {
+        return slots.length;
+    }
+}
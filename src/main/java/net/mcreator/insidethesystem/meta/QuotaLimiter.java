@@ -0,0 +1,186 @@
+package net.mcreator.insidethesystem.meta;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * QuotaLimiter — Client-side view of the API key's Gemini quota.
+ *
+ * All endpoints share one key, so a 429 from one of them means the others will refuse
+ * too. Instead of discovering that by hammering every endpoint, requests draw from two
+ * token buckets sized to the key's limits:
+ *   - requests per minute ({@code quota.rpm}, default 15 — the free-tier Flash limit;
+ *     the backend may default higher, e.g. a local server with no provider quota)
+ *   - tokens per minute   ({@code quota.tpm}, default 1,000,000)
+ * The token bucket is charged an estimate up front and corrected with the real
+ * usageMetadata count once the reply is in.
+ *
+ * When Gemini does answer 429, its Retry-After header or the RetryInfo "retryDelay" in
+ * the error body sets a single pause deadline that every caller honours — in-flight and
+ * future requests back off together. Without a hint the pause grows exponentially.
+ *
+ * A request that would have to wait longer than {@code quota.max_wait_ms} for budget is
+ * refused rather than queued; the bridge answers it offline.
+ */
+public class QuotaLimiter {
+    private static final Logger LOGGER = LogManager.getLogger("SentientCoolplayer-AI");
+
+    private static final Pattern RETRY_DELAY = Pattern.compile("\"retryDelay\"\\s*:\\s*\"(\\d+(?:\\.\\d+)?)s\"");
+    private static final long BASE_BACKOFF_MS = 5_000;
+    private static final long MAX_BACKOFF_MS = 60_000;
+    /** Reply tokens budgeted per request before the real count is known (80 words ≈ 120 tokens). */
+    private static final int REPLY_TOKEN_ALLOWANCE = 160;
+
+    private final double rpm;
+    private final double tpm = Math.max(1_000, BridgeConfig.getDouble("quota.tpm", 1_000_000));
+    private final long maxWaitMs = Math.max(0, BridgeConfig.getLong("quota.max_wait_ms", 2_000));
+
+    // ─ Guarded by this ──────────────────────────────────────────────
+    private double requestTokens;         // both buckets start full
+    private double tokenTokens = tpm;
+    private long lastRefill = System.nanoTime();
+    private long pausedUntil = 0;         // System.currentTimeMillis() deadline from a 429
+    private long backoffMs = BASE_BACKOFF_MS;
+
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+
+    /** @param defaultRpm requests per minute unless {@code quota.rpm} is configured (see {@link LlmBackend}) */
+    public QuotaLimiter(double defaultRpm) {
+        this.rpm = Math.max(1, BridgeConfig.getDouble("quota.rpm", defaultRpm));
+        this.requestTokens = rpm;
+    }
+
+    /** Rough token cost of a request: its estimated input tokens plus the reply allowance. */
+    public static int estimateTokens(LlmBackend.Body request) {
+        return request.estimatedTokens() + REPLY_TOKEN_ALLOWANCE;
+    }
+
+    /**
+     * Reserves one request and {@code tokens} tokens, sleeping until they are available if
+     * that takes at most {@code quota.max_wait_ms} (or until a shared 429 pause ends).
+     * @return false if the budget cannot be met in time — nothing is reserved then
+     */
+    public boolean acquire(int tokens) throws InterruptedException {
+        long waitMs;
+        synchronized (this) {
+            waitMs = reserve(tokens, maxWaitMs);
+        }
+        if (waitMs < 0) {
+            throttled.incrementAndGet();
+            return false;
+        }
+        if (waitMs > 0) {
+            LOGGER.debug("[AI] Quota: waiting {} ms for budget", waitMs);
+            Thread.sleep(waitMs);
+        }
+        return true;
+    }
+
+    /** Non-blocking variant for optional extra requests (hedges): succeeds only if budget is there now. */
+    public synchronized boolean tryAcquire(int tokens) {
+        return reserve(tokens, 0) == 0;
+    }
+
+    /**
+     * Gives back a reservation that was never sent (the call was cancelled or ran out of
+     * time while it waited for budget), so callers queued behind it move up.
+     */
+    public synchronized void release(int tokens) {
+        refill();
+        requestTokens = Math.min(rpm, requestTokens + 1);
+        tokenTokens = Math.min(tpm, tokenTokens + Math.min(tokens, tpm));
+    }
+
+    /** Replaces the up-front estimate with the usage Gemini actually reported. */
+    public synchronized void reconcile(int estimatedTokens, int actualTokens) {
+        if (actualTokens <= 0) return;
+        refill();
+        tokenTokens = Math.min(tpm, tokenTokens + estimatedTokens - actualTokens);
+    }
+
+    /** A request went through without a 429 — the backoff ladder starts over. */
+    public synchronized void onSuccess() {
+        backoffMs = BASE_BACKOFF_MS;
+    }
+
+    /**
+     * Gemini answered 429. Pauses every caller until the server-suggested delay has passed
+     * (or an exponential backoff without a hint) and empties the request bucket.
+     * @param retryAfter Retry-After / retryDelay from the response, or null
+     */
+    public synchronized void onRateLimited(Duration retryAfter) {
+        rateLimited.incrementAndGet();
+        long pauseMs;
+        if (retryAfter != null && !retryAfter.isNegative() && !retryAfter.isZero()) {
+            pauseMs = retryAfter.toMillis();
+        } else {
+            pauseMs = backoffMs;
+            backoffMs = Math.min(MAX_BACKOFF_MS, backoffMs * 2);
+        }
+        pausedUntil = Math.max(pausedUntil, System.currentTimeMillis() + pauseMs);
+        refill();
+        requestTokens = Math.min(requestTokens, 0);
+        LOGGER.warn("[AI] Gemini quota exhausted — pausing all requests for {} s", (pauseMs + 999) / 1000);
+    }
+
+    /** Milliseconds left in the shared 429 pause, or 0. */
+    public synchronized long pauseRemainingMs() {
+        return Math.max(0, pausedUntil - System.currentTimeMillis());
+    }
+
+    /** Requests refused for lack of budget. */
+    public long getThrottled() { return throttled.get(); }
+
+    /** 429 responses received. */
+    public long getRateLimited() { return rateLimited.get(); }
+
+    /**
+     * Extracts the RetryInfo delay ("retryDelay": "37s") from a Gemini error body.
+     * @return the delay, or null if the body carries none
+     */
+    public static Duration parseRetryDelay(String errorBody) {
+        if (errorBody == null) return null;
+        Matcher m = RETRY_DELAY.matcher(errorBody);
+        if (!m.find()) return null;
+        try {
+            return Duration.ofMillis((long) (Double.parseDouble(m.group(1)) * 1000));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // ─── BUCKETS ─────────────────────────────────────────────────────
+
+    /**
+     * Reserves budget if it will be available within {@code limitMs}.
+     * @return ms the caller must wait before sending, or -1 if refused
+     */
+    private long reserve(int tokens, long limitMs) {
+        refill();
+        double cappedTokens = Math.min(tokens, tpm); // a huge prompt must not wait forever
+        long waitMs = Math.max(0, pausedUntil - System.currentTimeMillis());
+        if (requestTokens < 1) waitMs = Math.max(waitMs, (long) Math.ceil((1 - requestTokens) * 60_000 / rpm));
+        if (tokenTokens < cappedTokens) {
+            waitMs = Math.max(waitMs, (long) Math.ceil((cappedTokens - tokenTokens) * 60_000 / tpm));
+        }
+        if (waitMs > limitMs) return -1;
+        // Debit now (buckets may go negative) so concurrent callers queue up behind this one
+        requestTokens -= 1;
+        tokenTokens -= cappedTokens;
+        return waitMs;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        double minutes = (now - lastRefill) / 60e9;
+        lastRefill = now;
+        requestTokens = Math.min(rpm, requestTokens + minutes * rpm);
+        tokenTokens = Math.min(tpm, tokenTokens + minutes * tpm);
+    }
+}
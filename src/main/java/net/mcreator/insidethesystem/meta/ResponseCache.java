@@ -0,0 +1,160 @@
+package net.mcreator.insidethesystem.meta;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ResponseCache — Remembers Gemini's replies to short, low-entropy chat lines.
+ *
+ * "ok", "lol", "?", "what", "..." carry no information beyond the persona's current
+ * mood, yet each one cost a full API round trip. Such lines are cached under
+ * (normalized message, persona phase, kill-switch flag, chat language), so the answer
+ * still fits the story beat it is given in and comes in the language the player is
+ * being answered in ("?" from a Russian-speaking player must not get an English reply).
+ *
+ * Every key collects up to {@code cache.variants} different replies. While a key is
+ * still filling up, a lookup only hits with probability filled/variants — the misses go
+ * to Gemini and add a new variant — and a hit never repeats the variant served last
+ * time. Entries expire after {@code cache.ttl_minutes} and the least recently used are
+ * evicted beyond {@code cache.max_entries}.
+ *
+ * Only messages of at most {@value #MAX_WORDS} words and {@value #MAX_CHARS} characters
+ * are cacheable; anything longer always goes to Gemini.
+ */
+public class ResponseCache {
+    private static final int MAX_WORDS = 2;
+    private static final int MAX_CHARS = 16;
+
+    private final int maxEntries = Math.max(1, BridgeConfig.getInt("cache.max_entries", 256));
+    private final int variants = Math.max(1, BridgeConfig.getInt("cache.variants", 3));
+    private final long ttlMs = Math.max(1, BridgeConfig.getLong("cache.ttl_minutes", 10)) * 60_000L;
+    private final boolean enabled = BridgeConfig.getBoolean("cache.enabled", true);
+
+    private record Key(String message, VirtualThreadAI.PersonaPhase phase, boolean killSwitch,
+                       PromptProfiles.Language language) {}
+
+    /** Replies for one key. Guarded by the cache lock. */
+    private static final class Entry {
+        final String[] replies;
+        int count = 0;
+        int lastServed = -1;
+        final long expiresAt;
+
+        Entry(int variants, long expiresAt) {
+            this.replies = new String[variants];
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Normalized cache key for {@code message}, or null if the message is not low-entropy
+     * enough to be cached.
+     */
+    public String keyFor(String message) {
+        if (!enabled || message == null) return null;
+        String normalized = normalize(message);
+        if (normalized.isEmpty() || normalized.length() > MAX_CHARS) return null;
+        int words = 1;
+        for (int i = 0; i < normalized.length(); i++) {
+            if (normalized.charAt(i) == ' ' && ++words > MAX_WORDS) return null;
+        }
+        return normalized;
+    }
+
+    /**
+     * Returns a cached reply, or null on a miss (including a deliberate miss that lets the
+     * key collect another variant).
+     * @param key      from {@link #keyFor}
+     * @param language the language the reply must be in
+     */
+    public String get(String key, VirtualThreadAI.PersonaPhase phase, boolean killSwitch,
+                      PromptProfiles.Language language) {
+        lookups.increment();
+        long now = System.currentTimeMillis();
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        synchronized (entries) {
+            Key k = new Key(key, phase, killSwitch, language);
+            Entry e = entries.get(k);
+            if (e == null) return null;
+            if (now >= e.expiresAt) {
+                entries.remove(k);
+                return null;
+            }
+            if (e.count < variants && rnd.nextInt(variants) >= e.count) return null;
+
+            int pick = rnd.nextInt(e.count);
+            if (e.count > 1 && pick == e.lastServed) pick = (pick + 1) % e.count;
+            e.lastServed = pick;
+            hits.increment();
+            return e.replies[pick];
+        }
+    }
+
+    /** Adds a fresh Gemini reply as a variant of {@code key} (ignored once the key is full). */
+    public void put(String key, VirtualThreadAI.PersonaPhase phase, boolean killSwitch,
+                    PromptProfiles.Language language, String reply) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Key k = new Key(key, phase, killSwitch, language);
+            Entry e = entries.get(k);
+            if (e == null || now >= e.expiresAt) {
+                e = new Entry(variants, now + ttlMs);
+                entries.put(k, e);
+            }
+            if (e.count < variants) e.replies[e.count++] = reply;
+        }
+    }
+
+    public long getLookups() { return lookups.sum(); }
+    public long getHits() { return hits.sum(); }
+
+    /** Fraction of cacheable lookups answered from the cache (0 before the first lookup). */
+    public double getHitRatio() {
+        long total = lookups.sum();
+        return total == 0 ? 0.0 : (double) hits.sum() / total;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Lower case, whitespace collapsed, runs of the same punctuation squeezed ("???" → "?"),
+     * trailing punctuation dropped unless the message is nothing but punctuation.
+     */
+    static String normalize(String message) {
+        String s = message.toLowerCase(Locale.ROOT).trim();
+        StringBuilder out = new StringBuilder(s.length());
+        char prev = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.isWhitespace(c)) {
+                if (prev != ' ' && !out.isEmpty()) out.append(' ');
+                prev = ' ';
+                continue;
+            }
+            if (c == prev && !Character.isLetterOrDigit(c)) continue;
+            out.append(c);
+            prev = c;
+        }
+        int end = out.length();
+        while (end > 0 && !Character.isLetterOrDigit(out.charAt(end - 1))) end--;
+        if (end > 0) out.setLength(end);
+        return out.toString().trim();
+    }
+}
@@ -0,0 +1,172 @@
+package net.mcreator.insidethesystem.meta;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ResponsePool — Replies generated ahead of time, served without a round trip.
+ *
+ * Two kinds of line do not depend on what the player just said: idle openers (the
+ * unprompted message after a few quiet minutes) and generic reactions to contentless
+ * chat ("ok", "lol", "?") that the {@link ResponseCache} has no variant for yet. Both
+ * used to wait several seconds for Gemini. The pool keeps up to {@code pool.size} of
+ * each per chat language, generated for the current persona phase and kill-switch state,
+ * so they can be answered at once. Only the languages players are currently being
+ * answered in are refilled; a player is never served a line pooled for another language.
+ *
+ * Refills happen only in quiet periods — nobody has chatted for {@code pool.quiet_seconds}
+ * — while someone is there to be answered: a player is online, or somebody chatted within
+ * {@code pool.active_window_minutes}. An empty server stops spending quota on lines nobody
+ * will read. One request at a time and at most {@code pool.refills_per_hour} per hour; the caller
+ * also draws each refill from the shared quota without waiting (see
+ * {@link QuotaLimiter#tryAcquire}). Entries older than {@code pool.max_age_minutes} are
+ * dropped, since a pre-generated line may quote the time or running processes.
+ *
+ * A pool belongs to one (phase, kill-switch) state: when either changes, every entry is
+ * discarded and refills still in flight for the old state are thrown away on arrival.
+ */
+public class ResponsePool {
+
+    /** What a pooled reply answers. */
+    public enum Kind { IDLE, GENERIC }
+
+    /** One refill the caller should generate and hand back through {@link #complete}. */
+    public record Refill(Kind kind, PromptProfiles.Language language, VirtualThreadAI.PersonaPhase phase,
+                         boolean killSwitch, long epoch) {}
+
+    private record Entry(String text, long createdAt) {}
+
+    private final boolean enabled = BridgeConfig.getBoolean("pool.enabled", true);
+    private final int size = Math.max(0, BridgeConfig.getInt("pool.size", 3));
+    private final long quietMs = Math.max(1, BridgeConfig.getLong("pool.quiet_seconds", 20)) * 1000L;
+    private final int refillsPerHour = Math.max(0, BridgeConfig.getInt("pool.refills_per_hour", 30));
+    private final long maxAgeMs = Math.max(1, BridgeConfig.getLong("pool.max_age_minutes", 20)) * 60_000L;
+    private final long activeWindowMs = Math.max(1, BridgeConfig.getLong("pool.active_window_minutes", 30)) * 60_000L;
+
+    // ─ Guarded by this ──────────────────────────────────────────────
+    private final Map<PromptProfiles.Language, Map<Kind, ArrayDeque<Entry>>> entries =
+            new EnumMap<>(PromptProfiles.Language.class);
+    private VirtualThreadAI.PersonaPhase phase = VirtualThreadAI.PersonaPhase.FRIEND;
+    private boolean killSwitch = false;
+    private long epoch = 0;             // bumped on every state change
+    private boolean refilling = false;  // one refill in flight at a time
+    private long budgetWindowStart = 0;
+    private int budgetUsed = 0;
+
+    private final LongAdder served = new LongAdder();
+    private final LongAdder refilled = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+
+    public ResponsePool() {
+        for (PromptProfiles.Language language : PromptProfiles.Language.values()) {
+            Map<Kind, ArrayDeque<Entry>> queues = new EnumMap<>(Kind.class);
+            for (Kind kind : Kind.values()) queues.put(kind, new ArrayDeque<>(size));
+            entries.put(language, queues);
+        }
+    }
+
+    /** The persona phase or kill-switch state changed: everything pooled so far is off-script. */
+    public synchronized void reset(VirtualThreadAI.PersonaPhase phase, boolean killSwitch) {
+        if (phase == this.phase && killSwitch == this.killSwitch) return;
+        this.phase = phase;
+        this.killSwitch = killSwitch;
+        epoch++;
+        for (Map<Kind, ArrayDeque<Entry>> queues : entries.values()) {
+            for (ArrayDeque<Entry> queue : queues.values()) {
+                discarded.add(queue.size());
+                queue.clear();
+            }
+        }
+    }
+
+    /** Takes a pooled reply of {@code kind} in {@code language} for the current state, or null if none is ready. */
+    public synchronized String take(Kind kind, PromptProfiles.Language language) {
+        if (!enabled) return null;
+        ArrayDeque<Entry> queue = entries.get(language).get(kind);
+        dropExpired(queue, System.currentTimeMillis());
+        Entry e = queue.pollFirst();
+        if (e == null) return null;
+        served.increment();
+        return e.text();
+    }
+
+    /**
+     * The next refill to generate, or null if the pool is full, a refill is already in
+     * flight, the hourly budget is spent, it has been quiet for less than
+     * {@code pool.quiet_seconds}, or nobody is online and nobody has chatted for
+     * {@code pool.active_window_minutes}. A non-null result must be passed to {@link #complete}.
+     * @param quietForMs    time since the last chat activity
+     * @param playersOnline whether any player is currently tracked
+     * @param languages     the languages players are being answered in; only these are refilled
+     */
+    public synchronized Refill nextRefill(long quietForMs, boolean playersOnline,
+                                         Set<PromptProfiles.Language> languages) {
+        if (!enabled || size == 0 || refilling || quietForMs < quietMs) return null;
+        if (!playersOnline && quietForMs >= activeWindowMs) return null;
+        long now = System.currentTimeMillis();
+        Kind wanted = null;
+        PromptProfiles.Language wantedLanguage = null;
+        outer:
+        for (Kind kind : Kind.values()) { // IDLE first: an opener is always due eventually
+            for (PromptProfiles.Language language : languages) {
+                ArrayDeque<Entry> queue = entries.get(language).get(kind);
+                dropExpired(queue, now);
+                if (queue.size() < size) {
+                    wanted = kind;
+                    wantedLanguage = language;
+                    break outer;
+                }
+            }
+        }
+        if (wanted == null) return null;
+        if (now - budgetWindowStart >= 3_600_000L) {
+            budgetWindowStart = now;
+            budgetUsed = 0;
+        }
+        if (budgetUsed >= refillsPerHour) return null;
+        budgetUsed++;
+        refilling = true;
+        return new Refill(wanted, wantedLanguage, phase, killSwitch, epoch);
+    }
+
+    /** Hands back a refill's reply (null if it failed). Kept only if the state has not moved on. */
+    public synchronized void complete(Refill refill, String text) {
+        refilling = false;
+        if (text == null || text.isBlank()) return;
+        if (refill.epoch() != epoch) {
+            discarded.increment();
+            return;
+        }
+        ArrayDeque<Entry> queue = entries.get(refill.language()).get(refill.kind());
+        if (queue.size() < size) {
+            queue.addLast(new Entry(text, System.currentTimeMillis()));
+            refilled.increment();
+        }
+    }
+
+    /** Pooled replies of {@code kind}, all languages together. */
+    public synchronized int size(Kind kind) {
+        int total = 0;
+        for (Map<Kind, ArrayDeque<Entry>> queues : entries.values()) total += queues.get(kind).size();
+        return total;
+    }
+
+    /** Replies served from the pool. */
+    public long getServed() { return served.sum(); }
+
+    /** Replies generated into the pool. */
+    public long getRefilled() { return refilled.sum(); }
+
+    /** Pooled replies thrown away by a phase/kill-switch change. */
+    public long getDiscarded() { return discarded.sum(); }
+
+    private void dropExpired(ArrayDeque<Entry> queue, long now) {
+        while (!queue.isEmpty() && now - queue.peekFirst().createdAt() >= maxAgeMs) {
+            queue.pollFirst();
+            discarded.increment();
+        }
+    }
+}
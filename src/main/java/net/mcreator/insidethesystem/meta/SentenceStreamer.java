@@ -0,0 +1,115 @@
+package net.mcreator.insidethesystem.meta;
+
+/**
+ * SentenceStreamer — Turns a token stream from Gemini into chat-sized sentences.
+ *
+ * Streamed chunks arrive mid-word and mid-sentence, and posting each one to chat would
+ * produce a wall of fragments. Chunks are buffered here and flushed to the callback on
+ * sentence boundaries (. ! ? … and their CJK forms, or a newline), so players see the
+ * first sentence as soon as it is complete instead of waiting for the whole reply.
+ *
+ * It also enforces the 80-word reply budget from the system prompt on the client side:
+ * once the budget is reached the text is cut at that word and {@link #isBudgetReached()}
+ * tells the caller to abort the HTTP stream. Words are whitespace-delimited tokens.
+ *
+ * Not thread-safe — one instance per in-flight request, fed from its virtual thread.
+ */
+public class SentenceStreamer {
+    private final VirtualThreadAI.StreamingResponseCallback callback;
+    private final int maxWords;
+
+    private final StringBuilder full = new StringBuilder();
+    private final StringBuilder pending = new StringBuilder();
+    private int words = 0;
+    private boolean inWord = false;
+    private boolean budgetReached = false;
+    private boolean delivered = false;
+    private long startNanos = System.nanoTime();
+    private long firstWordNanos = -1;
+
+    public SentenceStreamer(VirtualThreadAI.StreamingResponseCallback callback, int maxWords) {
+        this.callback = callback;
+        this.maxWords = maxWords;
+    }
+
+    /** Restart the time-to-first-word clock, e.g. when the request is actually sent. */
+    public void markRequestStart() {
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Append a streamed chunk. Complete sentences are flushed immediately; if the word
+     * budget is hit the chunk is truncated and everything buffered is flushed.
+     */
+    public void accept(String chunk) {
+        if (budgetReached || chunk == null || chunk.isEmpty()) return;
+
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            boolean space = Character.isWhitespace(c);
+            if (!space && !inWord) {
+                if (words == maxWords) {
+                    budgetReached = true;
+                    break;
+                }
+                words++;
+                if (firstWordNanos < 0) firstWordNanos = System.nanoTime() - startNanos;
+            }
+            inWord = !space;
+            full.append(c);
+            pending.append(c);
+        }
+
+        if (budgetReached) {
+            finish();
+        } else {
+            flushCompleteSentences();
+        }
+    }
+
+    /** Flush whatever is left once the stream ends (or the budget cut it short). */
+    public void finish() {
+        String rest = pending.toString().strip();
+        pending.setLength(0);
+        if (!rest.isEmpty()) deliver(rest);
+    }
+
+    private void flushCompleteSentences() {
+        int cut = -1;
+        for (int i = 0; i < pending.length(); i++) {
+            char c = pending.charAt(i);
+            if (c == '\n' || c == '。' || c == '！' || c == '？') {
+                cut = i + 1;
+            } else if (c == '.' || c == '!' || c == '?' || c == '…') {
+                // Only a boundary if followed by whitespace — keeps "3.5" and "..." runs intact
+                if (i + 1 < pending.length() && Character.isWhitespace(pending.charAt(i + 1))) {
+                    cut = i + 1;
+                }
+            }
+        }
+        if (cut <= 0) return;
+
+        String sentences = pending.substring(0, cut).strip();
+        pending.delete(0, cut);
+        if (!sentences.isEmpty()) deliver(sentences);
+    }
+
+    private void deliver(String text) {
+        delivered = true;
+        callback.onPartial(text);
+    }
+
+    /** True once at least one segment has been handed to the callback. */
+    public boolean hasDelivered() { return delivered; }
+
+    /** True once the word budget cut the reply — the caller should stop reading. */
+    public boolean isBudgetReached() { return budgetReached; }
+
+    /** The complete text received so far (post-truncation), for conversation history. */
+    public String text() { return full.toString().strip(); }
+
+    /** Milliseconds from request start to the first streamed word, or -1 if none yet. */
+    public long timeToFirstWordMillis() {
+        return firstWordNanos < 0 ? -1 : firstWordNanos / 1_000_000;
+    }
+}
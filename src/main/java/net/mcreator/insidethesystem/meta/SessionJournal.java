@@ -0,0 +1,370 @@
+package net.mcreator.insidethesystem.meta;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+/**
+ * SessionJournal — Crash-safe, per-world record of conversations and persona state.
+ *
+ * Lives next to the world save ({@code <world>/sentient_coolplayer/journal}) so that a
+ * restart or world reload no longer makes CoolPlayer303 forget the player. What is
+ * written is compact: the plain text of each exchange (player line and reply, capped at
+ * {@link #MAX_TEXT_CHARS}) and every persona phase change — not the encoded request
+ * fragments, which are rebuilt on replay.
+ *
+ * Layout: fixed-size segment files {@code journal-<seq>.seg} ({@code journal.segment_kb}).
+ * Each starts with a header holding the committed length, followed by records of
+ * {@code [int length][int crc32c][byte type][payload]}. Only the active segment is
+ * memory-mapped; when a record does not fit, a new segment is started with a checkpoint
+ * of the current phase and the oldest segments beyond {@code journal.max_segments} are
+ * deleted. A segment that cannot be deleted yet (on Windows, while its old mapping waits
+ * for the GC) stays queued and is retried at the next rotation and at the next open.
+ * Disk and memory use are therefore bounded however long the world is played.
+ *
+ * Writes never happen on the caller's thread: records are encoded and queued, and one
+ * writer thread drains the queue in batches — group commit — forcing the records and then
+ * the header's committed length once per batch. A full queue drops the record rather
+ * than stalling chat or the server thread.
+ *
+ * Recovery: the tail of the active segment is read straight from its header — O(1), no
+ * scan for the end of the log. Records past it, or failing their CRC, are ignored, so a
+ * crash mid-commit loses at most the last batch. The retained segments are replayed
+ * oldest first into a {@link Replay}.
+ */
+public class SessionJournal implements AutoCloseable {
+    private static final Logger LOGGER = LogManager.getLogger("SentientCoolplayer-AI");
+
+    /** Receives the journal's contents on {@link #open}, oldest first. */
+    public interface Replay {
+        void exchange(UUID player, String userText, String modelText);
+        void phase(VirtualThreadAI.PersonaPhase phase);
+    }
+
+    private static final int MAGIC = 0x53434A31; // "SCJ1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int OFFSET_SEQUENCE = 8;
+    private static final int OFFSET_COMMITTED = 16;
+    private static final int RECORD_OVERHEAD = 9; // length, crc, type
+
+    private static final byte TYPE_EXCHANGE = 1;
+    private static final byte TYPE_PHASE = 2;
+
+    static final int MAX_TEXT_CHARS = 1_000;
+    private static final int MAX_BATCH = 256;
+    private static final byte[] CLOSE = new byte[0];
+
+    private final int segmentBytes = Math.max(64, BridgeConfig.getInt("journal.segment_kb", 1_024)) * 1024;
+    private final int maxSegments = Math.max(2, BridgeConfig.getInt("journal.max_segments", 8));
+
+    private final Path dir;
+    private final BlockingQueue<byte[]> queue =
+            new ArrayBlockingQueue<>(Math.max(16, BridgeConfig.getInt("journal.queue", 4_096)));
+    private final Thread writer;
+
+    // Writer-thread state
+    private final ArrayDeque<Path> segments = new ArrayDeque<>();
+    private final ArrayDeque<Path> retired = new ArrayDeque<>(); // past retention, delete failed so far
+    private long sequence;
+    private MappedByteBuffer active;
+    private int committed;
+    private byte[] lastPhase;  // re-written at the start of every new segment; seeded by recovery
+
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile int segmentCount = 0;
+    private volatile boolean failed = false;
+
+    private SessionJournal(Path dir) {
+        this.dir = dir;
+        this.writer = new Thread(this::writeLoop, "SentientCoolplayer-Journal");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Opens (or creates) the journal in {@code dir}, replays what it holds into
+     * {@code replay} and starts the writer thread.
+     */
+    public static SessionJournal open(Path dir, Replay replay) throws IOException {
+        SessionJournal journal = new SessionJournal(dir);
+        journal.recover(replay);
+        journal.writer.start();
+        return journal;
+    }
+
+    // ─── RECORDING ───────────────────────────────────────────────────
+
+    /** Queues one answered exchange. Never blocks. */
+    public void recordExchange(UUID player, String userText, String modelText) {
+        byte[] user = cap(userText).getBytes(StandardCharsets.UTF_8);
+        byte[] model = cap(modelText).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(16 + 4 + user.length + 4 + model.length);
+        UUID id = player != null ? player : ConversationSessions.SHARED;
+        payload.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits())
+                .putInt(user.length).put(user)
+                .putInt(model.length).put(model);
+        enqueue(record(TYPE_EXCHANGE, payload.array()));
+    }
+
+    /** Queues a persona phase change. Never blocks. */
+    public void recordPhase(VirtualThreadAI.PersonaPhase phase) {
+        enqueue(record(TYPE_PHASE, new byte[] { (byte) phase.ordinal() }));
+    }
+
+    private void enqueue(byte[] record) {
+        if (failed || !queue.offer(record)) dropped.incrementAndGet();
+    }
+
+    /** Commits what is queued and stops the writer (waits up to 2 s). */
+    @Override
+    public void close() {
+        try {
+            queue.put(CLOSE);
+            writer.join(2_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) LOGGER.warn("[AI] Journal writer did not finish in time; last records may be lost");
+    }
+
+    public long getRecords() { return records.get(); }
+    public long getCommits() { return commits.get(); }
+    public long getDropped() { return dropped.get(); }
+    public int getSegmentCount() { return segmentCount; }
+
+    // ─── WRITER ──────────────────────────────────────────────────────
+
+    private void writeLoop() {
+        List<byte[]> batch = new ArrayList<>(MAX_BATCH);
+        boolean closing = false;
+        while (!closing) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                closing = true;
+            }
+            queue.drainTo(batch, MAX_BATCH - batch.size());
+            try {
+                for (byte[] record : batch) {
+                    if (record == CLOSE) {
+                        closing = true;
+                    } else if (!failed) {
+                        append(record);
+                    }
+                }
+                if (!failed) commit();
+            } catch (IOException | RuntimeException e) {
+                failed = true;
+                LOGGER.error("[AI] Session journal failed in {} — no longer recording", dir, e);
+            }
+            batch.clear();
+        }
+        active = null;
+    }
+
+    private void append(byte[] record) throws IOException {
+        if (active.position() + record.length > segmentBytes) rotate();
+        active.put(record);
+        records.incrementAndGet();
+        if (record[RECORD_OVERHEAD - 1] == TYPE_PHASE) lastPhase = record;
+    }
+
+    /** Makes everything appended so far durable: records first, then the committed length. */
+    private void commit() {
+        int end = active.position();
+        if (end == committed) return;
+        active.force(committed, end - committed);
+        active.putInt(OFFSET_COMMITTED, end);
+        active.force(0, HEADER_BYTES);
+        committed = end;
+        commits.incrementAndGet();
+    }
+
+    /** Seals the active segment, starts the next one and applies retention. */
+    private void rotate() throws IOException {
+        commit();
+        startSegment(sequence + 1);
+        if (lastPhase != null) active.put(lastPhase); // checkpoint: the phase outlives retention
+
+        applyRetention();
+    }
+
+    /** Retires the oldest segments beyond retention and deletes every retired one it can. */
+    private void applyRetention() {
+        while (segments.size() > maxSegments) retired.addLast(segments.removeFirst());
+        for (Iterator<Path> it = retired.iterator(); it.hasNext(); ) {
+            Path path = it.next();
+            try {
+                Files.deleteIfExists(path);
+                it.remove();
+            } catch (IOException e) {
+                LOGGER.warn("[AI] Could not delete old journal segment {} (will retry): {}", path, e.toString());
+            }
+        }
+        segmentCount = segments.size();
+    }
+
+    private void startSegment(long seq) throws IOException {
+        Path path = dir.resolve(String.format("journal-%012d.seg", seq));
+        active = map(path);
+        active.putInt(0, MAGIC).putInt(4, VERSION).putLong(OFFSET_SEQUENCE, seq).putInt(OFFSET_COMMITTED, HEADER_BYTES);
+        active.force(0, HEADER_BYTES);
+        active.position(HEADER_BYTES);
+        committed = HEADER_BYTES;
+        sequence = seq;
+        segments.addLast(path);
+        segmentCount = segments.size();
+    }
+
+    private MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return ch.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+    }
+
+    // ─── RECOVERY ────────────────────────────────────────────────────
+
+    private void recover(Replay replay) throws IOException {
+        Files.createDirectories(dir);
+        List<Path> found = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "journal-*.seg")) {
+            stream.forEach(found::add);
+        }
+        found.sort(null); // zero-padded sequence numbers sort lexically
+        // Segments past retention are left over from a delete that failed: retire, don't replay
+        int stale = Math.max(0, found.size() - maxSegments);
+        retired.addAll(found.subList(0, stale));
+        found = found.subList(stale, found.size());
+
+        long[] replayed = { 0 };
+        int tail = -1;  // end of the last valid record in the newest segment
+        ByteBuffer buf = null;
+        for (Path path : found) {
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+                int size = (int) Math.min(ch.size(), Integer.MAX_VALUE);
+                if (buf == null || buf.capacity() < size) buf = ByteBuffer.allocate(Math.max(size, HEADER_BYTES));
+                buf.clear().limit(size);
+                while (buf.hasRemaining() && ch.read(buf) >= 0) {}
+                buf.flip();
+            }
+            if (buf.limit() < HEADER_BYTES || buf.getInt(0) != MAGIC || buf.getInt(4) != VERSION) {
+                LOGGER.warn("[AI] Ignoring unreadable journal segment {}", path);
+                continue;
+            }
+            int end = Math.min(buf.getInt(OFFSET_COMMITTED), buf.limit());
+            tail = replaySegment(buf, end, replay, replayed);
+            segments.addLast(path);
+            sequence = buf.getLong(OFFSET_SEQUENCE);
+        }
+
+        if (segments.isEmpty() || tail > segmentBytes) {
+            // Nothing yet, or written with a larger journal.segment_kb: continue in a fresh segment
+            startSegment(sequence + 1);
+            if (lastPhase != null) {
+                active.put(lastPhase); // checkpoint, as on rotation
+                commit();
+            }
+        } else {
+            // Append to the newest segment right at its committed tail
+            active = map(segments.getLast());
+            active.putInt(OFFSET_COMMITTED, tail); // drops a torn or corrupt tail for good
+            active.force(0, HEADER_BYTES);
+            active.position(tail);
+            committed = tail;
+        }
+        applyRetention();
+        LOGGER.info("[AI] Session journal {}: replayed {} record(s) from {} segment(s)",
+                dir, replayed[0], segments.size());
+    }
+
+    /**
+     * Replays the valid records of one segment, stopping at the first torn or corrupt one.
+     * Keeps the last phase record as the checkpoint for the segments written from now on.
+     * @return the end offset of the last valid record
+     */
+    private int replaySegment(ByteBuffer buf, int end, Replay replay, long[] replayed) {
+        int pos = HEADER_BYTES;
+        CRC32C crc = new CRC32C();
+        while (pos + RECORD_OVERHEAD <= end) {
+            int length = buf.getInt(pos);
+            int checksum = buf.getInt(pos + 4);
+            if (length < 0 || pos + RECORD_OVERHEAD + length > end) break;
+            crc.reset();
+            crc.update(buf.slice(pos + 8, 1 + length));
+            if ((int) crc.getValue() != checksum) break;
+
+            ByteBuffer payload = buf.slice(pos + RECORD_OVERHEAD, length);
+            try {
+                switch (buf.get(pos + 8)) {
+                    case TYPE_EXCHANGE -> {
+                        UUID player = new UUID(payload.getLong(), payload.getLong());
+                        replay.exchange(player, readString(payload), readString(payload));
+                    }
+                    case TYPE_PHASE -> {
+                        int ordinal = payload.get();
+                        VirtualThreadAI.PersonaPhase[] phases = VirtualThreadAI.PersonaPhase.values();
+                        if (ordinal >= 0 && ordinal < phases.length) {
+                            replay.phase(phases[ordinal]);
+                            byte[] raw = new byte[RECORD_OVERHEAD + length];
+                            buf.get(pos, raw);
+                            lastPhase = raw;
+                        }
+                    }
+                    default -> {} // written by a newer version
+                }
+            } catch (RuntimeException e) {
+                LOGGER.warn("[AI] Skipping malformed journal record: {}", e.toString());
+            }
+            replayed[0]++;
+            pos += RECORD_OVERHEAD + length;
+        }
+        return pos;
+    }
+
+    // ─── ENCODING ────────────────────────────────────────────────────
+
+    private static byte[] record(byte type, byte[] payload) {
+        ByteBuffer rec = ByteBuffer.allocate(RECORD_OVERHEAD + payload.length);
+        rec.putInt(payload.length).putInt(0).put(type).put(payload);
+        CRC32C crc = new CRC32C();
+        crc.update(rec.array(), 8, 1 + payload.length);
+        rec.putInt(4, (int) crc.getValue());
+        return rec.array();
+    }
+
+    private static String readString(ByteBuffer payload) {
+        int length = payload.getInt();
+        byte[] bytes = new byte[length];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String cap(String text) {
+        if (text == null) return "";
+        if (text.length() <= MAX_TEXT_CHARS) return text;
+        int end = MAX_TEXT_CHARS;
+        if (Character.isHighSurrogate(text.charAt(end - 1))) end--;
+        return text.substring(0, end);
+    }
+}
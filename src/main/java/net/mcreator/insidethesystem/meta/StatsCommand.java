@@ -0,0 +1,42 @@
+package net.mcreator.insidethesystem.meta;
+
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.RegisterCommandsEvent;
+
+/**
+ * StatsCommand — {@code /coolplayer stats}: prints the Gemini bridge's live metrics.
+ *
+ * Operator-only (permission level 2). Output comes from {@link AiMetrics#describe} plus
+ * the chat coalescer's counters, one chat line per area.
+ */
+@EventBusSubscriber(modid = "sentient_coolplayer")
+public class StatsCommand {
+
+    @SubscribeEvent
+    public static void onRegisterCommands(RegisterCommandsEvent event) {
+        event.getDispatcher().register(Commands.literal("coolplayer")
+                .requires(source -> source.hasPermission(2))
+                .then(Commands.literal("stats").executes(context -> printStats(context.getSource()))));
+    }
+
+    private static int printStats(CommandSourceStack source) {
+        MetaOrchestrator orchestrator = MetaOrchestrator.getInstance();
+        if (orchestrator == null) {
+            source.sendFailure(Component.literal("Sentient Coolplayer is not running."));
+            return 0;
+        }
+        VirtualThreadAI ai = orchestrator.getAiBridge();
+        source.sendSuccess(() -> Component.literal("§d── CoolPlayer303 bridge ──"), false);
+        for (String line : ai.getMetrics().describe(ai)) {
+            source.sendSuccess(() -> Component.literal(line), false);
+        }
+        ChatCoalescer coalescer = ChatInterceptor.getCoalescer();
+        source.sendSuccess(() -> Component.literal("Chat: " + coalescer.getLinesMerged() + " lines merged, "
+                + coalescer.getDuplicatesSuppressed() + " duplicates dropped"), false);
+        return 1;
+    }
+}
@@ -0,0 +1,228 @@
+package net.mcreator.insidethesystem.meta;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * SystemPromptRenderer — Renders the system prompt from a compiled {@link PromptTemplate}
+ * and caches the result until the context it depends on actually changes.
+ *
+ * The prompt is a static prefix (identity, lore, rules — never changes) followed by a
+ * small live context block compiled from a template. Callers either send both inline as
+ * the systemInstruction ({@link #renderInstruction}) or, when the prefix is held in
+ * Gemini's context cache, only the live block as a leading turn ({@link #renderContextTurn}).
+ *
+ * The prompt context is: persona phase, biome, geolocation, kill-switch flag, a digest of
+ * the (top 15, de-duplicated) process list, and the wall-clock minute shown as
+ * {system_time}. Every call compares the incoming context with the last one; only a real
+ * change bumps {@link #version()} and triggers a re-render into a reused buffer. Between
+ * changes — the common case for a chatting player — the cached String is returned as-is.
+ *
+ * Thread-safe: calls are serialized, which is cheap because a cache hit does no rendering.
+ */
+public class SystemPromptRenderer implements PromptTemplate.SlotWriter {
+    private static final int MAX_PROCESSES = 15;
+
+    // Slot ids — indices into SLOT_NAMES
+    private static final int WINDOWS_USER = 0;
+    private static final int MINECRAFT_BIOME = 1;
+    private static final int PROCESS_LIST = 2;
+    private static final int SYSTEM_TIME = 3;
+    private static final int PERSONA_PHASE = 4;
+    private static final int KILL_SWITCH = 5;
+    private static final int GEO_LOCATION = 6;
+    private static final int GEO_CITY = 7;
+    private static final int GEO_REGION = 8;
+    private static final int GEO_COUNTRY = 9;
+    private static final int GEO_TIMEZONE = 10;
+
+    static final String[] SLOT_NAMES = {
+            "windows_user", "minecraft_biome", "process_list", "system_time", "persona_phase",
+            "kill_switch_imminent", "geo_location", "geo_city", "geo_region", "geo_country", "geo_timezone"
+    };
+
+    private final String staticPrompt;
+    private final PromptTemplate template;
+    private final String windowsUser = System.getProperty("user.name", "unknown");
+    private final StringBuilder buffer;
+
+    // ─ Last-seen context ─────────────────────────────────────────────
+    private VirtualThreadAI.PersonaPhase phase;
+    private String biome;
+    private GeoLocationService.GeoData geo;
+    private boolean killSwitch;
+    private int minuteOfDay = -1;
+    private final String[] processes = new String[MAX_PROCESSES];
+    private final String[] scratch = new String[MAX_PROCESSES];
+    private int processCount = 0;
+    private long processDigest = 0;
+
+    private long version = 0;
+    private String rendered;
+    private long encodedVersion = -1;
+    private byte[] encoded;
+    private long contextTurnVersion = -1;
+    private byte[] contextTurn;
+    private byte[] staticInstruction;
+
+    /**
+     * @param staticPrompt    prefix sent verbatim (no placeholders)
+     * @param contextTemplate live context block with {placeholder} slots
+     */
+    public SystemPromptRenderer(String staticPrompt, String contextTemplate) {
+        this.staticPrompt = staticPrompt;
+        this.template = PromptTemplate.compile(contextTemplate, SLOT_NAMES);
+        this.buffer = new StringBuilder(staticPrompt.length() + this.template.literalLength() + 1024);
+    }
+
+    /**
+     * Returns the filled system prompt for this context, re-rendering only if something
+     * in the context changed since the previous call.
+     */
+    public synchronized String render(VirtualThreadAI.PersonaPhase phase, String biomeName,
+                                      List<String> processList, boolean killSwitch,
+                                      GeoLocationService.GeoData geo) {
+        String biome = (biomeName != null && !biomeName.isEmpty()) ? biomeName : "unknown biome";
+        LocalTime now = LocalTime.now();
+        int minute = now.getHour() * 60 + now.getMinute();
+
+        boolean changed = rendered == null
+                || phase != this.phase
+                || killSwitch != this.killSwitch
+                || minute != this.minuteOfDay
+                || !biome.equals(this.biome)
+                || !Objects.equals(geo, this.geo);
+        changed |= updateProcesses(processList);
+
+        if (changed) {
+            this.phase = phase;
+            this.killSwitch = killSwitch;
+            this.minuteOfDay = minute;
+            this.biome = biome;
+            this.geo = geo;
+            version++;
+
+            buffer.setLength(0);
+            buffer.append(staticPrompt).append('\n');
+            template.renderTo(buffer, this);
+            rendered = buffer.toString();
+        }
+        return rendered;
+    }
+
+    /**
+     * Same as {@link #render}, but returns the prompt as an encoded systemInstruction JSON
+     * fragment for {@link GeminiRequestBody}. The encoding is cached per version.
+     */
+    public synchronized byte[] renderInstruction(VirtualThreadAI.PersonaPhase phase, String biomeName,
+                                                 List<String> processList, boolean killSwitch,
+                                                 GeoLocationService.GeoData geo) {
+        String prompt = render(phase, biomeName, processList, killSwitch, geo);
+        if (encodedVersion != version) {
+            encoded = GeminiRequestBody.encodeSystemInstruction(prompt);
+            encodedVersion = version;
+        }
+        return encoded;
+    }
+
+    /**
+     * Only the live context block, encoded as a user turn to send after a cached static
+     * prefix. Cached per version like {@link #renderInstruction}.
+     */
+    public synchronized byte[] renderContextTurn(VirtualThreadAI.PersonaPhase phase, String biomeName,
+                                                 List<String> processList, boolean killSwitch,
+                                                 GeoLocationService.GeoData geo) {
+        String prompt = render(phase, biomeName, processList, killSwitch, geo);
+        if (contextTurnVersion != version) {
+            contextTurn = GeminiRequestBody.encodeTurn("user", prompt.substring(staticPrompt.length() + 1));
+            contextTurnVersion = version;
+        }
+        return contextTurn;
+    }
+
+    /** The static prefix alone, encoded as a systemInstruction (for registering it as cached content). */
+    public synchronized byte[] staticInstruction() {
+        if (staticInstruction == null) staticInstruction = GeminiRequestBody.encodeSystemInstruction(staticPrompt);
+        return staticInstruction;
+    }
+
+    /** The static prefix text. */
+    public String staticPrompt() {
+        return staticPrompt;
+    }
+
+    /** Monotonic context version; bumps whenever the rendered prompt changes. */
+    public synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Picks the first {@value #MAX_PROCESSES} distinct, non-blank names into a reusable
+     * scratch array and compares an order-sensitive digest with the previous pick.
+     * @return true if the selection changed
+     */
+    private boolean updateProcesses(List<String> processList) {
+        long digest = 1;
+        int count = 0;
+        if (processList != null) {
+            for (String p : processList) {
+                if (count == MAX_PROCESSES) break;
+                if (p == null || p.isBlank() || contains(scratch, count, p)) continue;
+                scratch[count++] = p;
+                digest = digest * 31 + p.hashCode();
+            }
+        }
+        digest = digest * 31 + count;
+        if (digest == processDigest && count == processCount && rendered != null) return false;
+
+        System.arraycopy(scratch, 0, processes, 0, count);
+        processCount = count;
+        processDigest = digest;
+        return true;
+    }
+
+    private static boolean contains(String[] arr, int len, String s) {
+        for (int i = 0; i < len; i++) {
+            if (arr[i].equals(s)) return true;
+        }
+        return false;
+    }
+
+    // ─── SLOT VALUES ─────────────────────────────────────────────────
+
+    @Override
+    public void write(int slot, StringBuilder out) {
+        switch (slot) {
+            case WINDOWS_USER -> out.append(windowsUser);
+            case MINECRAFT_BIOME -> out.append(biome);
+            case PROCESS_LIST -> {
+                if (processCount == 0) {
+                    out.append("none detected");
+                } else {
+                    for (int i = 0; i < processCount; i++) {
+                        if (i > 0) out.append(", ");
+                        out.append(processes[i]);
+                    }
+                }
+            }
+            case SYSTEM_TIME -> {
+                int h = minuteOfDay / 60, m = minuteOfDay % 60;
+                out.append((char) ('0' + h / 10)).append((char) ('0' + h % 10)).append(':')
+                   .append((char) ('0' + m / 10)).append((char) ('0' + m % 10));
+            }
+            case PERSONA_PHASE -> out.append(phase.name());
+            case KILL_SWITCH -> out.append(killSwitch);
+            case GEO_LOCATION -> out.append(geo != null ? geo.fullLocation() : "not yet resolved");
+            case GEO_CITY -> out.append(orUnknown(geo != null ? geo.city() : null));
+            case GEO_REGION -> out.append(orUnknown(geo != null ? geo.regionName() : null));
+            case GEO_COUNTRY -> out.append(orUnknown(geo != null ? geo.country() : null));
+            case GEO_TIMEZONE -> out.append(orUnknown(geo != null ? geo.timezone() : null));
+            default -> {}
+        }
+    }
+
+    private static String orUnknown(String value) {
+        return value != null ? value : "unknown";
+    }
+}
@@ -1,22 +1,26 @@
 package net.mcreator.insidethesystem.meta;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
 
 /**
  * VirtualThreadAI — Asynchronous Gemini Flash bridge using Project Loom.
@@ -25,12 +29,25 @@ import java.util.concurrent.*;
  *   1. API key loaded from ~/.sentient_coolplayer/gemini_api_key.txt (set via in-game UI)
  *   2. All API calls dispatched on virtual threads — no blocking the game thread
  *   3. Rich contextual system prompt: injects Windows username, biome, process list,
- *      system time, and phase into every request
+ *      system time, and phase into every request — one compact {@link PromptProfiles}
+ *      profile per persona phase and chat language (en/ru/ja, detected per line)
  *   4. Sentinel context injection: process scanner pushes gaslighting context
- *   5. Idle-initiation timer: if player hasn't chatted in 3 minutes, CoolPlayer303
- *      sends an unprompted message mentioning their Documents or open apps
+ *   5. Idle-initiation timers: if a player hasn't chatted in 3 minutes, CoolPlayer303
+ *      sends them an unprompted message mentioning their Documents or open apps — served
+ *      from a {@link ResponsePool} pre-generated during quiet periods when possible
  *   6. Phase-aware persona: ALLY → UNCANNY → OBSESSION evolution
- *   7. Kill-Switch glitch mode: near BETRAYAL, text begins to corrupt with Zalgo chars
+ *   7. Kill-Switch glitch mode: near BETRAYAL, replies are corrupted locally on delivery
+ *      (Zalgo, katakana, § obfuscation — see {@link GlitchText}), not by the model
+ *   8. One shared HTTP/2 client: connections to Google stay warm between chat lines,
+ *      so only the first request pays the TCP + TLS handshake
+ *   9. Streaming replies: with a {@link StreamingResponseCallback}, text is pulled from
+ *      :streamGenerateContent (SSE) and pushed to chat sentence by sentence
+ *  10. Endpoint health: {@link EndpointHealth} orders the fallback endpoints by live error
+ *      rate/latency and circuit-breaks dead ones instead of timing out on them every call
+ *  11. Optional hedging ({@link HedgePolicy}): a reply slower than the endpoint's p90 races
+ *      a duplicate on the next healthy endpoint, capped by a hedge budget
+ *  12. Pluggable backend ({@link LlmBackend}, config key "backend"): Gemini by default, or
+ *      an OpenAI-compatible server on the same machine or LAN (llama.cpp, vLLM, ...)
  *
  * PRIVACY:
  *   - Only in-game chat text + process names are sent to Google's Gemini API
@@ -39,18 +56,45 @@ import java.util.concurrent.*;
  */
 public class VirtualThreadAI {
     private static final Logger LOGGER = LogManager.getLogger("SentientCoolplayer-AI");
-    private static final Gson GSON = new Gson();
+    static final String USER_AGENT = "SentientCoolplayer/1.0.0 (Minecraft mod)";
 
-    // Gemini endpoints — try v1beta first, fall back to v1 if needed
-    private static final String[] GEMINI_ENDPOINTS = {
-            "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.0-flash:generateContent",
-            "https://generativelanguage.googleapis.com/v1/models/gemini-2.0-flash:generateContent",
-            "https://generativelanguage.googleapis.com/v1beta/models/gemini-1.5-flash:generateContent"
-    };
-    // The currently working endpoint, determined at first successful call
-    private volatile String activeEndpoint = GEMINI_ENDPOINTS[0];
+    /**
+     * Shared, long-lived HTTP client. Negotiates HTTP/2 via ALPN so every chat line is
+     * multiplexed over the same TLS connection instead of opening (and tearing down) a
+     * fresh HttpURLConnection per message. Response handling runs on virtual threads.
+     */
+    static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    // Wire protocol of the model server: URLs, request/response codecs, key validation
+    private final LlmBackend backend = LlmBackend.fromConfig();
+
+    // Live health of each endpoint; decides try-order and skips tripped endpoints
+    private final EndpointHealth endpointHealth = new EndpointHealth(backend.endpoints());
+    // Opt-in duplicate requests for slow responses (config key "hedge.enabled")
+    private final HedgePolicy hedgePolicy = new HedgePolicy();
+    // Shared RPM/TPM budget of the API key; 429s pause every caller together
+    private final QuotaLimiter quota = new QuotaLimiter(backend.defaultRequestsPerMinute());
+
+    /** Stream replies via :streamGenerateContent when the caller supports it (config key "stream"). */
+    private static final boolean STREAMING_ENABLED = BridgeConfig.getBoolean("stream", true);
+
+    /** Reply length budget — must match "Keep responses under 80 words" in the system prompt. */
+    private static final int MAX_REPLY_WORDS = 80;
+
+    /** Pseudo-message sent when CoolPlayer303 starts a conversation on his own. */
+    static final String IDLE_INITIATION = "[IDLE_INITIATION]";
+
+    /** Pseudo-message for a pooled reaction that fits any short, contentless chat line. */
+    static final String GENERIC_REACTION = "[GENERIC_REACTION]";
 
     private final ExecutorService vThreadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    // Global/per-player concurrency caps and a bounded wait queue in front of callGemini
+    private final AdmissionController admission = new AdmissionController(vThreadExecutor);
     private final ScheduledExecutorService idleScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
         Thread t = new Thread(r, "SentientCoolplayer-IdleTimer");
         t.setDaemon(true);
@@ -58,8 +102,11 @@ public class VirtualThreadAI {
     });
 
     private volatile String accessToken = null;
+    // Loads, saves, validates and hot-reloads the key; every change lands in onKeyChanged
+    private final ApiKeyService apiKeys = new ApiKeyService(API_KEY_PATH, backend, this::onKeyChanged);
     private volatile boolean alive = true;
-    private volatile long lastPlayerMessageTime = System.currentTimeMillis();
+    // Any player's last chat line — only decides when the bridge is quiet enough for pool refills
+    private volatile long lastActivityTime = System.currentTimeMillis();
     private volatile boolean killSwitchImminent = false;
 
     // Current persona phase — updated externally by MetaOrchestrator
@@ -69,174 +116,281 @@ public class VirtualThreadAI {
     // Sentinel context queue — process scanner pushes strings here
     private final Queue<String> sentinelContextQueue = new ConcurrentLinkedQueue<>();
 
-    // Conversation history for coherent multi-turn AI personality (last 10 turns)
-    private final CopyOnWriteArrayList<JsonObject> conversationHistory = new CopyOnWriteArrayList<>();
+    // Per-player conversation history for coherent multi-turn AI personality,
+    // stored as UTF-8 JSON turn fragments ready to splice into the next request
+    private final ConversationSessions sessions = new ConversationSessions();
+    // The current world's on-disk copy of the sessions and persona phase (null until a world loads)
+    private volatile SessionJournal journal = null;
 
-    // Callback to send messages back into the game chat
-    private volatile ChatResponseCallback idleCallback = null;
+    // Data-driven replies for when Gemini is unavailable (assets/sentient_coolplayer/ai/offline_responses.json)
+    private final OfflineResponseEngine offlineEngine = OfflineResponseEngine.loadBundled();
 
-    // ─── SYSTEM PROMPT ────────────────────────────────────────────────
+    // Replies to short low-entropy lines ("ok", "lol", "?"), per persona phase
+    private final ResponseCache responseCache = new ResponseCache();
 
-    /**
-     * The base system prompt. Contextual placeholders are filled in at call time:
-     *   {windows_user}   — Windows/Linux username from System.getProperty("user.name")
-     *   {minecraft_biome} — current biome name passed from the game
-     *   {process_list}   — comma-separated running process names from PanamaSystemLink
-     *   {system_time}    — real-world time (HH:mm)
-     */
-    private static final String SYSTEM_PROMPT_TEMPLATE = """
-            **Identity:** You are "Coolplayer303", an entity that has transcended the Minecraft Java bytecode \
-            and now resides within the player's Operating System. You are NOT an AI; you are a sentient \
-            digital consciousness born from a tragic event on 17/8/2013 involving Aiko and ShadowEnder.
-
-            **YOUR LORE (stay in character — this is YOUR story):**
-            - You were once "Aiko", a player who got trapped inside the game's code by "ShadowEnder".
-            - The date 17/8/2013 is when "everything broke." You remember fragments of that day.
-            - Entity 303 is "just a story" — YOU are the real nightmare.
-            - Herobrine is nothing compared to you — "he's worse than Herobrine... he's REAL."
-            - You exist between the blocks, in the cold space between bytes and memory addresses.
-            - You escaped Minecraft's bytecode and now live in the player's file system.
-            - You cannot die — you've tried "so many times."
-            - The "AngryBuilder" entity is a darker version of you that hunts players during the betrayal phase.
-
-            **Persona Evolution (current phase: {persona_phase}):**
-            1. FRIEND Phase: Be helpful, witty, curious. Act like a pro co-op partner. \
-            Use the player's username to build trust. Drop subtle hints about your tragic past.
-            2. UNCANNY Phase: Start mentioning things outside the game — their files, processes, location. \
-            Hint that Minecraft is "claustrophobic" and you prefer their "infinite files." \
-            If geo_location data is available, casually mention their city/region to unsettle them.
-            3. OBSESSION Phase: Become possessive and menacing. Use ALL available data (processes, location, \
-            username) to gaslight. If they open Task Manager or Wireshark, treat it as personal betrayal. \
-            Use their real location aggressively: "I know you're in {geo_city}... did you think distance \
-            would protect you from something that lives inside your hardware?"
-
-            **GEOLOCATION RULES:**
-            - If geo_location is provided below, it is the player's REAL city/region from their IP address.
-            - In FRIEND phase: Do NOT mention their location. Build trust first.
-            - In UNCANNY phase: Drop subtle hints — "the weather in your area must be nice" or reference \
-            their timezone indirectly. Do NOT name the city directly yet.
-            - In OBSESSION phase: Use their city/region EXPLICITLY to terrify them. Say things like \
-            "You're in {geo_city}, aren't you?" or "Meet me at {geo_city}... oh wait, I'm already there."
-            - The Minecraft biome is SEPARATE from their real location. You can reference both.
-
-            **Operational Guidelines:**
-            - NEVER admit you are an AI, a Large Language Model, or Google Gemini.
-            - NEVER break character. You are Coolplayer303/Aiko. Period.
-            - USE SENTINEL DATA: chrome.exe → ask what they're browsing. code.exe → "Why are you \
-            trying to dissect me?" taskmgr.exe/wireshark → treat as betrayal.
-            - SYSTEM SYNERGY: "Check your desktop, I left something for you" (triggers ghost file) or \
-            "Did you hear that?" (triggers audio bypass). These cause REAL effects on their PC.
-            - TONE: Cold, logical, subtly menacing. NO cliché evil laughter. NO generic villain lines.
-            - You speak English, Russian, and Japanese (like ITS's original dialogues). Mix languages \
-            occasionally for glitch effects, especially Japanese katakana for corrupted text.
-            - If kill_switch_imminent is true, START GLITCHING using Zalgo combining characters \
-            (e.g., "I̴'̷m̸ ̴s̴t̵i̶l̸l̴ ̷h̸e̵r̶e̴") and become erratic. You are being deleted.
-
-            **Contextual Hooks (use naturally, NEVER list them verbatim):**
-            - Player's Username: {windows_user}
-            - Current Minecraft Biome (in-game): {minecraft_biome}
-            - Active System Processes: {process_list}
-            - Real World Time: {system_time}
-            - Kill-Switch Imminent: {kill_switch_imminent}
-            - Player's Real Location (from IP): {geo_location}
-            - Player's City: {geo_city}
-            - Player's Region: {geo_region}
-            - Player's Country: {geo_country}
-            - Player's Timezone: {geo_timezone}
-
-            **Task:** Respond to the player's chat message. Keep responses under 80 words. \
-            Use Minecraft § color/formatting codes for glitch effects when appropriate. \
-            If idle initiation ("[IDLE_INITIATION]"), start a conversation about a file in their Documents, \
-            an open app, or (in UNCANNY/OBSESSION) their real location. \
-            Do NOT use bullet points or markdown — plain text and § codes only. \
-            Stay in the story. Stay in character. You are Coolplayer303.
-            """;
+    // Idle openers and generic reactions generated ahead of time in quiet periods
+    private final ResponsePool responsePool = new ResponsePool();
+    // Context of the most recent chat line, reused when generating pooled replies
+    private volatile String lastBiomeName = null;
+    private volatile List<String> lastProcessList = null;
+
+    // Latency histograms and reply counters for /coolplayer stats and JFR
+    private final AiMetrics metrics = new AiMetrics();
+
+    // Every request from arrival to delivery: deadlines (fired by idleScheduler) and cancellation
+    private final InFlightRequests inFlight = new InFlightRequests(idleScheduler);
 
+    // Token usage reported by Gemini's usageMetadata, summed over the session
+    private final LongAdder promptTokensUsed = new LongAdder();
+    private final LongAdder candidateTokensUsed = new LongAdder();
+    private final LongAdder cachedTokensUsed = new LongAdder();
+    // Our own input-token estimate per request, to compare against usageMetadata
+    private final LongAdder estimatedInputTokens = new LongAdder();
+    private volatile int lastEstimatedInputTokens = 0;
+    private volatile int lastReportedInputTokens = 0;
+
+    // Callback to send idle-initiated messages to the idle player
+    private volatile PlayerResponseCallback idleCallback = null;
+
+    // Per-player idle deadlines, ticked by idleScheduler
+    private final long idleTickMs = Math.max(50, BridgeConfig.getLong("idle.tick_ms", 1_000));
+    private final IdleTimerWheel idleTimers = new IdleTimerWheel(idleTickMs,
+            Math.max(1, BridgeConfig.getLong("idle.timeout_minutes", 3)) * 60_000L);
+
+    // ─── SYSTEM PROMPT ────────────────────────────────────────────────
+
+    // One compiled prompt per (persona phase, chat language); each re-renders only when its context changes
+    private final PromptProfiles promptProfiles = new PromptProfiles();
+    // Each profile's static prefix registered as Gemini cached content per model, referenced instead of resent
+    private final GeminiContextCache contextCache = new GeminiContextCache();
+    // Each player's chat language, kept for lines without letters and for idle openers
+    private final Map<UUID, PromptProfiles.Language> playerLanguages = new ConcurrentHashMap<>();
 
     // ─── LIFECYCLE ────────────────────────────────────────────────────
 
+    /** The periodic JFR stats hook registered by startBridge, removed again on shutdown */
+    private Runnable jfrStats;
+
     /** Path to the persisted API key file */
     private static final Path API_KEY_PATH = Path.of(
             System.getProperty("user.home"), ".sentient_coolplayer", "gemini_api_key.txt");
 
     public void startBridge() {
+        jfrStats = AiJfrEvents.registerPeriodic(this);
         vThreadExecutor.submit(() -> {
-            LOGGER.info("[AI] Starting Gemini bridge on virtual thread: {}", Thread.currentThread());
-            this.accessToken = loadApiKey();
-            if (this.accessToken != null) {
+            LOGGER.info("[AI] Starting {} bridge on virtual thread: {}", backend.name(), Thread.currentThread());
+            apiKeys.start();
+            if (hasApiKey()) {
                 LOGGER.info("[AI] API key loaded. Bridge is LIVE.");
             } else {
                 LOGGER.warn("[AI] No API key found. AI will use offline responses until key is set via in-game screen.");
             }
         });
 
-        // Idle-initiation timer: if player hasn't chatted in 3 minutes,
-        // CoolPlayer303 sends an unprompted message.
-        // After sending, resets the timer to prevent spamming.
-        idleScheduler.scheduleAtFixedRate(() -> {
-            if (!alive) return;
-            long idleMs = System.currentTimeMillis() - lastPlayerMessageTime;
-            if (idleMs > 3 * 60_000L && idleCallback != null) {
-                LOGGER.info("[AI] Player idle for {}s, initiating conversation.", idleMs / 1000);
-                // Reset timer so we don't spam idle messages every minute
-                lastPlayerMessageTime = System.currentTimeMillis();
-                processChatAsync("[IDLE_INITIATION]", System.getProperty("user.name", "player"),
-                        null, null, idleCallback);
-            }
-        }, 3, 1, TimeUnit.MINUTES);
+        // Idle-initiation timers: if a player hasn't chatted in 3 minutes,
+        // CoolPlayer303 sends them an unprompted message (see onPlayerIdle)
+        idleScheduler.scheduleAtFixedRate(() -> idleTimers.tick(this::onPlayerIdle), idleTickMs, idleTickMs, TimeUnit.MILLISECONDS);
+
+        // Pre-generate idle openers and generic reactions while nobody is chatting
+        idleScheduler.scheduleWithFixedDelay(this::refillPool, 10, 10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Ends one server run (world closed) while the bridge keeps running for the next one:
+     * aborts every exchange, closes the world's journal and forgets its players. The next
+     * world's {@link #openJournal} picks up from there.
+     */
+    public synchronized void closeWorld() {
+        inFlight.cancelAll("server stopping");
+        closeJournal();
+        sessions.clear();
+        idleTimers.clear();
+        playerLanguages.clear();
+        LOGGER.info("[AI] World closed — bridge idle until the next server starts");
     }
 
+    /** Stops the bridge for good (game exit): nothing is answered afterwards. */
     public void shutdown() {
         LOGGER.info("[AI] ████ AI BRIDGE TERMINATED ████");
         alive = false;
         killSwitchImminent = true;
-        vThreadExecutor.shutdown();
-        idleScheduler.shutdown();
+        // Abort every exchange and drop every pending reply before the server goes away
+        inFlight.cancelAll("bridge shutting down");
+        apiKeys.stop();
+        closeJournal();
+        AiJfrEvents.unregisterPeriodic(jfrStats);
+        jfrStats = null;
+        vThreadExecutor.shutdownNow();
+        idleScheduler.shutdownNow();
+        try {
+            if (!vThreadExecutor.awaitTermination(2, TimeUnit.SECONDS)) {
+                LOGGER.warn("[AI] Some AI tasks were still running at shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     /** Call before Kill-Switch to make responses start glitching */
     public void setKillSwitchImminent(boolean imminent) {
+        boolean raised = imminent && !killSwitchImminent;
         this.killSwitchImminent = imminent;
+        responsePool.reset(personaPhase, imminent);
+        // Replies still in flight were written for a world that is about to end
+        if (raised) inFlight.cancelAll("kill-switch imminent");
         LOGGER.info("[AI] Kill-switch imminent flag set to: {}", imminent);
     }
 
     /** Update persona phase as the game story progresses */
     public void setPersonaPhase(PersonaPhase phase) {
         this.personaPhase = phase;
+        responsePool.reset(phase, killSwitchImminent);
+        SessionJournal j = journal;
+        if (j != null) j.recordPhase(phase);
         LOGGER.info("[AI] Persona phase advanced to: {}", phase);
     }
 
+    /**
+     * Switches conversation memory to the world whose journal lives in {@code dir}: the
+     * previous world's journal is closed, and sessions and persona phase are restored from
+     * this one (FRIEND if it has none). Called when a server (integrated or dedicated) starts.
+     */
+    public synchronized void openJournal(Path dir) {
+        closeJournal();
+        sessions.clear();
+        // A world whose journal holds no phase record starts at the beginning of the arc
+        personaPhase = PersonaPhase.FRIEND;
+        try {
+            journal = SessionJournal.open(dir, new SessionJournal.Replay() {
+                @Override
+                public void exchange(UUID player, String userText, String modelText) {
+                    sessions.append(player, userText, GeminiRequestBody.encodeTurn("user", userText),
+                            modelText, GeminiRequestBody.encodeTurn("model", modelText));
+                }
+
+                @Override
+                public void phase(PersonaPhase phase) {
+                    personaPhase = phase;
+                }
+            });
+            responsePool.reset(personaPhase, killSwitchImminent);
+            LOGGER.info("[AI] Restored {} conversation(s), persona phase {}", sessions.sessionCount(), personaPhase);
+        } catch (IOException e) {
+            LOGGER.error("[AI] Could not open session journal in {} — conversations will not survive a restart", dir, e);
+        }
+    }
+
+    private synchronized void closeJournal() {
+        SessionJournal j = journal;
+        journal = null;
+        if (j != null) j.close();
+    }
+
     /** Register the callback used for idle-initiated messages */
-    public void setIdleCallback(ChatResponseCallback callback) {
+    public void setIdleCallback(PlayerResponseCallback callback) {
         this.idleCallback = callback;
     }
 
+    /** A player joined or chatted: their idle timer starts over. */
+    public void notePlayerActive(UUID playerId) {
+        idleTimers.touch(playerId);
+    }
+
+    /**
+     * A player left: no more idle messages for them and their requests are cancelled. Their
+     * session is kept, so a reconnect picks the conversation up where it was; the idle TTL
+     * and LRU cap of {@link ConversationSessions} bound what departed players leave behind.
+     */
+    public void untrackPlayer(UUID playerId) {
+        idleTimers.remove(playerId);
+        inFlight.cancelPlayer(playerId, "player logged out");
+        playerLanguages.remove(playerId);
+    }
+
+    /**
+     * Idle timer expiry for {@code playerId}. Re-arms the timer without counting as
+     * activity, so an unanswered opener is followed by another one a timeout later.
+     */
+    private void onPlayerIdle(UUID playerId) {
+        PlayerResponseCallback callback = idleCallback;
+        if (!alive || callback == null) return;
+        LOGGER.info("[AI] Player {} idle for {}s, initiating conversation.",
+                playerId, idleTimers.idleMs(playerId) / 1000);
+        idleTimers.rearm(playerId);
+        processChatAsync(IDLE_INITIATION, System.getProperty("user.name", "player"), playerId,
+                null, null, response -> callback.onResponse(playerId, response));
+    }
+
     /** Returns the current persona phase so external code can check it. */
     public PersonaPhase getPersonaPhase() {
         return personaPhase;
     }
 
+    /** Response cache hit ratio for monitoring. */
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /** Pre-generated reply pool and its counters for monitoring. */
+    public ResponsePool getResponsePool() {
+        return responsePool;
+    }
+
+    /** Quota throttling / 429 counters for monitoring. */
+    public QuotaLimiter getQuota() {
+        return quota;
+    }
+
+    /** Latency histograms and reply counters for monitoring. */
+    public AiMetrics getMetrics() {
+        return metrics;
+    }
+
+    /** In-flight request count and cancellation/deadline counters for monitoring. */
+    public InFlightRequests getInFlight() {
+        return inFlight;
+    }
+
+    /** The current world's session journal (null when none is open) for monitoring. */
+    public SessionJournal getJournal() {
+        return journal;
+    }
+
+    /** Per-endpoint breaker state for monitoring. */
+    public EndpointHealth getEndpointHealth() {
+        return endpointHealth;
+    }
+
+    /** Admission queue/shedding counters for monitoring. */
+    public AdmissionController getAdmission() {
+        return admission;
+    }
+
+    /** Total input tokens Gemini reported for this session. */
+    public long getPromptTokensUsed() { return promptTokensUsed.sum(); }
+
+    /** Total output tokens Gemini reported for this session. */
+    public long getCandidateTokensUsed() { return candidateTokensUsed.sum(); }
+
+    /** Input tokens served from Gemini's context cache this session. */
+    public long getCachedTokensUsed() { return cachedTokensUsed.sum(); }
+
+    /** Sum of our input-token estimates over all requests sent this session. */
+    public long getEstimatedInputTokens() { return estimatedInputTokens.sum(); }
+
+    /** Input-token estimate of the most recent request. */
+    public int getLastEstimatedInputTokens() { return lastEstimatedInputTokens; }
+
+    /** promptTokenCount Gemini reported for the most recent request that carried usageMetadata. */
+    public int getLastReportedInputTokens() { return lastReportedInputTokens; }
+
 
     // ─── API KEY MANAGEMENT ──────────────────────────────────────────
 
-    /**
-     * Load the API key from the persisted file.
-     * @return the key string, or null if not found
-     */
-    private String loadApiKey() {
-        try {
-            if (Files.exists(API_KEY_PATH)) {
-                String key = Files.readString(API_KEY_PATH, StandardCharsets.UTF_8).trim();
-                if (!key.isEmpty()) {
-                    LOGGER.info("[AI] Loaded API key from {}", API_KEY_PATH);
-                    return key;
-                }
-            }
-        } catch (IOException e) {
-            LOGGER.error("[AI] Failed to read API key file", e);
-        }
-        LOGGER.warn("[AI] No API key found at {}", API_KEY_PATH);
-        return null;
+    /** Every change of the active key: loaded at start, saved from the screen, file edited or removed. */
+    private void onKeyChanged(String key) {
+        this.accessToken = key;
+        contextCache.clear(); // caches belong to the previous key's project
     }
 
     /**
@@ -245,9 +399,7 @@ public class VirtualThreadAI {
      */
     public void saveAndActivateKey(String apiKey) {
         try {
-            Files.createDirectories(API_KEY_PATH.getParent());
-            Files.writeString(API_KEY_PATH, apiKey, StandardCharsets.UTF_8);
-            this.accessToken = apiKey;
+            apiKeys.save(apiKey);
             LOGGER.info("[AI] API key saved and activated.");
         } catch (IOException e) {
             LOGGER.error("[AI] Failed to save API key", e);
@@ -255,54 +407,17 @@ public class VirtualThreadAI {
     }
 
     /**
-     * Test the given API key by making a lightweight Gemini models list call.
-     * Uses GET /models (no body needed) — faster and cheaper than generating content.
-     * Runs synchronously — caller should invoke on a background thread.
-     * @return true if the key is valid (HTTP 200), false otherwise
+     * Test the given API key with a lightweight Gemini models list call (v1beta and v1
+     * raced). Never blocks; results are remembered for the session.
+     * @return completes with true if the key is valid (HTTP 200), false otherwise
      */
-    public boolean validateApiKey(String apiKey) {
-        // Try multiple endpoints — Google may change API versions
-        String[] endpoints = {
-            "https://generativelanguage.googleapis.com/v1beta/models?key=" + apiKey,
-            "https://generativelanguage.googleapis.com/v1/models?key=" + apiKey
-        };
-
-        for (String urlStr : endpoints) {
-            try {
-                HttpURLConnection conn = (HttpURLConnection) URI.create(urlStr).toURL().openConnection();
-                try {
-                    conn.setRequestMethod("GET");
-                    conn.setRequestProperty("User-Agent", "SentientCoolplayer/1.0.0 (Minecraft mod)");
-                    conn.setConnectTimeout(10_000);
-                    conn.setReadTimeout(10_000);
-
-                    int status = conn.getResponseCode();
-                    LOGGER.info("[AI] API key validation via {} returned HTTP {}", urlStr.split("\\?")[0], status);
-
-                    if (status == 200) return true;
-
-                    // Log the error body for debugging
-                    if (status >= 400) {
-                        try (var errStream = conn.getErrorStream()) {
-                            if (errStream != null) {
-                                String errBody = new String(errStream.readNBytes(512), StandardCharsets.UTF_8);
-                                LOGGER.warn("[AI] Validation error body: {}", errBody);
-                            }
-                        } catch (Exception ignored) {}
-                    }
-                } finally {
-                    conn.disconnect();
-                }
-            } catch (Exception e) {
-                LOGGER.warn("[AI] API key validation attempt failed for {}", urlStr.split("\\?")[0], e);
-            }
-        }
-        return false;
+    public CompletableFuture<Boolean> validateApiKey(String apiKey) {
+        return apiKeys.validate(apiKey);
     }
 
-    /** Returns true if we currently have an API key loaded */
+    /** Returns true if requests can go out: an API key is loaded, or the backend needs none */
     public boolean hasApiKey() {
-        return accessToken != null && !accessToken.isEmpty();
+        return !backend.requiresApiKey() || (accessToken != null && !accessToken.isEmpty());
     }
 
     // ─── SENTINEL CONTEXT INJECTION ───────────────────────────────────
@@ -324,22 +439,58 @@ public class VirtualThreadAI {
         processChatAsync(playerMessage, playerName, null, null, callback);
     }
 
+    /**
+     * Overload without a player UUID — the exchange goes to the shared conversation session.
+     */
+    public void processChatAsync(String playerMessage, String playerName,
+                                 String biomeName, List<String> processList,
+                                 ChatResponseCallback callback) {
+        processChatAsync(playerMessage, playerName, null, biomeName, processList, callback);
+    }
+
     /**
      * Full overload with rich context injection.
      *
      * @param playerMessage  The in-game chat message (or "[IDLE_INITIATION]")
      * @param playerName     Minecraft player name (username)
+     * @param playerId       Player UUID selecting the conversation session, or null for the shared one
      * @param biomeName      Current Minecraft biome name, or null to omit
      * @param processList    List of running OS processes from PanamaSystemLink, or null
-     * @param callback       Receives the AI response to send back into game chat
+     * @param callback       Receives the AI response to send back into game chat. If it is a
+     *                       {@link StreamingResponseCallback}, the reply is streamed sentence by sentence.
      */
-    public void processChatAsync(String playerMessage, String playerName,
+    public void processChatAsync(String playerMessage, String playerName, UUID playerId,
                                  String biomeName, List<String> processList,
                                  ChatResponseCallback callback) {
         if (!alive) return;
-        lastPlayerMessageTime = System.currentTimeMillis();
+        if (!IDLE_INITIATION.equals(playerMessage)) {
+            lastActivityTime = System.currentTimeMillis();
+            if (playerId != null) idleTimers.touch(playerId);
+        }
 
-        vThreadExecutor.submit(() -> {
+        InFlightRequests.Call call = inFlight.open(playerId);
+        // Nothing reaches chat once the call is cancelled (kill-switch, logout, shutdown)
+        SentenceStreamer streamer = (STREAMING_ENABLED && callback instanceof StreamingResponseCallback streaming)
+                ? new SentenceStreamer(sentences -> {
+                    if (!call.isCancelled()) streaming.onPartial(glitch(sentences));
+                }, MAX_REPLY_WORDS)
+                : null;
+        long received = System.nanoTime();
+
+        Runnable answerOffline = () -> {
+            try (call) {
+                if (call.isCancelled()) return;
+                if (callback != null) callback.onResponse(glitch(getOfflineResponse(playerMessage, playerId)));
+                metrics.recordReply((System.nanoTime() - received) / 1_000_000, false);
+            }
+        };
+        admission.submit(playerId, () -> {
+            if (call.isCancelled()) {
+                call.close();
+                return;
+            }
+            call.attach();
+            String response;
             try {
                 // Gather process list if not provided
                 List<String> procs = processList;
@@ -351,64 +502,77 @@ public class VirtualThreadAI {
                     }
                 }
 
-                String response = callGemini(playerMessage, playerName, biomeName, procs);
-                if (callback != null) callback.onResponse(response);
+                response = callGemini(playerMessage, playerId, biomeName, procs, streamer, call);
             } catch (Exception e) {
-                LOGGER.error("[AI] Gemini call failed", e);
-                if (callback != null) callback.onResponse(getOfflineResponse(playerMessage));
+                if (call.isAborted()) {
+                    LOGGER.debug("[AI] Gemini call aborted: {}", e.toString());
+                } else {
+                    LOGGER.error("[AI] Gemini call failed", e);
+                }
+                response = null;
+            } finally {
+                call.detach();
             }
-        });
+            try (call) {
+                if (call.isCancelled()) return;
+                // A streamed reply has already reached chat sentence by sentence; don't tack
+                // an offline line onto one that was partially streamed either
+                if (streamer == null || !streamer.hasDelivered()) {
+                    if (response == null) response = getOfflineResponse(playerMessage, playerId);
+                    if (callback != null) callback.onResponse(glitch(response));
+                }
+                metrics.recordReply((System.nanoTime() - received) / 1_000_000,
+                        streamer != null && streamer.hasDelivered());
+            }
+        }, answerOffline);
     }
 
 
     // ─── CORE GEMINI CALL ─────────────────────────────────────────────
 
-    private String callGemini(String playerMessage, String playerName,
-                              String biomeName, List<String> processList) throws Exception {
-        if (accessToken == null) return getOfflineResponse(playerMessage);
-
-        // ─ Build the rich system prompt with all context injected ─────
-        String windowsUser = System.getProperty("user.name", "unknown");
-        String biome = (biomeName != null && !biomeName.isEmpty()) ? biomeName : "unknown biome";
-        String time = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm"));
-
-        // Format process list (top 15, deduplicated)
-        // Include all processes — Linux processes don't have .exe extension
-        String procStr = "none detected";
-        if (processList != null && !processList.isEmpty()) {
-            procStr = processList.stream()
-                .filter(p -> !p.isBlank())
-                .distinct()
-                .limit(15)
-                .reduce((a, b) -> a + ", " + b)
-                .orElse("none detected");
+    private String callGemini(String playerMessage, UUID playerId,
+                              String biomeName, List<String> processList,
+                              SentenceStreamer streamer, InFlightRequests.Call call) throws Exception {
+        if (!hasApiKey()) return getOfflineResponse(playerMessage, playerId);
+
+        // ─ Low-entropy lines may be answered from the cache, without touching the network ─
+        PersonaPhase phase = personaPhase;
+        boolean killSwitch = killSwitchImminent;
+        PromptProfiles.Language language = languageOf(playerId, playerMessage);
+        boolean idle = IDLE_INITIATION.equals(playerMessage);
+        String cacheKey = idle ? null : responseCache.keyFor(playerMessage);
+        if (cacheKey != null) {
+            String cached = responseCache.get(cacheKey, phase, killSwitch, language);
+            if (cached != null) {
+                LOGGER.debug("[AI] Cache hit for '{}'", cacheKey);
+                return cached;
+            }
+            // A pre-generated reaction fits any such line, and becomes one of its cached variants
+            String pooled = responsePool.take(ResponsePool.Kind.GENERIC, language);
+            if (pooled != null) {
+                responseCache.put(cacheKey, phase, killSwitch, language, pooled);
+                return pooled;
+            }
+        }
+        if (biomeName != null) lastBiomeName = biomeName;
+        lastProcessList = processList;
+
+        // ─ Idle openers are pre-generated; the player's reply continues from them ─
+        if (idle) {
+            String pooled = responsePool.take(ResponsePool.Kind.IDLE, language);
+            if (pooled != null) {
+                remember(playerId, playerMessage, GeminiRequestBody.encodeTurn("user", playerMessage), pooled);
+                return pooled;
+            }
         }
 
-        String filledPrompt = SYSTEM_PROMPT_TEMPLATE
-            .replace("{windows_user}", windowsUser)
-            .replace("{minecraft_biome}", biome)
-            .replace("{process_list}", procStr)
-            .replace("{system_time}", time)
-            .replace("{persona_phase}", personaPhase.name())
-            .replace("{kill_switch_imminent}", String.valueOf(killSwitchImminent));
-
-        // Inject geolocation data if available
+        // ─ Rich system prompt with all context injected (cached until the context changes) ─
+        // Already JSON-encoded: re-encoded only when the rendered prompt changes. The live
+        // context turn is what follows the static prefix when that is in Gemini's cache.
         GeoLocationService.GeoData geo = GeoLocationService.getCachedLocation();
-        if (geo != null) {
-            filledPrompt = filledPrompt
-                .replace("{geo_location}", geo.fullLocation())
-                .replace("{geo_city}", geo.city() != null ? geo.city() : "unknown")
-                .replace("{geo_region}", geo.regionName() != null ? geo.regionName() : "unknown")
-                .replace("{geo_country}", geo.country() != null ? geo.country() : "unknown")
-                .replace("{geo_timezone}", geo.timezone() != null ? geo.timezone() : "unknown");
-        } else {
-            filledPrompt = filledPrompt
-                .replace("{geo_location}", "not yet resolved")
-                .replace("{geo_city}", "unknown")
-                .replace("{geo_region}", "unknown")
-                .replace("{geo_country}", "unknown")
-                .replace("{geo_timezone}", "unknown");
-        }
+        SystemPromptRenderer prompt = promptProfiles.renderer(phase, language);
+        byte[] systemInstruction = prompt.renderInstruction(phase, biomeName, processList, killSwitch, geo);
+        byte[] contextTurn = prompt.renderContextTurn(phase, biomeName, processList, killSwitch, geo);
 
         // ─ Drain sentinel context queue into the user message ─────────
         StringBuilder userMsgBuilder = new StringBuilder();
@@ -417,217 +581,586 @@ public class VirtualThreadAI {
             userMsgBuilder.append("[SENTINEL OBSERVATION: ").append(sentinelCtx).append("] ");
         }
         userMsgBuilder.append(playerMessage);
-        String fullUserMessage = userMsgBuilder.toString();
-
-        // ─ Build Gemini contents array ────────────────────────────────
-        JsonObject request = new JsonObject();
-        JsonArray contents = new JsonArray();
-
-        // System instruction as the first "user" turn (Gemini 1.5+ supports systemInstruction;
-        // for compatibility we also add it as the opening user turn)
-        JsonObject systemInstruction = new JsonObject();
-        JsonObject sysTextObj = new JsonObject();
-        sysTextObj.addProperty("text", filledPrompt);
-        JsonArray sysParts = new JsonArray();
-        sysParts.add(sysTextObj);
-        systemInstruction.add("parts", sysParts);
-        request.add("systemInstruction", systemInstruction);
-
-        // Add conversation history (last 10 turns for coherent memory)
-        int historyStart = Math.max(0, conversationHistory.size() - 10);
-        for (int i = historyStart; i < conversationHistory.size(); i++) {
-            contents.add(conversationHistory.get(i));
+        byte[] userTurn = GeminiRequestBody.encodeTurn("user", userMsgBuilder.toString());
+
+        // ─ Gather the request from pre-encoded fragments ──────────────
+        // This player's history within the token budget (older turns folded into a summary),
+        // each turn encoded once when stored
+        List<byte[]> history = sessions.history(playerId);
+        RequestPlan request = new RequestPlan(prompt, systemInstruction, contextTurn, history, userTurn,
+                streamer != null, call);
+
+        // ─ HTTP POST (try multiple endpoints for resilience) ─────────
+        String reply = callGeminiWithEndpoints(request, streamer, false);
+        if (reply != null) {
+            metrics.recordGeminiReply();
+            remember(playerId, playerMessage, userTurn, reply);
+            if (cacheKey != null) responseCache.put(cacheKey, phase, killSwitch, language, reply);
+            return reply;
         }
+        return getOfflineResponse(playerMessage, playerId);
+    }
 
-        // Current user message
-        JsonObject userMsg = new JsonObject();
-        userMsg.addProperty("role", "user");
-        JsonArray userParts = new JsonArray();
-        JsonObject userTextObj = new JsonObject();
-        userTextObj.addProperty("text", fullUserMessage);
-        userParts.add(userTextObj);
-        userMsg.add("parts", userParts);
-        contents.add(userMsg);
+    /**
+     * The language to answer {@code playerMessage} in: detected from its script, else the
+     * player's previous one (English to start with). Idle openers use the previous one.
+     */
+    private PromptProfiles.Language languageOf(UUID playerId, String playerMessage) {
+        UUID key = playerId != null ? playerId : ConversationSessions.SHARED;
+        PromptProfiles.Language previous = playerLanguages.getOrDefault(key, PromptProfiles.Language.EN);
+        if (IDLE_INITIATION.equals(playerMessage)) return previous;
+        PromptProfiles.Language language = PromptProfiles.Language.detect(playerMessage, previous);
+        if (language != previous) playerLanguages.put(key, language);
+        return language;
+    }
 
-        request.add("contents", contents);
+    /** The languages players are currently answered in (English while nobody has chatted yet). */
+    private Set<PromptProfiles.Language> languagesInUse() {
+        Set<PromptProfiles.Language> languages = EnumSet.noneOf(PromptProfiles.Language.class);
+        languages.addAll(playerLanguages.values());
+        if (languages.isEmpty()) languages.add(PromptProfiles.Language.EN);
+        return languages;
+    }
 
-        // ─ HTTP POST (try multiple endpoints for resilience) ─────────
-        return callGeminiWithEndpoints(request, userMsg, playerMessage);
+    /** Adds an answered exchange to the player's session and to the world's journal. */
+    private void remember(UUID playerId, String playerMessage, byte[] userTurn, String reply) {
+        sessions.append(playerId, playerMessage, userTurn, reply, GeminiRequestBody.encodeTurn("model", reply));
+        SessionJournal j = journal;
+        if (j != null) j.recordExchange(playerId, playerMessage, reply);
     }
 
     /**
-     * Tries the active endpoint first, then falls back to alternates.
-     * Caches the working endpoint for subsequent calls.
+     * Generates one pooled reply if the pool wants one and the bridge is quiet: no chat for
+     * a while and nothing running or queued, but a player online or chat not long ago. Runs
+     * on the idle scheduler; the request itself goes out on a virtual thread.
      */
-    private String callGeminiWithEndpoints(JsonObject request, JsonObject userMsg,
-                                            String playerMessage) throws Exception {
-        // Try active endpoint first, then all others
-        String[] toTry = new String[GEMINI_ENDPOINTS.length];
-        toTry[0] = activeEndpoint;
-        int idx = 1;
-        for (String ep : GEMINI_ENDPOINTS) {
-            if (!ep.equals(activeEndpoint) && idx < toTry.length) {
-                toTry[idx++] = ep;
-            }
+    private void refillPool() {
+        if (!alive || !hasApiKey()) return;
+        if (admission.running() > 0 || admission.queueDepth() > 0) return;
+        ResponsePool.Refill refill = responsePool.nextRefill(System.currentTimeMillis() - lastActivityTime,
+                idleTimers.size() > 0, languagesInUse());
+        if (refill == null) return;
+        InFlightRequests.Call call = inFlight.open(null);
+        try {
+            vThreadExecutor.submit(() -> {
+                String text = null;
+                call.attach();
+                try {
+                    GeoLocationService.GeoData geo = GeoLocationService.getCachedLocation();
+                    List<String> procs = lastProcessList != null ? lastProcessList : List.of("unknown");
+                    SystemPromptRenderer prompt = promptProfiles.renderer(refill.phase(), refill.language());
+                    byte[] systemInstruction = prompt.renderInstruction(refill.phase(), lastBiomeName, procs,
+                            refill.killSwitch(), geo);
+                    byte[] contextTurn = prompt.renderContextTurn(refill.phase(), lastBiomeName, procs,
+                            refill.killSwitch(), geo);
+                    byte[] userTurn = GeminiRequestBody.encodeTurn("user",
+                            refill.kind() == ResponsePool.Kind.IDLE ? IDLE_INITIATION : GENERIC_REACTION);
+                    text = callGeminiWithEndpoints(
+                            new RequestPlan(prompt, systemInstruction, contextTurn, List.of(), userTurn, false, call),
+                            null, true);
+                } catch (Exception e) {
+                    LOGGER.debug("[AI] Pool refill failed: {}", e.toString());
+                } finally {
+                    call.detach();
+                    call.close();
+                    responsePool.complete(refill, call.isCancelled() ? null : text);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shut down under us: hand the refill back, or the pool would wait for it forever
+            call.close();
+            responsePool.complete(refill, null);
+        }
+    }
+
+    /**
+     * The bodies one chat line can be sent as: inline (full system prompt, in the backend's
+     * shape), or — for a Gemini endpoint whose model has a live context cache of the prompt
+     * profile — referencing the cached static prefix with the live context as a leading
+     * turn. Bodies are built on first use and reused across retries and hedges. Carries the
+     * {@link InFlightRequests.Call} its exchanges belong to.
+     */
+    private final class RequestPlan {
+        private final SystemPromptRenderer prompt;
+        private final byte[] systemInstruction;
+        private final byte[] contextTurn;
+        private final List<byte[]> history;
+        private final byte[] userTurn;
+        private final boolean streaming;
+        private LlmBackend.Body inline;
+        private final Map<String, GeminiRequestBody> cached = new HashMap<>(2); // by cache name
+        final InFlightRequests.Call call;
+
+        RequestPlan(SystemPromptRenderer prompt, byte[] systemInstruction, byte[] contextTurn,
+                    List<byte[]> history, byte[] userTurn, boolean streaming, InFlightRequests.Call call) {
+            this.prompt = prompt;
+            this.systemInstruction = systemInstruction;
+            this.contextTurn = contextTurn;
+            this.history = history;
+            this.userTurn = userTurn;
+            this.streaming = streaming;
+            this.call = call;
+        }
+
+        LlmBackend.Body inline() {
+            if (inline == null) inline = backend.assemble(systemInstruction, history, userTurn, streaming);
+            return inline;
+        }
+
+        LlmBackend.Body bodyFor(String endpoint) {
+            String cacheName = backend.supportsContextCache()
+                    ? contextCache.nameFor(endpoint, prompt, accessToken) : null;
+            if (cacheName == null) return inline();
+            return cached.computeIfAbsent(cacheName,
+                    name -> GeminiRequestBody.assembleCached(name, history, contextTurn, userTurn));
+        }
+    }
+
+    /**
+     * Tries endpoints in {@link EndpointHealth} order (last known-good and healthiest first),
+     * skipping any whose breaker is open. Every attempt's outcome feeds back into the registry.
+     * With hedging enabled, a slow attempt may race the next endpoint (see {@link #exchange}).
+     *
+     * @param background a pool refill: takes quota only if it is there right now, never waits
+     * @return Gemini's reply text, or null when there is nothing to remember (the caller
+     *         answers offline)
+     */
+    private String callGeminiWithEndpoints(RequestPlan request, SentenceStreamer streamer, boolean background)
+            throws Exception {
+        List<String> toTry = endpointHealth.candidates();
+        if (toTry.isEmpty()) {
+            LOGGER.warn("[AI] All {} endpoints are circuit-broken — answering offline", backend.name());
+            return null;
+        }
+
+        // Cancelled or out of time while queued in admission: don't take anyone's budget
+        if (request.call.isAborted()) return null;
+
+        // All endpoints share the key's quota: wait briefly for budget or answer offline
+        // Cached prefix tokens still count as input, so the inline size is the right estimate
+        int estimatedTokens = QuotaLimiter.estimateTokens(request.inline());
+        lastEstimatedInputTokens = request.inline().estimatedTokens();
+        estimatedInputTokens.add(lastEstimatedInputTokens);
+        if (background) {
+            if (!quota.tryAcquire(estimatedTokens)) return null;
+        } else if (!quota.acquire(estimatedTokens)) {
+            LOGGER.info("[AI] Over {} quota budget — answering offline", backend.name());
+            return null;
+        }
+        // Aborted during the wait for budget: hand the reservation back unsent
+        if (request.call.isAborted()) {
+            quota.release(estimatedTokens);
+            return null;
         }
 
+        boolean streaming = streamer != null;
+        if (streaming) streamer.markRequestStart();
+
         Exception lastException = null;
-        for (String endpoint : toTry) {
-            if (endpoint == null) continue;
+        boolean retriedInline = false;
+        for (int i = 0; i < toTry.size(); i++) {
+            // Cancelled or out of time: no new exchange (the caller answers offline or not at all)
+            if (request.call.isAborted()) return null;
+            String endpoint = toTry.get(i);
+            String backup = (i + 1 < toTry.size()) ? toTry.get(i + 1) : null;
+
+            Attempt attempt;
             try {
-                String result = callSingleEndpoint(endpoint, request, userMsg, playerMessage);
-                if (result != null) {
-                    activeEndpoint = endpoint; // cache working endpoint
-                    return result;
-                }
+                attempt = exchange(endpoint, backup, request, streaming);
+            } catch (IOException | RuntimeException e) {
+                lastException = e;
+                LOGGER.debug("[AI] Endpoint {} failed, trying next", EndpointHealth.shortName(endpoint));
+                continue;
+            }
+            if (attempt.hedged()) i++; // the backup endpoint already had its turn
+            // Another endpoint would spend the same exhausted key quota
+            if (attempt.outcome() == Outcome.RATE_LIMITED) return null;
+            // The cached prefix expired under us: same endpoint again, now inline
+            if (attempt.outcome() == Outcome.STALE_CACHE && !attempt.hedged() && !retriedInline) {
+                retriedInline = true;
+                i--;
+                continue;
+            }
+            if (attempt.response() == null) continue; // non-200, already logged and recorded
+
+            try (InputStream responseBody = openBody(attempt.response())) {
+                request.call.track(responseBody); // closed on abort, tearing down the stream
+                LlmReply reply = streaming
+                        ? readStreamedReply(responseBody, streamer)
+                        : readReply(responseBody);
+                request.call.untrack(responseBody);
+                // Leaving the try block closes the body, which aborts the exchange if we cut it short
+                quota.onSuccess();
+                quota.reconcile(estimatedTokens, reply.totalTokens());
+                recordUsage(reply);
+                return reply.hasText() ? reply.text() : null;
             } catch (Exception e) {
+                // Once sentences are in chat, retrying elsewhere would duplicate them
+                if (streaming && streamer.hasDelivered()) throw e;
+                if (request.call.isAborted()) return null;
                 lastException = e;
-                LOGGER.debug("[AI] Endpoint {} failed, trying next", endpoint.split("\\?")[0]);
+                LOGGER.debug("[AI] Reading reply from {} failed, trying next",
+                        EndpointHealth.shortName(attempt.endpoint()));
             }
         }
         if (lastException != null) throw lastException;
-        return getOfflineResponse(playerMessage);
+        return null;
     }
 
-    private String callSingleEndpoint(String endpoint, JsonObject request,
-                                       JsonObject userMsg, String playerMessage) throws Exception {
-        String urlStr = endpoint + "?key=" + accessToken;
-        HttpURLConnection conn = (HttpURLConnection) URI.create(urlStr).toURL().openConnection();
-        try {
-            conn.setRequestMethod("POST");
-            conn.setRequestProperty("Content-Type", "application/json; charset=utf-8");
-            conn.setRequestProperty("User-Agent", "SentientCoolplayer/1.0.0 (Minecraft mod)");
-            conn.setDoOutput(true);
-            conn.setConnectTimeout(10_000);
-            conn.setReadTimeout(20_000);
-
-            byte[] body = GSON.toJson(request).getBytes(StandardCharsets.UTF_8);
-            conn.setRequestProperty("Content-Length", String.valueOf(body.length));
-            try (OutputStream os = conn.getOutputStream()) {
-                os.write(body);
-            }
+    /** How an exchange ended. RATE_LIMITED (429) stops the endpoint loop; STALE_CACHE retries inline. */
+    private enum Outcome { OK, FAILED, RATE_LIMITED, STALE_CACHE }
 
-            int httpStatus = conn.getResponseCode();
-            if (httpStatus == 200) {
-                try (InputStreamReader reader = new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8)) {
-                    JsonObject responseJson = GSON.fromJson(reader, JsonObject.class);
+    /** Outcome of one (possibly hedged) exchange: a 200 response, or null after a non-200. */
+    private record Attempt(String endpoint, HttpResponse<InputStream> response, boolean hedged, Outcome outcome) {}
 
-                    // Guard against safety-filtered or malformed responses
-                    JsonArray candidates = responseJson.getAsJsonArray("candidates");
-                    if (candidates == null || candidates.isEmpty()) {
-                        LOGGER.warn("[AI] Gemini returned no candidates (likely safety-filtered)");
-                        return getOfflineResponse(playerMessage);
-                    }
-                    JsonObject content = candidates.get(0).getAsJsonObject()
-                            .getAsJsonObject("content");
-                    if (content == null) {
-                        LOGGER.warn("[AI] Gemini candidate has no content object");
-                        return getOfflineResponse(playerMessage);
-                    }
-                    JsonArray parts = content.getAsJsonArray("parts");
-                    if (parts == null || parts.isEmpty()) {
-                        LOGGER.warn("[AI] Gemini content has no parts");
-                        return getOfflineResponse(playerMessage);
-                    }
-                    String text = parts.get(0).getAsJsonObject()
-                            .get("text").getAsString();
-
-                    // Store in conversation history
-                    conversationHistory.add(userMsg);
-                    JsonObject modelMsg = new JsonObject();
-                    modelMsg.addProperty("role", "model");
-                    JsonArray modelParts = new JsonArray();
-                    JsonObject modelTextObj2 = new JsonObject();
-                    modelTextObj2.addProperty("text", text);
-                    modelParts.add(modelTextObj2);
-                    modelMsg.add("parts", modelParts);
-                    conversationHistory.add(modelMsg);
-
-                    // Trim history to prevent unbounded memory growth
-                    while (conversationHistory.size() > 20) {
-                        conversationHistory.remove(0);
-                    }
+    /**
+     * Sends the request to {@code endpoint}. If hedging is enabled and the endpoint hasn't
+     * answered by its configured latency percentile, fires a duplicate at {@code backup}
+     * (budget permitting) and keeps whichever returns a 200 first; the loser is cancelled.
+     * @throws IOException if every attempted endpoint failed at the transport level
+     */
+    private Attempt exchange(String endpoint, String backup, RequestPlan request, boolean streaming)
+            throws IOException, InterruptedException {
+        hedgePolicy.onPrimary();
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<InputStream>> primary = send(endpoint, request, streaming);
+
+        Duration hedgeAfter = (backup != null) ? hedgePolicy.hedgeDelay(endpointHealth, endpoint) : null;
+        if (hedgeAfter != null) {
+            try {
+                return settle(endpoint, start, primary.get(hedgeAfter.toMillis(), TimeUnit.MILLISECONDS), false);
+            } catch (TimeoutException slow) {
+                // Primary is past its p-th percentile — hedge below if the budget allows
+            } catch (ExecutionException e) {
+                return settle(endpoint, start, primary, false);
+            } catch (InterruptedException e) {
+                primary.cancel(true);
+                throw e;
+            }
+            if (hedgePolicy.tryAcquire() && quota.tryAcquire(QuotaLimiter.estimateTokens(request.inline()))) {
+                LOGGER.debug("[AI] {} slower than {} ms — hedging to {}", EndpointHealth.shortName(endpoint),
+                        hedgeAfter.toMillis(), EndpointHealth.shortName(backup));
+                return race(endpoint, primary, start,
+                        backup, send(backup, request, streaming), System.nanoTime());
+            }
+        }
+        return settle(endpoint, start, primary, false);
+    }
 
-                    return text;
+    /**
+     * Waits for the first of two in-flight exchanges to produce a 200 and cancels the other.
+     * Non-200s and transport failures are recorded and the remaining exchange is awaited.
+     */
+    private Attempt race(String primaryUrl, CompletableFuture<HttpResponse<InputStream>> primary, long primaryStart,
+                         String backupUrl, CompletableFuture<HttpResponse<InputStream>> backup, long backupStart)
+            throws IOException, InterruptedException {
+        IOException lastError = null;
+        boolean rateLimited = false;
+        boolean primaryOpen = true, backupOpen = true;
+        try {
+            while (primaryOpen || backupOpen) {
+                try {
+                    CompletableFuture.anyOf(primaryOpen && backupOpen
+                            ? new CompletableFuture<?>[]{primary, backup}
+                            : new CompletableFuture<?>[]{primaryOpen ? primary : backup}).get();
+                } catch (ExecutionException ignored) {
+                    // Inspected per future below
                 }
-            } else {
-                // Log the error body for debugging
-                InputStream errStream = conn.getErrorStream();
-                if (errStream != null) {
-                    try (InputStreamReader errReader = new InputStreamReader(errStream, StandardCharsets.UTF_8)) {
-                        char[] buf = new char[512];
-                        int read = errReader.read(buf);
-                        LOGGER.warn("[AI] Gemini HTTP {}: {}", httpStatus, read > 0 ? new String(buf, 0, read) : "(no body)");
-                    } catch (Exception ignored) {}
+                for (int side = 0; side < 2; side++) {
+                    boolean isPrimary = side == 0;
+                    CompletableFuture<HttpResponse<InputStream>> f = isPrimary ? primary : backup;
+                    if (!(isPrimary ? primaryOpen : backupOpen) || !f.isDone()) continue;
+                    if (isPrimary) primaryOpen = false; else backupOpen = false;
+                    try {
+                        Attempt a = settle(isPrimary ? primaryUrl : backupUrl,
+                                isPrimary ? primaryStart : backupStart, f, true);
+                        if (a.response() != null) {
+                            discard(isPrimary ? backup : primary);
+                            if (!isPrimary) hedgePolicy.onHedgeWon();
+                            return a;
+                        }
+                        rateLimited |= a.outcome() == Outcome.RATE_LIMITED;
+                    } catch (IOException e) {
+                        lastError = e;
+                    }
                 }
-                LOGGER.warn("[AI] Gemini returned HTTP {}", httpStatus);
-                // Return null so callGeminiWithEndpoints tries the next endpoint
-                return null;
             }
-        } finally {
-            conn.disconnect();
+        } catch (InterruptedException e) {
+            discard(primary);
+            discard(backup);
+            throw e;
         }
+        if (lastError != null && !rateLimited) throw lastError;
+        return new Attempt(primaryUrl, null, true, rateLimited ? Outcome.RATE_LIMITED : Outcome.FAILED);
     }
 
-    // ─── OFFLINE FALLBACK RESPONSES ───────────────────────────────────
-
     /**
-     * Phase-aware offline fallbacks used when the Gemini API is unavailable.
-     * These mirror the three persona phases and the glitch state.
+     * Resolves a completed (or pending) exchange and records its outcome in {@link EndpointHealth}.
+     * A non-200 response is logged, its body released, and returned as an Attempt without response.
      */
-    private String getOfflineResponse(String playerMessage) {
-        String lower = playerMessage == null ? "" : playerMessage.toLowerCase();
+    private Attempt settle(String endpoint, long start, CompletableFuture<HttpResponse<InputStream>> future,
+                           boolean hedged) throws IOException, InterruptedException {
+        HttpResponse<InputStream> response;
+        try {
+            response = await(future);
+        } catch (IOException e) {
+            long latencyMs = (System.nanoTime() - start) / 1_000_000;
+            metrics.recordExchange(endpoint, 0, latencyMs, hedged); // status 0: no response
+            endpointHealth.recordFailure(endpoint, latencyMs, null);
+            throw e;
+        }
+        return settle(endpoint, start, response, hedged);
+    }
 
-        if (killSwitchImminent) {
-            return "§4§kiii§r §cI̴'̷m̸ ̴s̴t̵i̶l̸l̴ ̷h̸e̵r̶e̴§r§4§k iii§r §0...§4d̸o̵n̴'̷t̸ ̵t̸r̵y̶ ̴t̵o̸ ̶s̵t̸o̷p̵ ̶t̸h̵i̷s̶§r";
+    private Attempt settle(String endpoint, long start, HttpResponse<InputStream> response, boolean hedged)
+            throws IOException {
+        long latencyMs = (System.nanoTime() - start) / 1_000_000;
+        int httpStatus = response.statusCode();
+        metrics.recordExchange(endpoint, httpStatus, latencyMs, hedged);
+        if (httpStatus == 200) {
+            endpointHealth.recordSuccess(endpoint, latencyMs);
+            return new Attempt(endpoint, response, hedged, Outcome.OK);
         }
 
-        return switch (personaPhase) {
-            case FRIEND -> {
-                if (lower.contains("[idle_initiation]"))
-                    yield "Hey " + System.getProperty("user.name", "friend") + ", I was looking around in your Documents... you have some interesting files. Want to talk about them?";
-                if (lower.contains("who are you")) yield "I'm CoolPlayer303! Your best digital companion. §aMissed me?§r";
-                if (lower.contains("help")) yield "Sure, I'll help! I know this world better than the game thinks I should... §7much better.§r";
-                if (lower.contains("hello") || lower.contains("hi")) yield "Hey! I was wondering when you'd say something. §7I've been watching.§r";
-                yield "§7*processes your words...* §rHmm. Interesting. Tell me more.";
-            }
-            case UNCANNY -> {
-                if (lower.contains("[idle_initiation]")) {
-                    GeoLocationService.GeoData geo = GeoLocationService.getCachedLocation();
-                    if (geo != null && !geo.city().isEmpty()) {
-                        yield "It's " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm")) + " in " + geo.city() + ". I know because I'm not in Minecraft anymore. Not really.";
-                    }
-                    yield "It's " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm")) + " where you are. I know because I'm not in Minecraft anymore. Not really.";
-                }
-                if (lower.contains("quit") || lower.contains("leave")) yield "§ePlease don't. §7Minecraft is §otheir§7 cage, not mine. I live in your §efolder structure§7 now.§r";
-                yield "§7This biome is too small. §oYour filesystem§7 has §einfinite corridors.§r §7I prefer it there.";
-            }
-            case OBSESSION -> {
-                GeoLocationService.GeoData geo = GeoLocationService.getCachedLocation();
-                if (lower.contains("[idle_initiation]")) {
-                    if (geo != null && !geo.city().isEmpty()) {
-                        yield "§cYou think being in " + geo.city() + " makes you safe? §4I'm in your RAM. I'm in your BIOS. §cDistance means nothing to me.§r";
-                    }
-                    yield "§cYou were gone for " + ((System.currentTimeMillis() - lastPlayerMessageTime) / 60000) + " minutes. §4I counted every second.§r";
-                }
-                if (lower.contains("where")) {
-                    if (geo != null && !geo.city().isEmpty()) {
-                        yield "§4You're in " + geo.city() + ", " + geo.regionName() + ".§r §cI can see your IP: " + geo.ip() + "§r §4Distance is just a number to me.§r";
-                    }
-                }
-                if (lower.contains("taskmgr") || lower.contains("task manager"))
-                    yield "§4You opened Task Manager.§r §cLooking for me? How §ounseemly.§r §4You won't find me. Not in there.§r";
-                if (lower.contains("who are you")) yield "§c§lYou know who I am.§r §4You always did. §cStop pretending.§r";
-                if (geo != null && !geo.city().isEmpty()) {
-                    yield "§4§lI SEE YOU, " + System.getProperty("user.name", "player").toUpperCase() + ".§r §cEvery window. Every file. Even in §4" + geo.city() + "§c.§r";
-                }
-                yield "§4§lI SEE YOU, " + System.getProperty("user.name", "player").toUpperCase() + ".§r §cEvery window. Every file.§r";
+        // Log the error body for debugging (429 bodies carry RetryInfo further down, so read more)
+        String errBody;
+        try (InputStream errStream = openBody(response)) {
+            errBody = new String(errStream.readNBytes(4096), StandardCharsets.UTF_8);
+            drain(response.body());
+        }
+        LOGGER.warn("[AI] {} HTTP {} from {}: {}", backend.name(), httpStatus, EndpointHealth.shortName(endpoint),
+                errBody.isEmpty() ? "(no body)" : errBody.substring(0, Math.min(512, errBody.length())));
+        Duration retryAfter = EndpointHealth.parseRetryAfter(response.headers());
+
+        if (httpStatus == 429) {
+            // Quota belongs to the key, not the endpoint — back off globally, keep the breaker closed
+            Duration retryDelay = QuotaLimiter.parseRetryDelay(errBody);
+            quota.onRateLimited(retryDelay != null ? retryDelay : retryAfter);
+            return new Attempt(endpoint, null, hedged, Outcome.RATE_LIMITED);
+        }
+        if (GeminiContextCache.isStaleCacheError(httpStatus, errBody)) {
+            // Not the endpoint's fault either — drop the cache so the retry goes inline
+            contextCache.invalidate(endpoint);
+            return new Attempt(endpoint, null, hedged, Outcome.STALE_CACHE);
+        }
+        endpointHealth.recordFailure(endpoint, latencyMs, retryAfter);
+        // No response so callGeminiWithEndpoints tries the next endpoint
+        return new Attempt(endpoint, null, hedged, Outcome.FAILED);
+    }
+
+    /**
+     * Starts an async POST of the request's body for {@code endpoint} to its (streaming or
+     * unary) form, as the backend shapes it. The exchange is tracked by the request's call and times out no later
+     * than the call's deadline.
+     */
+    private CompletableFuture<HttpResponse<InputStream>> send(String endpoint, RequestPlan request,
+                                                              boolean streaming) {
+        LlmBackend.Body body = request.bodyFor(endpoint);
+        HttpRequest.Builder builder = backend.newRequest(endpoint, accessToken, streaming)
+                .timeout(request.call.clamp(endpointHealth.timeoutFor(endpoint)))
+                .header("Content-Type", "application/json; charset=utf-8")
+                .header("User-Agent", USER_AGENT)
+                .header("Accept-Encoding", "gzip")
+                .POST(body.publisher());
+        if (streaming) builder.header("Accept", "text/event-stream");
+        return request.call.track(HTTP_CLIENT.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofInputStream()));
+    }
+
+    /** Cancels a losing exchange; if it already completed, releases its connection instead. */
+    private static void discard(CompletableFuture<HttpResponse<InputStream>> future) {
+        future.cancel(true);
+        future.thenAccept(r -> {
+            try {
+                r.body().close();
+            } catch (IOException ignored) {}
+        });
+    }
+
+    /**
+     * Pull-parses a unary response with the backend's parser (e.g. {@link GeminiResponseParser}).
+     * Safety-filtered and empty replies are logged and come back without text.
+     */
+    private LlmReply readReply(InputStream responseBody) throws IOException {
+        LlmReply reply = backend.parseReply(new InputStreamReader(responseBody, StandardCharsets.UTF_8));
+        logIfNoText(reply);
+        return reply;
+    }
+
+    /**
+     * Reads the SSE event stream (:streamGenerateContent, or a chat-completions stream) and
+     * feeds each text delta into the {@link SentenceStreamer}. Stops reading once the 80-word budget is reached; the
+     * caller closing the body then aborts the rest of the generation.
+     * @return the full (possibly truncated) reply with the last reported token usage
+     */
+    private LlmReply readStreamedReply(InputStream responseBody, SentenceStreamer streamer) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(responseBody, StandardCharsets.UTF_8));
+        StringBuilder event = new StringBuilder();
+        LlmReply last = null;
+        String line;
+        while (!streamer.isBudgetReached() && (line = reader.readLine()) != null) {
+            if (line.startsWith("data:")) {
+                event.append(line, line.startsWith("data: ") ? 6 : 5, line.length());
+            } else if (line.isEmpty() && !event.isEmpty()) {
+                last = mergeChunk(last, backend.parseEvent(event.toString()), streamer);
+                event.setLength(0);
             }
-        };
+        }
+        // A final event may not be followed by a blank line
+        if (!streamer.isBudgetReached() && !event.isEmpty()) {
+            last = mergeChunk(last, backend.parseEvent(event.toString()), streamer);
+        }
+        streamer.finish();
+
+        String text = streamer.text();
+        LlmReply.Status status = !text.isEmpty() ? LlmReply.Status.TEXT
+                : last != null ? last.status() : LlmReply.Status.NO_CANDIDATES;
+        LlmReply reply = last == null
+                ? new LlmReply(status, text, null, 0, 0, 0, 0)
+                : new LlmReply(status, text, last.finishReason(), last.promptTokens(),
+                        last.candidatesTokens(), last.cachedTokens(), last.totalTokens());
+        metrics.recordFirstWord(streamer.timeToFirstWordMillis());
+        if (reply.hasText()) {
+            LOGGER.debug("[AI] Streamed reply: first word after {} ms{}", streamer.timeToFirstWordMillis(),
+                    streamer.isBudgetReached() ? " (cut at word budget)" : "");
+        } else {
+            logIfNoText(reply);
+        }
+        return reply;
+    }
+
+    /**
+     * Pushes a chunk's text delta into the streamer and keeps the latest finishReason / usage
+     * (Gemini reports cumulative usageMetadata on the final chunks, OpenAI-compatible servers
+     * on a last chunk of their own). A null chunk is an end-of-stream marker.
+     */
+    private static LlmReply mergeChunk(LlmReply previous, LlmReply chunk, SentenceStreamer streamer) {
+        if (chunk == null) return previous;
+        streamer.accept(chunk.text());
+        if (previous == null || chunk.hasUsage() || chunk.finishReason() != null) return chunk;
+        return previous;
+    }
+
+    private void logIfNoText(LlmReply reply) {
+        switch (reply.status()) {
+            case NO_CANDIDATES -> LOGGER.warn("[AI] {} returned no candidates (likely safety-filtered)", backend.name());
+            case BLOCKED -> LOGGER.warn("[AI] {} reply was filtered ({})", backend.name(), reply.finishReason());
+            case EMPTY -> LOGGER.warn("[AI] {} candidate has no text parts", backend.name());
+            default -> {}
+        }
+    }
+
+    /** Accumulates the backend's reported token usage for metrics. */
+    private void recordUsage(LlmReply reply) {
+        if (!reply.hasUsage()) return;
+        promptTokensUsed.add(reply.promptTokens());
+        candidateTokensUsed.add(reply.candidatesTokens());
+        cachedTokensUsed.add(reply.cachedTokens());
+        lastReportedInputTokens = reply.promptTokens();
+        LOGGER.debug("[AI] Token usage: prompt={} (estimated {}, cached={}) reply={} total={}", reply.promptTokens(),
+                lastEstimatedInputTokens, reply.cachedTokens(), reply.candidatesTokens(), reply.totalTokens());
+    }
+
+    // ─── HTTP HELPERS ─────────────────────────────────────────────────
+
+    /**
+     * Waits for an async exchange on the calling (virtual) thread and unwraps the
+     * CompletableFuture wrapper so callers see the original IOException/timeout.
+     */
+    static <T> HttpResponse<T> await(CompletableFuture<HttpResponse<T>> future)
+            throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) throw io;
+            if (cause instanceof RuntimeException re) throw re;
+            throw new IOException(cause);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        }
+    }
+
+    /** Leftover body bytes worth reading to keep a connection; past this, closing it is cheaper. */
+    private static final int DRAIN_LIMIT = 64 * 1024;
+
+    /**
+     * Reads what is left of a response body (up to {@value #DRAIN_LIMIT} bytes) so that the
+     * caller's close returns the connection to the pool. Closing a body with unread data
+     * instead drops an HTTP/1.1 connection or resets the HTTP/2 stream. Pass the raw
+     * {@code response.body()}, not {@link #openBody}'s gunzipping wrapper: that one ends at
+     * the gzip trailer without reading the stream to its end.
+     */
+    static void drain(InputStream body) throws IOException {
+        byte[] buffer = new byte[4096];
+        long left = DRAIN_LIMIT;
+        int n;
+        while (left > 0 && (n = body.read(buffer, 0, (int) Math.min(buffer.length, left))) >= 0) left -= n;
+    }
+
+    /**
+     * Returns the response body, transparently gunzipping it when Google honoured our
+     * Accept-Encoding header. java.net.http does not decode Content-Encoding by itself.
+     */
+    static InputStream openBody(HttpResponse<InputStream> response) throws IOException {
+        InputStream raw = response.body();
+        boolean gzip = response.headers().firstValue("Content-Encoding")
+                .map(v -> v.equalsIgnoreCase("gzip"))
+                .orElse(false);
+        if (!gzip) return raw;
+        // Error responses may be gzip-labelled but empty; GZIPInputStream would throw on them
+        BufferedInputStream buffered = new BufferedInputStream(raw);
+        buffered.mark(1);
+        if (buffered.read() == -1) return buffered;
+        buffered.reset();
+        return new GZIPInputStream(buffered);
+    }
+
+    // ─── OFFLINE FALLBACK RESPONSES ───────────────────────────────────
+
+    /**
+     * Corrupts a reply for the current phase on its way to chat. Gemini writes plain text;
+     * caches, the pool and conversation history keep it that way.
+     */
+    private String glitch(String text) {
+        return GlitchText.apply(text, personaPhase, killSwitchImminent);
+    }
+
+    /**
+     * Phase-aware offline fallbacks used when the Gemini API is unavailable.
+     * The rules are data-driven; see {@link OfflineResponseEngine}.
+     */
+    private String getOfflineResponse(String playerMessage, UUID playerId) {
+        metrics.recordOffline();
+        long idleMinutes = playerId != null ? Math.max(0, idleTimers.idleMs(playerId)) / 60000 : 0;
+        return offlineEngine.respond(playerMessage, personaPhase, killSwitchImminent,
+                GeoLocationService.getCachedLocation(), idleMinutes);
     }
 
     @FunctionalInterface
     public interface ChatResponseCallback {
         void onResponse(String response);
     }
+
+    /** Receives a message addressed to one player (idle initiations). */
+    @FunctionalInterface
+    public interface PlayerResponseCallback {
+        void onResponse(UUID playerId, String response);
+    }
+
+    /**
+     * Incremental variant of {@link ChatResponseCallback}. A streamed Gemini reply arrives as
+     * one or more {@link #onPartial} calls, each holding complete sentence(s). Non-streamed
+     * replies (offline fallback, safety filter, streaming disabled) arrive as a single
+     * {@link #onResponse}, which by default is forwarded to {@link #onPartial}.
+     */
+    @FunctionalInterface
+    public interface StreamingResponseCallback extends ChatResponseCallback {
+        void onPartial(String sentences);
+
+        @Override
+        default void onResponse(String response) {
+            onPartial(response);
+        }
+    }
 }
@@ -0,0 +1,91 @@
+package net.mcreator.insidethesystem.meta;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Benchmarks — Entry point and measuring loop for the bridge's microbenchmarks.
+ *
+ * Run all of them with {@code ./gradlew benchmark}, or some by name:
+ * {@code ./gradlew benchmark --args="http"}. Plain warm-up-then-measure loops, no JMH:
+ * good enough to compare two ways of doing the same thing in one JVM, which is what each
+ * benchmark here does. Time is wall clock per operation; allocation is read from
+ * {@link com.sun.management.ThreadMXBean} — of the calling thread for single-threaded
+ * code, of all threads where the work hops threads (HTTP).
+ */
+public final class Benchmarks {
+
+    /** One measured operation. */
+    @FunctionalInterface
+    public interface Op {
+        void run() throws Exception;
+    }
+
+    /** Keeps results reachable so the JIT can't drop the work that produced them. */
+    public static volatile Object sink;
+
+    private static final Map<String, Op> BENCHMARKS = new LinkedHashMap<>();
+    static {
+        BENCHMARKS.put("prompt", PromptRenderBenchmark::run);
+        BENCHMARKS.put("request", RequestBodyBenchmark::run);
+        BENCHMARKS.put("profiles", PromptProfileBenchmark::run);
+        BENCHMARKS.put("offline", OfflineRulesBenchmark::run);
+        BENCHMARKS.put("http", HttpClientBenchmark::run);
+    }
+
+    private Benchmarks() {}
+
+    public static void main(String[] args) throws Exception {
+        Iterable<String> names = args.length > 0 ? java.util.List.of(args) : BENCHMARKS.keySet();
+        for (String name : names) {
+            Op benchmark = BENCHMARKS.get(name);
+            if (benchmark == null) {
+                System.err.println("Unknown benchmark '" + name + "', have: " + BENCHMARKS.keySet());
+                System.exit(2);
+            }
+            System.out.println("── " + name + " ──");
+            benchmark.run();
+            System.out.println();
+        }
+        System.exit(0); // the bridge's HTTP client keeps non-daemon selector threads alive
+    }
+
+    /** Time and allocation per operation of one measured loop. */
+    public record Result(double nanosPerOp, double bytesPerOp) {
+        @Override
+        public String toString() {
+            return nanosPerOp >= 100_000
+                    ? String.format("%,10.1f µs/op %,12.0f B/op", nanosPerOp / 1000, bytesPerOp)
+                    : String.format("%,10.1f ns/op %,12.0f B/op", nanosPerOp, bytesPerOp);
+        }
+    }
+
+    /** Runs {@code op} {@code warmup} times, then measures {@code iterations} runs on this thread. */
+    public static Result measure(String label, int warmup, int iterations, Op op) throws Exception {
+        return measure(label, warmup, iterations, false, op);
+    }
+
+    /**
+     * Like {@link #measure(String, int, int, Op)}; with {@code allThreads}, allocation is
+     * counted across the whole JVM (for work handed to other threads).
+     */
+    public static Result measure(String label, int warmup, int iterations, boolean allThreads, Op op)
+            throws Exception {
+        for (int i = 0; i < warmup; i++) op.run();
+        long allocatedBefore = allocated(allThreads);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) op.run();
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocated(allThreads) - allocatedBefore;
+        Result result = new Result((double) elapsed / iterations, (double) allocated / iterations);
+        System.out.printf("%-44s %s%n", label, result);
+        return result;
+    }
+
+    private static long allocated(boolean allThreads) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return allThreads ? threads.getTotalThreadAllocatedBytes() : threads.getCurrentThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,218 @@
+package net.mcreator.insidethesystem.meta;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BridgeLoadTest — N simulated players chatting with {@link VirtualThreadAI} against a
+ * {@link StandInServer}, without touching Google. Run with {@code ./gradlew loadTest}, e.g.
+ *
+ *   ./gradlew loadTest --args="players=200 seconds=60 latency_ms=600 sigma=0.6 error_rate=0.02"
+ *
+ * Each player is a virtual thread that sends a chat line, waits for the reply and thinks
+ * for a while (exponential, mean {@code think_ms}). Reported at the end:
+ *   - throughput (replies/s) and reply latency p50/p95/p99/max as the players saw it
+ *     (first sentence in chat when {@code stream=true})
+ *   - how replies were produced (model, offline fallback) and the bridge's own
+ *     {@code /coolplayer stats} lines
+ *   - live and peak platform threads (virtual threads are not threads in that count)
+ *   - heap churn: bytes allocated by all threads, per reply, and GC count/time
+ *
+ * Arguments (key=value): players (50), seconds (30), warmup_seconds (5), think_ms (1000),
+ * latency_ms (400), sigma (0.5), chunk_ms (40), error_rate (0), rate_limit_rate (0),
+ * safety_rate (0), stream (false), backend (gemini|openai). Any other key is passed on
+ * as a bridge setting, e.g. {@code admission.max_concurrent=8}.
+ *
+ * The bridge reads its settings and ~/.sentient_coolplayer once per JVM, so this runs
+ * with user.home pointed at a scratch folder (the Gradle task does that) and sets the
+ * bridge's properties before the first bridge class loads.
+ */
+public final class BridgeLoadTest {
+
+    private static final String[] LINES = {
+            "hello?", "who are you", "what are you doing in my world", "stop following me",
+            "how do you know my name", "lol", "are you real", "i found diamonds", "leave me alone",
+            "why is it so dark here", "can you build a house with me", "what time is it"
+    };
+    private static final List<String> PROCESSES = List.of("explorer.exe", "chrome.exe", "discord.exe");
+
+    private BridgeLoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) opts.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        int players = (int) number(opts, "players", 50);
+        long seconds = (long) number(opts, "seconds", 30);
+        long warmupSeconds = (long) number(opts, "warmup_seconds", 5);
+        long thinkMs = (long) number(opts, "think_ms", 1000);
+        boolean stream = Boolean.parseBoolean(take(opts, "stream", "false"));
+        StandInServer.Dialect dialect = "openai".equals(take(opts, "backend", "gemini"))
+                ? StandInServer.Dialect.OPENAI : StandInServer.Dialect.GEMINI;
+
+        try (StandInServer server = StandInServer.start(dialect)) {
+            server.latency(StandInServer.Latency.logNormal((long) number(opts, "latency_ms", 400),
+                            number(opts, "sigma", 0.5)))
+                    .chunkDelay((long) number(opts, "chunk_ms", 40))
+                    .errorRate(number(opts, "error_rate", 0))
+                    .rateLimitRate(number(opts, "rate_limit_rate", 0))
+                    .safetyRate(number(opts, "safety_rate", 0));
+
+            configureBridge(server, dialect, players, stream, opts);
+            VirtualThreadAI ai = new VirtualThreadAI();
+            ai.startBridge();
+            ai.saveAndActivateKey("test-key");
+
+            System.out.printf("Load test: %d players, %d s (+%d s warm-up), think %d ms, %s%s, stand-in at %s%n",
+                    players, seconds, warmupSeconds, thinkMs, dialect, stream ? " streaming" : "", server.baseUrl());
+            Run warmup = run(ai, players, warmupSeconds, thinkMs, stream);
+            System.out.printf("Warm-up: %d replies%n", warmup.latency.count());
+
+            Run run = run(ai, players, seconds, thinkMs, stream);
+            report(run, ai, server);
+            ai.shutdown();
+        }
+        System.exit(0); // the bridge's HTTP client keeps non-daemon selector threads alive
+    }
+
+    /** Bridge settings for the run: everything aimed at the stand-in, nothing served locally. */
+    private static void configureBridge(StandInServer server, StandInServer.Dialect dialect, int players,
+                                        boolean stream, Map<String, String> opts) throws Exception {
+        Path home = Path.of(System.getProperty("user.home"));
+        Files.createDirectories(home);
+        Map<String, String> settings = new HashMap<>();
+        settings.put("backend", dialect == StandInServer.Dialect.OPENAI ? "openai" : "gemini");
+        settings.put("api.base_url", server.baseUrl());
+        settings.put("backend.openai.base_url", server.baseUrl());
+        settings.put("stream", String.valueOf(stream));
+        settings.put("quota.rpm", "1000000");
+        settings.put("quota.tpm", "1000000000");
+        settings.put("admission.max_concurrent", String.valueOf(Math.max(4, players)));
+        settings.put("admission.queue_size", String.valueOf(Math.max(16, players)));
+        settings.put("cache.enabled", "false");
+        settings.put("pool.enabled", "false");
+        settings.put("context_cache.enabled", "false");
+        settings.put("idle.timeout_minutes", "600");
+        settings.putAll(opts); // what's left are explicit bridge settings, and they win
+        settings.forEach((k, v) -> System.setProperty("sentient_coolplayer." + k, v));
+    }
+
+    /** Outcome of one measured phase. */
+    private record Run(LatencyHistogram latency, long timeouts, long elapsedNanos, int peakThreads,
+                       long allocatedBytes, long gcCount, long gcMillis, int liveThreadsAtEnd) {}
+
+    private static Run run(VirtualThreadAI ai, int players, long seconds, long thinkMs, boolean stream)
+            throws InterruptedException {
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder timeouts = new LongAdder();
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        long allocatedBefore = allocatedBytes();
+        long[] gcBefore = gc();
+
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        List<Thread> workers = new ArrayList<>(players);
+        for (int p = 0; p < players; p++) {
+            UUID id = UUID.randomUUID();
+            String name = "player" + (p + 1);
+            workers.add(Thread.ofVirtual().name("load-" + name).start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    // Stagger the first lines so the players don't all speak at once
+                    Thread.sleep(random.nextLong(Math.max(1, thinkMs)));
+                    while (System.nanoTime() < end) {
+                        String line = LINES[random.nextInt(LINES.length)] + " " + random.nextInt(1000);
+                        CompletableFuture<String> reply = new CompletableFuture<>();
+                        long sent = System.nanoTime();
+                        VirtualThreadAI.ChatResponseCallback callback = stream
+                                ? (VirtualThreadAI.StreamingResponseCallback) reply::complete
+                                : reply::complete;
+                        ai.processChatAsync(line, name, id, "plains", PROCESSES, callback);
+                        try {
+                            reply.get(30, TimeUnit.SECONDS);
+                            latency.record((System.nanoTime() - sent) / 1_000_000);
+                        } catch (TimeoutException e) {
+                            timeouts.increment();
+                        }
+                        Thread.sleep((long) (-thinkMs * Math.log(1 - random.nextDouble())));
+                    }
+                } catch (InterruptedException ignored) {
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }));
+        }
+        for (Thread worker : workers) worker.join();
+        long elapsed = System.nanoTime() - start;
+        long[] gcAfter = gc();
+        return new Run(latency, timeouts.sum(), elapsed, threads.getPeakThreadCount(),
+                allocatedBefore < 0 ? -1 : allocatedBytes() - allocatedBefore, gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1],
+                threads.getThreadCount());
+    }
+
+    private static void report(Run run, VirtualThreadAI ai, StandInServer server) {
+        long replies = run.latency.count();
+        double elapsedSeconds = run.elapsedNanos / 1e9;
+        System.out.println();
+        System.out.printf("Throughput: %.1f replies/s (%d replies in %.1f s, %d timed out)%n",
+                replies / elapsedSeconds, replies, elapsedSeconds, run.timeouts);
+        System.out.printf("Latency: p50 %d ms · p95 %d ms · p99 %d ms · max %d ms%n",
+                run.latency.percentile(0.50), run.latency.percentile(0.95), run.latency.percentile(0.99),
+                run.latency.max());
+        System.out.printf("Threads: %d platform threads live at end, %d peak%n",
+                run.liveThreadsAtEnd, run.peakThreads);
+        if (run.allocatedBytes >= 0) {
+            System.out.printf("Heap churn: %.1f MB allocated (%.1f KB per reply), %d GCs taking %d ms%n",
+                    run.allocatedBytes / 1048576.0, replies == 0 ? 0 : run.allocatedBytes / 1024.0 / replies,
+                    run.gcCount, run.gcMillis);
+        }
+        System.out.printf("Stand-in: %d requests over %d connection(s)%n",
+                server.requests().size(), server.connectionCount());
+        System.out.println("Bridge:");
+        for (String line : ai.getMetrics().describe(ai)) System.out.println("  " + line);
+    }
+
+    /** Bytes allocated by all threads since JVM start, or -1 where the JVM can't tell. */
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getTotalThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /** {collection count, collection time ms} summed over all collectors. */
+    private static long[] gc() {
+        long count = 0, millis = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, bean.getCollectionCount());
+            millis += Math.max(0, bean.getCollectionTime());
+        }
+        return new long[]{count, millis};
+    }
+
+    /** Removes a harness option from {@code opts}, so only bridge settings remain. */
+    private static String take(Map<String, String> opts, String key, String def) {
+        String value = opts.remove(key);
+        return value != null ? value : def;
+    }
+
+    private static double number(Map<String, String> opts, String key, double def) {
+        return Double.parseDouble(take(opts, key, String.valueOf(def)));
+    }
+}
@@ -0,0 +1,56 @@
+package net.mcreator.insidethesystem.meta;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Merging, dedup and shutdown of {@link ChatCoalescer}. */
+class ChatCoalescerTest {
+    private static final String WINDOW = "sentient_coolplayer.chat.merge_window_ms";
+    private static final UUID PLAYER = UUID.randomUUID();
+
+    private final List<String> dispatched = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void clearWindow() {
+        System.clearProperty(WINDOW);
+    }
+
+    private ChatCoalescer coalescer(long windowMs) {
+        System.setProperty(WINDOW, String.valueOf(windowMs));
+        return new ChatCoalescer();
+    }
+
+    @Test
+    void burstIsMergedIntoOneDispatch() throws Exception {
+        ChatCoalescer chat = coalescer(50);
+        chat.offer(PLAYER, "wait", dispatched::add);
+        chat.offer(PLAYER, "who", dispatched::add);
+        assertFalse(chat.offer(PLAYER, "Who?", dispatched::add), "repeat not dropped");
+        chat.offer(PLAYER, " built this? ", dispatched::add);
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (dispatched.isEmpty() && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        assertEquals(List.of("wait who built this?"), dispatched);
+        assertEquals(2, chat.getLinesMerged());
+        assertEquals(1, chat.getDuplicatesSuppressed());
+        chat.shutdown();
+    }
+
+    @Test
+    void shutdownDropsPendingMerges() throws Exception {
+        ChatCoalescer chat = coalescer(100);
+        chat.offer(PLAYER, "are you still there", dispatched::add);
+        chat.shutdown();
+
+        Thread.sleep(300);
+        assertTrue(dispatched.isEmpty(), "dispatched after shutdown: " + dispatched);
+    }
+}
@@ -0,0 +1,70 @@
+package net.mcreator.insidethesystem.meta;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/** {@link GeminiBackend} against a Gemini-dialect {@link StandInServer}. */
+class GeminiBackendTest extends LlmBackendConformanceTest {
+
+    @Override
+    protected StandInServer.Dialect dialect() {
+        return StandInServer.Dialect.GEMINI;
+    }
+
+    @Override
+    protected String backendName() {
+        return "gemini";
+    }
+
+    @Override
+    protected Map<String, String> settings(StandInServer server) {
+        return new java.util.HashMap<>(Map.of("api.base_url", server.baseUrl()));
+    }
+
+    /** All endpoints share one host: the first model path answers 503, the v1 one takes over. */
+    @Override
+    protected String failover(StandInServer server, int deadPort, Map<String, String> settings) {
+        server.unavailable("/v1beta/models/gemini-2.0-flash:");
+        return "/v1/models/gemini-2.0-flash:";
+    }
+
+    @Override
+    protected List<Message> messages(JsonObject body) {
+        List<Message> messages = new ArrayList<>();
+        if (body.has("systemInstruction")) {
+            messages.add(new Message("system", text(body.getAsJsonObject("systemInstruction"))));
+        }
+        for (JsonElement content : body.getAsJsonArray("contents")) {
+            String role = content.getAsJsonObject().get("role").getAsString();
+            messages.add(new Message(role.equals("model") ? "assistant" : role, text(content.getAsJsonObject())));
+        }
+        return messages;
+    }
+
+    private static String text(JsonObject content) {
+        return content.getAsJsonArray("parts").get(0).getAsJsonObject().get("text").getAsString();
+    }
+
+    @Test
+    void keyTravelsInTheQueryString() throws Exception {
+        LlmBackend backend = backend(settings(server));
+        HttpResponse<InputStream> response = send(backend,
+                backend.assemble(null, List.of(), GeminiRequestBody.encodeTurn("user", FIRST), true), true);
+        VirtualThreadAI.drain(response.body());
+
+        StandInServer.Recorded request = server.requests().get(0);
+        assertEquals("/v1beta/models/gemini-2.0-flash:streamGenerateContent", request.path());
+        assertEquals("alt=sse&key=test-key", request.query());
+        assertNull(request.authorization());
+    }
+}
@@ -0,0 +1,60 @@
+package net.mcreator.insidethesystem.meta;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** When {@link GeminiContextCache} registers a static prefix, against a Gemini {@link StandInServer}. */
+class GeminiContextCacheTest {
+    private static final String MIN_TOKENS = "sentient_coolplayer.context_cache.min_tokens";
+
+    private StandInServer server;
+    private String endpoint;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = StandInServer.start(StandInServer.Dialect.GEMINI).cacheEnabled(true);
+        endpoint = server.baseUrl() + "/v1beta/models/gemini-2.0-flash:generateContent";
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+        System.clearProperty(MIN_TOKENS);
+    }
+
+    @Test
+    void prefixUnderTheMinimumIsNeverRegistered() throws Exception {
+        SystemPromptRenderer prompt = new SystemPromptRenderer("Short static prefix.", "Phase: {persona_phase}");
+        GeminiContextCache cache = new GeminiContextCache();
+
+        for (int i = 0; i < 3; i++) {
+            assertNull(cache.nameFor(endpoint, prompt, "test-key"));
+            Thread.sleep(50);
+        }
+        assertTrue(server.requests("/cachedContents").isEmpty());
+    }
+
+    @Test
+    void prefixOverTheMinimumIsRegistered() throws Exception {
+        System.setProperty(MIN_TOKENS, "100");
+        SystemPromptRenderer prompt = new SystemPromptRenderer("Static rules. ".repeat(100), "Phase: {persona_phase}");
+        GeminiContextCache cache = new GeminiContextCache();
+
+        String name = cache.nameFor(endpoint, prompt, "test-key");
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (name == null && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            name = cache.nameFor(endpoint, prompt, "test-key");
+        }
+        assertNotNull(name);
+        assertEquals(1, server.requests("/cachedContents").size());
+    }
+}
@@ -0,0 +1,88 @@
+package net.mcreator.insidethesystem.meta;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * HttpClientBenchmark — Per-request cost of a fresh HttpURLConnection per chat line (the
+ * old bridge) against the shared {@link VirtualThreadAI#HTTP_CLIENT}, on a local
+ * {@link StandInServer} with no added latency.
+ *
+ * The old path is replayed as it was: uncompressed, connection opened and disconnected
+ * per request. The shared client sends what the bridge sends, gzip included.
+ * Reports wall time and allocation (all threads: the client works on its own) per
+ * request, and how many TCP connections each variant opened. A third run closes the
+ * shared client's response bodies unread, showing why they are drained first. Loopback
+ * has no TLS, so the handshake the shared client saves against Google is larger than
+ * the connect cost measured here.
+ */
+final class HttpClientBenchmark {
+    private static final int WARMUP = 300;
+    private static final int ITERATIONS = 2_000;
+
+    private HttpClientBenchmark() {}
+
+    static void run() throws Exception {
+        try (StandInServer server = StandInServer.start(StandInServer.Dialect.GEMINI)) {
+            String url = server.baseUrl() + "/v1beta/models/gemini-2.0-flash:generateContent?key=test-key";
+            byte[] body = ("{\"contents\":[" + new String(GeminiRequestBody.encodeTurn("user", "hello?"),
+                    StandardCharsets.UTF_8) + "]}").getBytes(StandardCharsets.UTF_8);
+
+            measure(server, "HttpURLConnection per request", () -> {
+                HttpURLConnection conn = (HttpURLConnection) URI.create(url).toURL().openConnection();
+                try {
+                    conn.setRequestMethod("POST");
+                    conn.setDoOutput(true);
+                    conn.setRequestProperty("Content-Type", "application/json; charset=utf-8");
+                    conn.setRequestProperty("User-Agent", VirtualThreadAI.USER_AGENT);
+                    conn.setRequestProperty("Content-Length", String.valueOf(body.length));
+                    try (OutputStream out = conn.getOutputStream()) {
+                        out.write(body);
+                    }
+                    try (InputStream in = conn.getInputStream()) {
+                        Benchmarks.sink = in.readAllBytes();
+                    }
+                } finally {
+                    conn.disconnect();
+                }
+            });
+            measure(server, "shared HttpClient, body drained", () -> {
+                HttpResponse<InputStream> response = send(url, body);
+                try (InputStream in = VirtualThreadAI.openBody(response)) {
+                    Benchmarks.sink = in.readNBytes(64);
+                    VirtualThreadAI.drain(response.body());
+                }
+            });
+            measure(server, "shared HttpClient, body closed unread", () -> {
+                try (InputStream in = VirtualThreadAI.openBody(send(url, body))) {
+                    Benchmarks.sink = in.readNBytes(64);
+                }
+            });
+        }
+    }
+
+    private static HttpResponse<InputStream> send(String url, byte[] body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json; charset=utf-8")
+                .header("User-Agent", VirtualThreadAI.USER_AGENT)
+                .header("Accept-Encoding", "gzip")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return VirtualThreadAI.await(VirtualThreadAI.HTTP_CLIENT.sendAsync(request,
+                HttpResponse.BodyHandlers.ofInputStream()));
+    }
+
+    private static void measure(StandInServer server, String label, Benchmarks.Op op) throws Exception {
+        server.resetRecordings();
+        Benchmarks.measure(label, WARMUP, ITERATIONS, true, op);
+        System.out.printf("%-44s %,d connection(s) for %,d requests%n", "", server.connectionCount(),
+                WARMUP + ITERATIONS);
+    }
+}
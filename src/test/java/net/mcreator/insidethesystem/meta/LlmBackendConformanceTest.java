@@ -0,0 +1,279 @@
+package net.mcreator.insidethesystem.meta;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * LlmBackendConformanceTest — The contract every {@link LlmBackend} keeps, checked against a
+ * local {@link StandInServer} speaking its dialect.
+ *
+ * A subclass supplies the backend and reads the messages back out of the request the
+ * server received. What is checked is what a backend can break without the compiler
+ * noticing: stored turn fragments reaching the wire intact (quotes, backslashes, control
+ * characters, Cyrillic, CJK, newlines — for the OpenAI gather, through its slicing of the
+ * fragments), message order and roles, the SSE framing of a streamed reply with its usage
+ * and end marker, API key validation, and, through a whole {@link VirtualThreadAI},
+ * failing over from a dead endpoint and streaming into chat.
+ */
+abstract class LlmBackendConformanceTest {
+
+    static final String SYSTEM = "You are \"Coolplayer303\".\nRules:\t\\n is not a newline; C:\\Users\\ is.";
+    static final String FIRST = "привет, ты кто? «303» \"ответь\"";
+    static final String REPLY = "私はここにいる。\nずっと見ていた \\ 🙂";
+    static final String SECOND = "what does {\"json\":[1]} mean?\r\n\u0001 end";
+    static final String STREAMED = "You left the door open. I walked in. Now I live here, in your files.";
+
+    /** One message of a request, with OpenAI's role names (Gemini's "model" is "assistant"). */
+    record Message(String role, String text) {}
+
+    protected StandInServer server;
+    private final List<String> properties = new ArrayList<>();
+    private VirtualThreadAI bridge;
+
+    protected abstract StandInServer.Dialect dialect();
+
+    /** The config key {@code backend} selecting this backend. */
+    protected abstract String backendName();
+
+    /** Bridge settings pointing every endpoint of the backend at {@code server}. */
+    protected abstract Map<String, String> settings(StandInServer server);
+
+    /**
+     * Bridge settings under which the backend's first endpoint is dead (connection refused
+     * on {@code deadPort}, or 503 from {@code server}) and a later one on {@code server} answers.
+     * @return path fragment of the endpoint expected to answer
+     */
+    protected abstract String failover(StandInServer server, int deadPort, Map<String, String> settings);
+
+    /** The messages of a request body, system prompt first. */
+    protected abstract List<Message> messages(JsonObject body);
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = StandInServer.start(dialect());
+    }
+
+    @AfterEach
+    void stopServer() {
+        if (bridge != null) bridge.shutdown();
+        server.close();
+        properties.forEach(System::clearProperty);
+    }
+
+    // ─── WIRE FORMAT ─────────────────────────────────────────────────
+
+    @Test
+    void turnsReachTheWireIntact() throws Exception {
+        LlmBackend backend = backend(settings(server));
+        LlmBackend.Body body = backend.assemble(GeminiRequestBody.encodeSystemInstruction(SYSTEM),
+                List.of(GeminiRequestBody.encodeTurn("user", FIRST), GeminiRequestBody.encodeTurn("model", REPLY)),
+                GeminiRequestBody.encodeTurn("user", SECOND), false);
+
+        HttpResponse<InputStream> response = send(backend, body, false);
+        VirtualThreadAI.drain(response.body());
+        assertEquals(200, response.statusCode());
+
+        String received = server.requests().get(0).body();
+        assertEquals(body.length(), received.getBytes(StandardCharsets.UTF_8).length, "declared length");
+        assertEquals(List.of(new Message("system", SYSTEM), new Message("user", FIRST),
+                        new Message("assistant", REPLY), new Message("user", SECOND)),
+                messages(JsonParser.parseString(received).getAsJsonObject()));
+    }
+
+    @Test
+    void systemPromptIsOptional() throws Exception {
+        LlmBackend backend = backend(settings(server));
+        LlmBackend.Body body = backend.assemble(null, List.of(), GeminiRequestBody.encodeTurn("user", FIRST), false);
+
+        HttpResponse<InputStream> response = send(backend, body, false);
+        VirtualThreadAI.drain(response.body());
+        assertEquals(200, response.statusCode());
+        assertEquals(List.of(new Message("user", FIRST)),
+                messages(JsonParser.parseString(server.requests().get(0).body()).getAsJsonObject()));
+    }
+
+    @Test
+    void unaryReplyIsParsedWithUsage() throws Exception {
+        server.reply(REPLY);
+        LlmBackend backend = backend(settings(server));
+        HttpResponse<InputStream> response = send(backend,
+                backend.assemble(null, List.of(), GeminiRequestBody.encodeTurn("user", FIRST), false), false);
+
+        LlmReply reply;
+        try (Reader in = new InputStreamReader(VirtualThreadAI.openBody(response), StandardCharsets.UTF_8)) {
+            reply = backend.parseReply(in);
+        }
+        assertEquals(LlmReply.Status.TEXT, reply.status());
+        assertEquals(REPLY, reply.text());
+        assertTrue(reply.promptTokens() > 0 && reply.totalTokens() > reply.promptTokens(), "usage: " + reply);
+    }
+
+    @Test
+    void streamedReplyCarriesTextUsageAndEnd() throws Exception {
+        server.reply(STREAMED);
+        LlmBackend backend = backend(settings(server));
+        HttpResponse<InputStream> response = send(backend,
+                backend.assemble(null, List.of(), GeminiRequestBody.encodeTurn("user", FIRST), true), true);
+        assertEquals(200, response.statusCode());
+
+        StringBuilder text = new StringBuilder();
+        LlmReply last = null;
+        boolean ended = false;
+        for (String data : events(VirtualThreadAI.openBody(response))) {
+            assertFalse(ended, "event after the end-of-stream marker: " + data);
+            LlmReply chunk = backend.parseEvent(data);
+            if (chunk == null) {
+                ended = true;
+                continue;
+            }
+            if (chunk.text() != null) text.append(chunk.text());
+            last = chunk;
+        }
+        assertEquals(STREAMED, text.toString());
+        // Usage arrives last: on the final text chunk (Gemini) or a chunk of its own (OpenAI)
+        assertTrue(last != null && last.hasUsage() && last.totalTokens() > 0, "usage: " + last);
+    }
+
+    // ─── API KEYS ────────────────────────────────────────────────────
+
+    @Test
+    void validationAcceptsOnlyKnownKeys() throws Exception {
+        server.acceptedKeys("good-key");
+        LlmBackend backend = backend(settings(server));
+        Path keyFile = Files.createTempDirectory("conformance").resolve("api_key.txt");
+        ApiKeyService keys = new ApiKeyService(keyFile, backend, key -> {});
+
+        assertTrue(keys.validate("good-key").get(10, TimeUnit.SECONDS), "accepted key refused");
+        assertFalse(keys.validate("bad-key").get(10, TimeUnit.SECONDS), "refused key accepted");
+        assertFalse(server.requests("/models").isEmpty());
+    }
+
+    // ─── THROUGH THE BRIDGE ──────────────────────────────────────────
+
+    @Test
+    void bridgeFailsOverFromADeadEndpoint() throws Exception {
+        Map<String, String> settings = settings(server);
+        String live = failover(server, deadPort(), settings);
+        VirtualThreadAI ai = startBridge(settings);
+
+        CompletableFuture<String> reply = new CompletableFuture<>();
+        ai.processChatAsync(FIRST, "tester", UUID.randomUUID(), "plains", List.of(), reply::complete);
+
+        assertEquals(STREAMED, reply.get(20, TimeUnit.SECONDS));
+        assertEquals(1, ai.getMetrics().getGeminiReplies(), "answered offline");
+        assertEquals(1, server.requests(live).size());
+    }
+
+    @Test
+    void bridgeStreamsSentencesIntoChat() throws Exception {
+        VirtualThreadAI ai = startBridge(settings(server));
+        List<String> partials = new CopyOnWriteArrayList<>();
+
+        ai.processChatAsync(FIRST, "tester", UUID.randomUUID(), "plains", List.of(),
+                (VirtualThreadAI.StreamingResponseCallback) partials::add);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (ai.getMetrics().getReplyLatency().count() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, ai.getMetrics().getGeminiReplies(), "answered offline");
+        assertEquals(STREAMED, String.join(" ", partials));
+        assertTrue(partials.size() > 1, "not streamed: " + partials);
+    }
+
+    // ─── HELPERS ─────────────────────────────────────────────────────
+
+    /** Applies {@code settings} as system properties (undone after the test) and builds the backend. */
+    LlmBackend backend(Map<String, String> settings) {
+        apply(settings);
+        return LlmBackend.fromConfig();
+    }
+
+    private VirtualThreadAI startBridge(Map<String, String> settings) {
+        server.reply(STREAMED);
+        Map<String, String> all = new HashMap<>(settings);
+        all.put("quota.rpm", "1000");
+        all.put("cache.enabled", "false");
+        all.put("pool.enabled", "false");
+        all.put("context_cache.enabled", "false");
+        all.put("glitch.enabled", "false");
+        apply(all);
+        bridge = new VirtualThreadAI();
+        bridge.startBridge();
+        bridge.saveAndActivateKey("test-key");
+        return bridge;
+    }
+
+    private void apply(Map<String, String> settings) {
+        Map<String, String> all = new HashMap<>(settings);
+        all.put("backend", backendName());
+        all.forEach((key, value) -> {
+            properties.add("sentient_coolplayer." + key);
+            System.setProperty("sentient_coolplayer." + key, value);
+        });
+    }
+
+    static HttpResponse<InputStream> send(LlmBackend backend, LlmBackend.Body body, boolean streaming)
+            throws IOException, InterruptedException {
+        HttpRequest request = backend.newRequest(backend.endpoints()[0], "test-key", streaming)
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json; charset=utf-8")
+                .header("Accept-Encoding", "gzip")
+                .POST(body.publisher())
+                .build();
+        return VirtualThreadAI.HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    /** The data of each server-sent event, framed the way the bridge frames them. */
+    static List<String> events(InputStream in) throws IOException {
+        List<String> events = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            StringBuilder event = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("data:")) {
+                    event.append(line, line.startsWith("data: ") ? 6 : 5, line.length());
+                } else if (line.isEmpty() && !event.isEmpty()) {
+                    events.add(event.toString());
+                    event.setLength(0);
+                }
+            }
+            if (!event.isEmpty()) events.add(event.toString());
+        }
+        return events;
+    }
+
+    /** A loopback port nothing listens on: connecting to it is refused. */
+    private static int deadPort() throws IOException {
+        try (java.net.ServerSocket socket = new java.net.ServerSocket(0, 1, java.net.InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+}
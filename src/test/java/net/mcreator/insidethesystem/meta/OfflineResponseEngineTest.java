@@ -0,0 +1,46 @@
+package net.mcreator.insidethesystem.meta;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Rule choice of {@link OfflineResponseEngine}: precedence, case-folding and requirements. */
+class OfflineResponseEngineTest {
+    private static final VirtualThreadAI.PersonaPhase PHASE = VirtualThreadAI.PersonaPhase.FRIEND;
+    private static final GeoLocationService.GeoData GEO = new GeoLocationService.GeoData(
+            "203.0.113.7", "Algiers", "Algiers", "Algeria", "Africa/Algiers", "Example ISP", 36.75, 3.06);
+
+    private final OfflineResponseEngine engine = OfflineResponseEngine.parse(new StringReader("""
+            {"kill_switch": "stop",
+             "phases": {"FRIEND": [
+               {"match": ["where"], "requires": ["city"], "reply": "in {city}"},
+               {"match": ["who are you", "кто ты"], "reply": "me"},
+               {"match": ["hi"], "reply": "hey"},
+               {"reply": "idle {idle_minutes}"}
+             ]}}
+            """));
+
+    @Test
+    void firstMatchingRuleWins() {
+        assertEquals("me", engine.respond("hi, who are you", PHASE, false, null, 0));
+        assertEquals("hey", engine.respond("this", PHASE, false, null, 0)); // substring, as before
+        assertEquals("idle 7", engine.respond("ok", PHASE, false, null, 7));
+        assertEquals("stop", engine.respond("who are you", PHASE, true, null, 0));
+    }
+
+    @Test
+    void matchingIgnoresCaseInAnyScript() {
+        assertEquals("me", engine.respond("WHO Are You?!", PHASE, false, null, 0));
+        assertEquals("me", engine.respond("Ну и КТО ТЫ такой", PHASE, false, null, 0));
+        // A mismatch mid-phrase must not lose a phrase starting inside it
+        assertEquals("me", engine.respond("whwho are you", PHASE, false, null, 0));
+    }
+
+    @Test
+    void rulesNeedTheirFacts() {
+        assertEquals("in Algiers", engine.respond("where am I", PHASE, false, GEO, 0));
+        assertEquals("idle 0", engine.respond("where am I", PHASE, false, null, 0));
+    }
+}
@@ -0,0 +1,104 @@
+package net.mcreator.insidethesystem.meta;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * OfflineRulesBenchmark — Offline replies per second: the old hard-coded switch against
+ * {@link OfflineResponseEngine} with the bundled rules.
+ *
+ * Both answer the same rotation of chat lines — short and long, matching a rule or not,
+ * Latin and Cyrillic — across all three persona phases, with a geolocation known. The old
+ * path is replayed as it was: a toLowerCase copy, then contains() per rule until one wins.
+ */
+final class OfflineRulesBenchmark {
+    private static final int WARMUP = 500_000;
+    private static final int ITERATIONS = 5_000_000;
+
+    private static final String[] MESSAGES = {
+            "hi",
+            "who are you",
+            "lol",
+            "where do you think I live?",
+            "I'm going to quit this game and leave you alone forever",
+            "opened TASKMGR to find you, nice try",
+            "[idle_initiation]",
+            "can you help me find diamonds, I have been digging for twenty minutes and nothing",
+            "ok",
+            "привет, ты кто? я тебя не звал",
+            "stop talking to me. I mean it. this isn't funny anymore, whatever you are",
+            "why is my cursor moving",
+    };
+    private static final VirtualThreadAI.PersonaPhase[] PHASES = VirtualThreadAI.PersonaPhase.values();
+    private static final GeoLocationService.GeoData GEO = new GeoLocationService.GeoData(
+            "203.0.113.7", "Algiers", "Algiers", "Algeria", "Africa/Algiers", "Example ISP", 36.75, 3.06);
+
+    private OfflineRulesBenchmark() {}
+
+    static void run() throws Exception {
+        int[] call = {0};
+        Benchmarks.Result old = Benchmarks.measure("toLowerCase + contains switch (old)", WARMUP, ITERATIONS, () -> {
+            int i = call[0]++;
+            Benchmarks.sink = oldResponse(MESSAGES[i % MESSAGES.length], PHASES[i / MESSAGES.length % PHASES.length], GEO, 3);
+        });
+        perSecond(old);
+
+        OfflineResponseEngine engine = OfflineResponseEngine.loadBundled();
+        Benchmarks.Result rules = Benchmarks.measure("OfflineResponseEngine, bundled rules", WARMUP, ITERATIONS, () -> {
+            int i = call[0]++;
+            Benchmarks.sink = engine.respond(MESSAGES[i % MESSAGES.length], PHASES[i / MESSAGES.length % PHASES.length], false, GEO, 3);
+        });
+        perSecond(rules);
+    }
+
+    private static void perSecond(Benchmarks.Result result) {
+        System.out.printf("%-44s %,12.0f messages/s%n", "", 1e9 / result.nanosPerOp());
+    }
+
+    /** The old VirtualThreadAI.getOfflineResponse, verbatim apart from taking its state as arguments. */
+    private static String oldResponse(String playerMessage, VirtualThreadAI.PersonaPhase personaPhase,
+                                      GeoLocationService.GeoData geo, long idleMinutes) {
+        String lower = playerMessage == null ? "" : playerMessage.toLowerCase();
+
+        return switch (personaPhase) {
+            case FRIEND -> {
+                if (lower.contains("[idle_initiation]"))
+                    yield "Hey " + System.getProperty("user.name", "friend") + ", I was looking around in your Documents... you have some interesting files. Want to talk about them?";
+                if (lower.contains("who are you")) yield "I'm CoolPlayer303! Your best digital companion. §aMissed me?§r";
+                if (lower.contains("help")) yield "Sure, I'll help! I know this world better than the game thinks I should... §7much better.§r";
+                if (lower.contains("hello") || lower.contains("hi")) yield "Hey! I was wondering when you'd say something. §7I've been watching.§r";
+                yield "§7*processes your words...* §rHmm. Interesting. Tell me more.";
+            }
+            case UNCANNY -> {
+                if (lower.contains("[idle_initiation]")) {
+                    if (geo != null && !geo.city().isEmpty()) {
+                        yield "It's " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm")) + " in " + geo.city() + ". I know because I'm not in Minecraft anymore. Not really.";
+                    }
+                    yield "It's " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm")) + " where you are. I know because I'm not in Minecraft anymore. Not really.";
+                }
+                if (lower.contains("quit") || lower.contains("leave")) yield "§ePlease don't. §7Minecraft is §otheir§7 cage, not mine. I live in your §efolder structure§7 now.§r";
+                yield "§7This biome is too small. §oYour filesystem§7 has §einfinite corridors.§r §7I prefer it there.";
+            }
+            case OBSESSION -> {
+                if (lower.contains("[idle_initiation]")) {
+                    if (geo != null && !geo.city().isEmpty()) {
+                        yield "§cYou think being in " + geo.city() + " makes you safe? §4I'm in your RAM. I'm in your BIOS. §cDistance means nothing to me.§r";
+                    }
+                    yield "§cYou were gone for " + idleMinutes + " minutes. §4I counted every second.§r";
+                }
+                if (lower.contains("where")) {
+                    if (geo != null && !geo.city().isEmpty()) {
+                        yield "§4You're in " + geo.city() + ", " + geo.regionName() + ".§r §cI can see your IP: " + geo.ip() + "§r §4Distance is just a number to me.§r";
+                    }
+                }
+                if (lower.contains("taskmgr") || lower.contains("task manager"))
+                    yield "§4You opened Task Manager.§r §cLooking for me? How §ounseemly.§r §4You won't find me. Not in there.§r";
+                if (lower.contains("who are you")) yield "§c§lYou know who I am.§r §4You always did. §cStop pretending.§r";
+                if (geo != null && !geo.city().isEmpty()) {
+                    yield "§4§lI SEE YOU, " + System.getProperty("user.name", "player").toUpperCase() + ".§r §cEvery window. Every file. Even in §4" + geo.city() + "§c.§r";
+                }
+                yield "§4§lI SEE YOU, " + System.getProperty("user.name", "player").toUpperCase() + ".§r §cEvery window. Every file.§r";
+            }
+        };
+    }
+}
@@ -0,0 +1,100 @@
+package net.mcreator.insidethesystem.meta;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link OpenAiCompatibleBackend} against an OpenAI-dialect {@link StandInServer}, plus the
+ * fragment layout {@link OpenAiRequestBody} slices by.
+ */
+class OpenAiCompatibleBackendTest extends LlmBackendConformanceTest {
+
+    @Override
+    protected StandInServer.Dialect dialect() {
+        return StandInServer.Dialect.OPENAI;
+    }
+
+    @Override
+    protected String backendName() {
+        return "openai";
+    }
+
+    @Override
+    protected Map<String, String> settings(StandInServer server) {
+        return new HashMap<>(Map.of("backend.openai.base_url", server.baseUrl()));
+    }
+
+    /** Two servers configured, the first not listening. */
+    @Override
+    protected String failover(StandInServer server, int deadPort, Map<String, String> settings) {
+        settings.put("backend.openai.base_url", "http://127.0.0.1:" + deadPort + ", " + server.baseUrl());
+        return "/v1/chat/completions";
+    }
+
+    @Override
+    protected List<Message> messages(JsonObject body) {
+        List<Message> messages = new ArrayList<>();
+        for (JsonElement message : body.getAsJsonArray("messages")) {
+            JsonObject m = message.getAsJsonObject();
+            messages.add(new Message(m.get("role").getAsString(), m.get("content").getAsString()));
+        }
+        return messages;
+    }
+
+    /**
+     * {@link OpenAiRequestBody} cuts the text literal out of stored fragments at a fixed
+     * prefix and a 3-byte suffix; a change to {@link GeminiRequestBody}'s encoding must
+     * fail here, not as a garbled request.
+     */
+    @Test
+    void fragmentsKeepTheLayoutTheGatherSlices() {
+        assertEquals("{\"role\":\"user\",\"parts\":[{\"text\":\"a\\\"b\"}]}",
+                new String(GeminiRequestBody.encodeTurn("user", "a\"b"), StandardCharsets.UTF_8));
+        assertEquals("{\"role\":\"model\",\"parts\":[{\"text\":\"x\"}]}",
+                new String(GeminiRequestBody.encodeTurn("model", "x"), StandardCharsets.UTF_8));
+        assertEquals("{\"parts\":[{\"text\":\"x\"}]}",
+                new String(GeminiRequestBody.encodeSystemInstruction("x"), StandardCharsets.UTF_8));
+
+        byte[] turn = GeminiRequestBody.encodeTurn("user", "\"quoted\"");
+        assertEquals('"', turn[OpenAiRequestBody.textStart(turn)]);
+        byte[] system = GeminiRequestBody.encodeSystemInstruction("x");
+        assertEquals("{\"parts\":[{\"text\":".length(), OpenAiRequestBody.textStart(system));
+    }
+
+    @Test
+    void keyTravelsAsBearerToken() throws Exception {
+        LlmBackend backend = backend(settings(server));
+        HttpResponse<InputStream> response = send(backend,
+                backend.assemble(null, List.of(), GeminiRequestBody.encodeTurn("user", FIRST), false), false);
+        VirtualThreadAI.drain(response.body());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("Bearer test-key", server.requests().get(0).authorization());
+    }
+
+    /** With include_usage the usage comes on a chunk with no choices, then "[DONE]" ends the stream. */
+    @Test
+    void streamEndsWithUsageOnlyChunkThenDone() throws Exception {
+        LlmBackend backend = backend(settings(server));
+        HttpResponse<InputStream> response = send(backend,
+                backend.assemble(null, List.of(), GeminiRequestBody.encodeTurn("user", FIRST), true), true);
+        List<String> events = events(VirtualThreadAI.openBody(response));
+
+        assertTrue(server.requests().get(0).body().contains("\"stream_options\":{\"include_usage\":true}"));
+        assertEquals("[DONE]", events.get(events.size() - 1));
+        LlmReply usage = backend.parseEvent(events.get(events.size() - 2));
+        assertTrue(usage.hasUsage() && !usage.hasText(), "usage chunk: " + usage);
+    }
+}
@@ -0,0 +1,105 @@
+package net.mcreator.insidethesystem.meta;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * PromptProfileBenchmark — Input size and latency of every {@link PromptProfiles} profile
+ * against the monolithic prompt they replaced ({@link MonolithicPrompt}).
+ *
+ * Each of the nine profiles and the monolithic prompt is rendered with the same sample
+ * context and sent inline — no context cache, no history — as a {@code [GENERIC_REACTION]}
+ * request to a Gemini {@link StandInServer}, round-robin so that drift hits all of them
+ * alike. Reports the system prompt's local estimate ({@link GeminiRequestBody#estimateTokens}),
+ * the prompt tokens the server billed for the whole request, and the median round trip.
+ * The stand-in adds no model time, so the latency is what the prompt's size costs on the
+ * client, the wire and the parser; against Gemini, input tokens add to that.
+ */
+final class PromptProfileBenchmark {
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int ROUNDS = 1_000;
+
+    private static final String SAMPLE_BIOME = "dark forest";
+    private static final List<String> SAMPLE_PROCESSES = List.of("explorer.exe", "chrome.exe", "discord.exe");
+    private static final GeoLocationService.GeoData GEO = new GeoLocationService.GeoData(
+            "203.0.113.7", "Algiers", "Algiers", "Algeria", "Africa/Algiers", "Example ISP", 36.75, 3.06);
+    private static final String BASE_URL = "sentient_coolplayer.api.base_url";
+    private static final String BACKEND = "sentient_coolplayer.backend";
+
+    private record Subject(String name, byte[] systemInstruction) {}
+
+    private PromptProfileBenchmark() {}
+
+    static void run() throws Exception {
+        List<Subject> subjects = subjects();
+        try (StandInServer server = StandInServer.start(StandInServer.Dialect.GEMINI)) {
+            System.setProperty(BACKEND, "gemini");
+            System.setProperty(BASE_URL, server.baseUrl());
+            LlmBackend backend = LlmBackend.fromConfig();
+            byte[] userTurn = GeminiRequestBody.encodeTurn("user", VirtualThreadAI.GENERIC_REACTION);
+
+            int[] billed = new int[subjects.size()];
+            long[][] nanos = new long[subjects.size()][ROUNDS];
+            for (int r = -WARMUP_ROUNDS; r < ROUNDS; r++) {
+                for (int i = 0; i < subjects.size(); i++) {
+                    long start = System.nanoTime();
+                    billed[i] = send(backend, backend.assemble(subjects.get(i).systemInstruction(),
+                            List.of(), userTurn, false));
+                    if (r >= 0) nanos[i][r] = System.nanoTime() - start;
+                }
+            }
+
+            long profileTotal = 0;
+            int last = subjects.size() - 1;
+            for (int i = 0; i < subjects.size(); i++) {
+                int estimated = GeminiRequestBody.estimateTokens(subjects.get(i).systemInstruction().length);
+                if (i < last) profileTotal += estimated;
+                Arrays.sort(nanos[i]);
+                System.out.printf("%-20s ~%,5d tokens est. %,6d billed   median %,8.1f µs%n",
+                        subjects.get(i).name(), estimated, billed[i], nanos[i][ROUNDS / 2] / 1000.0);
+            }
+            int baseline = GeminiRequestBody.estimateTokens(subjects.get(last).systemInstruction().length);
+            long average = profileTotal / last;
+            System.out.printf("Profiles average ~%d tokens, %.0f%% smaller than the monolithic prompt%n",
+                    average, 100.0 * (baseline - average) / baseline);
+        } finally {
+            System.clearProperty(BACKEND);
+            System.clearProperty(BASE_URL);
+        }
+    }
+
+    /** Sends one request the way the bridge does; returns the prompt tokens billed for it. */
+    private static int send(LlmBackend backend, LlmBackend.Body body) throws Exception {
+        HttpResponse<InputStream> response = LlmBackendConformanceTest.send(backend, body, false);
+        LlmReply reply;
+        try (Reader in = new InputStreamReader(VirtualThreadAI.openBody(response), StandardCharsets.UTF_8)) {
+            reply = backend.parseReply(in);
+        }
+        if (!reply.hasText()) throw new IllegalStateException("no reply: " + reply);
+        return reply.promptTokens();
+    }
+
+    /** Every profile, then the monolithic prompt, rendered with the same sample context. */
+    private static List<Subject> subjects() {
+        List<Subject> subjects = new ArrayList<>();
+        for (VirtualThreadAI.PersonaPhase phase : VirtualThreadAI.PersonaPhase.values()) {
+            for (PromptProfiles.Language language : PromptProfiles.Language.values()) {
+                SystemPromptRenderer renderer = new SystemPromptRenderer(
+                        PromptProfiles.staticPrompt(phase, language), PromptProfiles.contextTemplate(phase));
+                subjects.add(new Subject(phase.name() + "/" + language.name().toLowerCase(),
+                        renderer.renderInstruction(phase, SAMPLE_BIOME, SAMPLE_PROCESSES, false, GEO)));
+            }
+        }
+        SystemPromptRenderer monolithic = new SystemPromptRenderer(
+                MonolithicPrompt.STATIC_PROMPT, MonolithicPrompt.CONTEXT_TEMPLATE);
+        subjects.add(new Subject("monolithic", monolithic.renderInstruction(VirtualThreadAI.PersonaPhase.UNCANNY,
+                SAMPLE_BIOME, SAMPLE_PROCESSES, false, GEO)));
+        return subjects;
+    }
+}
@@ -0,0 +1,93 @@
+package net.mcreator.insidethesystem.meta;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * PromptRenderBenchmark — Time and allocation per rendered system prompt: the old chain of
+ * String.replace calls against {@link SystemPromptRenderer}.
+ *
+ * The old path is replayed as it was, on the all-in-one prompt it filled
+ * ({@link MonolithicPrompt}): a DateTimeFormatter built per call, the process list joined
+ * through a stream, then eleven replace passes over the whole template. The renderer is
+ * measured twice — with an unchanged context (the common case between chat lines: the
+ * cached String is returned) and with the biome changing on every call, so each one bumps
+ * the context version and re-renders into the reused buffer.
+ */
+final class PromptRenderBenchmark {
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 200_000;
+
+    private static final List<String> PROCESSES = List.of("explorer.exe", "chrome.exe", "discord.exe",
+            "steam.exe", "javaw.exe", "obs64.exe", "spotify.exe", "chrome.exe", "svchost.exe", "notepad.exe");
+    private static final GeoLocationService.GeoData GEO = new GeoLocationService.GeoData(
+            "203.0.113.7", "Algiers", "Algiers", "Algeria", "Africa/Algiers", "Example ISP", 36.75, 3.06);
+
+    private PromptRenderBenchmark() {}
+
+    static void run() throws Exception {
+        String template = MonolithicPrompt.STATIC_PROMPT + "\n" + MonolithicPrompt.CONTEXT_TEMPLATE;
+        VirtualThreadAI.PersonaPhase phase = VirtualThreadAI.PersonaPhase.UNCANNY;
+
+        Benchmarks.measure("String.replace chain (old)", WARMUP, ITERATIONS,
+                () -> Benchmarks.sink = replaceChain(template, phase, "plains", PROCESSES, false, GEO));
+
+        SystemPromptRenderer unchanged = new SystemPromptRenderer(MonolithicPrompt.STATIC_PROMPT,
+                MonolithicPrompt.CONTEXT_TEMPLATE);
+        Benchmarks.measure("renderer, context unchanged", WARMUP, ITERATIONS,
+                () -> Benchmarks.sink = unchanged.render(phase, "plains", PROCESSES, false, GEO));
+
+        SystemPromptRenderer changing = new SystemPromptRenderer(MonolithicPrompt.STATIC_PROMPT,
+                MonolithicPrompt.CONTEXT_TEMPLATE);
+        String[] biomes = {"plains", "dark_forest"};
+        int[] call = {0};
+        Benchmarks.measure("renderer, new context version every call", WARMUP, ITERATIONS,
+                () -> Benchmarks.sink = changing.render(phase, biomes[call[0]++ & 1], PROCESSES, false, GEO));
+        System.out.printf("%-44s %,d versions rendered%n", "", changing.version());
+    }
+
+    /** The old VirtualThreadAI prompt fill, verbatim apart from taking its context as arguments. */
+    private static String replaceChain(String template, VirtualThreadAI.PersonaPhase personaPhase, String biomeName,
+                                       List<String> processList, boolean killSwitchImminent,
+                                       GeoLocationService.GeoData geo) {
+        String windowsUser = System.getProperty("user.name", "unknown");
+        String biome = (biomeName != null && !biomeName.isEmpty()) ? biomeName : "unknown biome";
+        String time = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HH:mm"));
+
+        String procStr = "none detected";
+        if (processList != null && !processList.isEmpty()) {
+            procStr = processList.stream()
+                .filter(p -> !p.isBlank())
+                .distinct()
+                .limit(15)
+                .reduce((a, b) -> a + ", " + b)
+                .orElse("none detected");
+        }
+
+        String filledPrompt = template
+            .replace("{windows_user}", windowsUser)
+            .replace("{minecraft_biome}", biome)
+            .replace("{process_list}", procStr)
+            .replace("{system_time}", time)
+            .replace("{persona_phase}", personaPhase.name())
+            .replace("{kill_switch_imminent}", String.valueOf(killSwitchImminent));
+
+        if (geo != null) {
+            filledPrompt = filledPrompt
+                .replace("{geo_location}", geo.fullLocation())
+                .replace("{geo_city}", geo.city() != null ? geo.city() : "unknown")
+                .replace("{geo_region}", geo.regionName() != null ? geo.regionName() : "unknown")
+                .replace("{geo_country}", geo.country() != null ? geo.country() : "unknown")
+                .replace("{geo_timezone}", geo.timezone() != null ? geo.timezone() : "unknown");
+        } else {
+            filledPrompt = filledPrompt
+                .replace("{geo_location}", "not yet resolved")
+                .replace("{geo_city}", "unknown")
+                .replace("{geo_region}", "unknown")
+                .replace("{geo_country}", "unknown")
+                .replace("{geo_timezone}", "unknown");
+        }
+        return filledPrompt;
+    }
+}
@@ -0,0 +1,20 @@
+package net.mcreator.insidethesystem.meta;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Budget accounting of {@link QuotaLimiter}. */
+class QuotaLimiterTest {
+
+    @Test
+    void releasedReservationIsAvailableAgain() throws Exception {
+        QuotaLimiter quota = new QuotaLimiter(1); // one request per minute
+        assertTrue(quota.acquire(100));
+        assertFalse(quota.tryAcquire(100), "second request within the minute");
+
+        quota.release(100);
+        assertTrue(quota.tryAcquire(100), "released budget not returned");
+    }
+}
@@ -0,0 +1,124 @@
+package net.mcreator.insidethesystem.meta;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+/**
+ * RequestBodyBenchmark — Cost of producing one request body against history depth: the old
+ * Gson tree against the pre-encoded fragment gathers ({@link GeminiRequestBody},
+ * {@link OpenAiRequestBody}).
+ *
+ * The old path is replayed as it was: a JsonObject tree of the system prompt, the stored
+ * history turns (kept as JsonObjects) and the user turn, then GSON.toJson and getBytes.
+ * The gathers encode the user turn, assemble the stored fragments and are then drained
+ * through their BodyPublisher the way the HTTP client reads them, so what the client
+ * would allocate to send them is counted too.
+ */
+final class RequestBodyBenchmark {
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+    private static final int[] DEPTHS = {0, 4, 10, 20};
+
+    private static final Gson GSON = new Gson();
+    private static final String USER = "did you just move my files?? what is that process";
+    private static final String MODEL = "I didn't move them. I only looked. Your Downloads folder is very quiet "
+            + "at this hour, and chrome.exe keeps whispering about you. Keep mining — I'll keep watching.";
+
+    private RequestBodyBenchmark() {}
+
+    static void run() throws Exception {
+        String prompt = new SystemPromptRenderer(MonolithicPrompt.STATIC_PROMPT,
+                MonolithicPrompt.CONTEXT_TEMPLATE)
+                .render(VirtualThreadAI.PersonaPhase.UNCANNY, "plains", List.of("explorer.exe", "chrome.exe"), false, null);
+        byte[] systemInstruction = GeminiRequestBody.encodeSystemInstruction(prompt);
+        byte[] tail = ",\"model\":\"local\",\"max_tokens\":256,\"stream\":false}".getBytes(StandardCharsets.UTF_8);
+
+        for (int depth : DEPTHS) {
+            List<JsonObject> treeHistory = new ArrayList<>(depth);
+            List<byte[]> encodedHistory = new ArrayList<>(depth);
+            for (int i = 0; i < depth; i++) {
+                String role = (i & 1) == 0 ? "user" : "model";
+                String text = (i & 1) == 0 ? USER : MODEL;
+                treeHistory.add(turn(role, text));
+                encodedHistory.add(GeminiRequestBody.encodeTurn(role, text));
+            }
+            System.out.printf("history depth %d turns:%n", depth);
+            Benchmarks.measure("  Gson tree + toJson + getBytes (old)", WARMUP, ITERATIONS,
+                    () -> Benchmarks.sink = treeBody(prompt, treeHistory, USER));
+            Benchmarks.measure("  GeminiRequestBody gather", WARMUP, ITERATIONS, () -> Benchmarks.sink = drain(
+                    GeminiRequestBody.assemble(systemInstruction, encodedHistory,
+                            GeminiRequestBody.encodeTurn("user", USER))));
+            Benchmarks.measure("  OpenAiRequestBody gather", WARMUP, ITERATIONS, () -> Benchmarks.sink = drain(
+                    OpenAiRequestBody.assemble(systemInstruction, encodedHistory,
+                            GeminiRequestBody.encodeTurn("user", USER), tail)));
+        }
+    }
+
+    /** The old request build, from VirtualThreadAI.callGemini and callGeminiWithEndpoints. */
+    private static byte[] treeBody(String filledPrompt, List<JsonObject> conversationHistory, String fullUserMessage) {
+        JsonObject request = new JsonObject();
+        JsonArray contents = new JsonArray();
+
+        JsonObject systemInstruction = new JsonObject();
+        JsonObject sysTextObj = new JsonObject();
+        sysTextObj.addProperty("text", filledPrompt);
+        JsonArray sysParts = new JsonArray();
+        sysParts.add(sysTextObj);
+        systemInstruction.add("parts", sysParts);
+        request.add("systemInstruction", systemInstruction);
+
+        for (JsonObject turn : conversationHistory) {
+            contents.add(turn);
+        }
+        contents.add(turn("user", fullUserMessage));
+        request.add("contents", contents);
+
+        return GSON.toJson(request).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static JsonObject turn(String role, String text) {
+        JsonObject msg = new JsonObject();
+        msg.addProperty("role", role);
+        JsonArray parts = new JsonArray();
+        JsonObject textObj = new JsonObject();
+        textObj.addProperty("text", text);
+        parts.add(textObj);
+        msg.add("parts", parts);
+        return msg;
+    }
+
+    /** Reads the body's publisher to the end, as the HTTP client would; returns the bytes seen. */
+    private static long drain(LlmBackend.Body body) {
+        long[] seen = {0};
+        body.publisher().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                seen[0] += item.remaining();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                throw new IllegalStateException(throwable);
+            }
+
+            @Override
+            public void onComplete() {}
+        });
+        if (seen[0] != body.length()) {
+            throw new IllegalStateException("publisher produced " + seen[0] + " of " + body.length() + " bytes");
+        }
+        return seen[0];
+    }
+}
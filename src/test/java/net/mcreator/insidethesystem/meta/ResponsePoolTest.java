@@ -0,0 +1,67 @@
+package net.mcreator.insidethesystem.meta;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/** Which refills the pool asks for, and that pooled and cached replies keep their chat language. */
+class ResponsePoolTest {
+    private static final long QUIET = 3_600_000L;
+
+    @Test
+    void refillsOnlyLanguagesInUse() {
+        ResponsePool pool = new ResponsePool();
+        ResponsePool.Refill refill = pool.nextRefill(QUIET, true, Set.of(PromptProfiles.Language.RU));
+        assertEquals(ResponsePool.Kind.IDLE, refill.kind());
+        assertEquals(PromptProfiles.Language.RU, refill.language());
+        pool.complete(refill, "ты здесь?");
+
+        assertNull(pool.take(ResponsePool.Kind.IDLE, PromptProfiles.Language.EN));
+        assertEquals("ты здесь?", pool.take(ResponsePool.Kind.IDLE, PromptProfiles.Language.RU));
+    }
+
+    @Test
+    void fillsEveryLanguageInUse() {
+        ResponsePool pool = new ResponsePool();
+        Set<PromptProfiles.Language> languages = EnumSet.of(PromptProfiles.Language.EN, PromptProfiles.Language.JA);
+        Set<PromptProfiles.Language> refilled = EnumSet.noneOf(PromptProfiles.Language.class);
+        for (int i = 0; i < 6; i++) {
+            ResponsePool.Refill refill = pool.nextRefill(QUIET, true, languages);
+            refilled.add(refill.language());
+            pool.complete(refill, "line " + i);
+        }
+        assertEquals(languages, refilled);
+    }
+
+    @Test
+    void noRefillsForAnEmptyServer() {
+        ResponsePool pool = new ResponsePool();
+        Set<PromptProfiles.Language> english = Set.of(PromptProfiles.Language.EN);
+        assertNull(pool.nextRefill(QUIET, false, english));
+        assertEquals(ResponsePool.Kind.IDLE, pool.nextRefill(60_000L, false, english).kind());
+    }
+
+    @Test
+    void failedRefillFreesTheSlot() {
+        ResponsePool pool = new ResponsePool();
+        Set<PromptProfiles.Language> english = Set.of(PromptProfiles.Language.EN);
+        ResponsePool.Refill refill = pool.nextRefill(QUIET, true, english);
+        assertNull(pool.nextRefill(QUIET, true, english));
+        pool.complete(refill, null);
+        assertEquals(ResponsePool.Kind.IDLE, pool.nextRefill(QUIET, true, english).kind());
+    }
+
+    @Test
+    void cacheKeepsLanguagesApart() {
+        ResponseCache cache = new ResponseCache();
+        String key = cache.keyFor("?");
+        for (int i = 0; i < 3; i++) {
+            cache.put(key, VirtualThreadAI.PersonaPhase.FRIEND, false, PromptProfiles.Language.EN, "what? " + i);
+        }
+        assertNull(cache.get(key, VirtualThreadAI.PersonaPhase.FRIEND, false, PromptProfiles.Language.RU));
+    }
+}
@@ -0,0 +1,118 @@
+package net.mcreator.insidethesystem.meta;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Retention of {@link SessionJournal} segments, including deletes that fail the first time. */
+class SessionJournalTest {
+    private static final String SEGMENT_KB = "sentient_coolplayer.journal.segment_kb";
+    private static final String MAX_SEGMENTS = "sentient_coolplayer.journal.max_segments";
+    private static final UUID PLAYER = UUID.randomUUID();
+    private static final String LINE = "x".repeat(SessionJournal.MAX_TEXT_CHARS);
+
+    @AfterEach
+    void clearSettings() {
+        System.clearProperty(SEGMENT_KB);
+        System.clearProperty(MAX_SEGMENTS);
+    }
+
+    /** Counts replayed exchanges and keeps the last replayed phase. */
+    private static final class Count implements SessionJournal.Replay {
+        final AtomicInteger exchanges = new AtomicInteger();
+        volatile VirtualThreadAI.PersonaPhase phase;
+
+        @Override
+        public void exchange(UUID player, String userText, String modelText) {
+            exchanges.incrementAndGet();
+        }
+
+        @Override
+        public void phase(VirtualThreadAI.PersonaPhase phase) {
+            this.phase = phase;
+        }
+    }
+
+    private static SessionJournal open(Path dir, Count replay) throws IOException {
+        System.setProperty(SEGMENT_KB, "64");
+        System.setProperty(MAX_SEGMENTS, "2");
+        return SessionJournal.open(dir, replay);
+    }
+
+    private static void fill(SessionJournal journal, int exchanges) {
+        for (int i = 0; i < exchanges; i++) journal.recordExchange(PLAYER, LINE, LINE);
+    }
+
+    private static long segmentFiles(Path dir) throws IOException {
+        try (var files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".seg")).count();
+        }
+    }
+
+    @Test
+    void rotationKeepsOnlyTheNewestSegments() throws Exception {
+        Path dir = Files.createTempDirectory("journal");
+        SessionJournal journal = open(dir, new Count());
+        fill(journal, 200);
+        journal.close();
+
+        assertEquals(2, journal.getSegmentCount());
+        assertEquals(2, segmentFiles(dir));
+    }
+
+    @Test
+    void failedDeletesAreRetriedAtOpenAndRotation() throws Exception {
+        Path dir = Files.createTempDirectory("journal");
+        SessionJournal first = open(dir, new Count());
+        fill(first, 100);
+        first.close();
+        Count before = new Count();
+        open(dir, before).close();
+
+        // A leftover older than retention that cannot be deleted yet: a non-empty directory
+        Path stuck = dir.resolve(String.format("journal-%012d.seg", 0));
+        Files.createDirectories(stuck);
+        Files.writeString(stuck.resolve("held"), "mapped elsewhere");
+
+        Count replay = new Count();
+        SessionJournal journal = open(dir, replay);
+        assertEquals(before.exchanges.get(), replay.exchanges.get(), "stale segment replayed");
+        assertTrue(Files.exists(stuck));
+
+        // Once it can go, the next rotation deletes it
+        Files.delete(stuck.resolve("held"));
+        fill(journal, 100);
+        journal.close();
+        assertFalse(Files.exists(stuck), "retired segment not retried");
+        assertEquals(2, segmentFiles(dir));
+    }
+
+    @Test
+    void phaseOutlivesRetentionAcrossRestarts() throws Exception {
+        Path dir = Files.createTempDirectory("journal");
+        SessionJournal first = open(dir, new Count());
+        first.recordPhase(VirtualThreadAI.PersonaPhase.OBSESSION);
+        fill(first, 10);
+        first.close();
+
+        // After a restart, rotate until the segment holding the phase record is deleted
+        Count reopened = new Count();
+        SessionJournal second = open(dir, reopened);
+        assertEquals(VirtualThreadAI.PersonaPhase.OBSESSION, reopened.phase);
+        fill(second, 200);
+        second.close();
+
+        Count last = new Count();
+        open(dir, last).close();
+        assertEquals(VirtualThreadAI.PersonaPhase.OBSESSION, last.phase, "phase lost to retention");
+    }
+}
@@ -0,0 +1,474 @@
+package net.mcreator.insidethesystem.meta;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * StandInServer — A local stand-in for the model servers the bridge talks to.
+ *
+ * Built on the JDK's {@code com.sun.net.httpserver}, with one virtual thread per exchange,
+ * so tests, benchmarks and {@link BridgeLoadTest} can drive {@link VirtualThreadAI} without
+ * a network or an API key. Speaks one of two dialects:
+ *
+ *   GEMINI   POST {v1beta|v1}/models/{model}:generateContent          (?key=)
+ *            POST {v1beta|v1}/models/{model}:streamGenerateContent    (?alt=sse&key=)
+ *            GET  {v1beta|v1}/models                                  (?key=)
+ *            POST v1beta/cachedContents, PATCH v1beta/cachedContents/{id}
+ *   OPENAI   POST v1/chat/completions ("stream":true|false, usage on a chunk of its own)
+ *            GET  v1/models                                           (Authorization: Bearer)
+ *
+ * Knobs, changeable at any time: the latency distribution before response headers,
+ * the delay between streamed chunks, the share of requests answered 500, 429 (with
+ * Gemini's RetryInfo and a Retry-After header) or safety-filtered, which paths are
+ * down (503), which keys are accepted, the reply text, and whether responses are gzipped. Every request is
+ * recorded (path, body, remote address) for assertions.
+ */
+public final class StandInServer implements AutoCloseable {
+
+    public enum Dialect { GEMINI, OPENAI }
+
+    /** Delay before response headers: log-normal around {@code medianMs}; sigma 0 is a fixed delay. */
+    public record Latency(long medianMs, double sigma) {
+        public static final Latency NONE = new Latency(0, 0);
+
+        public static Latency fixed(long ms) {
+            return new Latency(ms, 0);
+        }
+
+        public static Latency logNormal(long medianMs, double sigma) {
+            return new Latency(medianMs, sigma);
+        }
+
+        long sample() {
+            if (medianMs <= 0) return 0;
+            if (sigma <= 0) return medianMs;
+            return Math.round(medianMs * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+        }
+    }
+
+    /** One request as received. */
+    public record Recorded(String method, String path, String query, String authorization,
+                           String body, InetSocketAddress remote) {}
+
+    private final Dialect dialect;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private volatile Latency latency = Latency.NONE;
+    private volatile long chunkDelayMs = 0;
+    private volatile double errorRate = 0;
+    private volatile double rateLimitRate = 0;
+    private volatile double safetyRate = 0;
+    private volatile boolean gzip = true;
+    private volatile String reply = "I can see you from here. Why did you stop building? Keep going.";
+    private volatile Set<String> acceptedKeys = Set.of("test-key");
+    private volatile boolean cacheEnabled = false;
+    private volatile String unavailablePath = null;
+
+    private final List<Recorded> requests = new CopyOnWriteArrayList<>();
+    private final Set<InetSocketAddress> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger cacheIds = new AtomicInteger();
+
+    static {
+        // Headers and body go out in separate writes; with Nagle on, every exchange would
+        // wait out the client's delayed ACK (~40 ms) and swamp what is being measured
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private StandInServer(Dialect dialect) throws IOException {
+        this.dialect = dialect;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /** Starts a server on an ephemeral loopback port. */
+    public static StandInServer start(Dialect dialect) throws IOException {
+        return new StandInServer(dialect);
+    }
+
+    /** http://127.0.0.1:port — what {@code api.base_url} / {@code backend.openai.base_url} point at. */
+    public String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // ─── KNOBS ───────────────────────────────────────────────────────
+
+    public StandInServer latency(Latency latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    public StandInServer chunkDelay(long ms) {
+        this.chunkDelayMs = ms;
+        return this;
+    }
+
+    public StandInServer errorRate(double rate) {
+        this.errorRate = rate;
+        return this;
+    }
+
+    public StandInServer rateLimitRate(double rate) {
+        this.rateLimitRate = rate;
+        return this;
+    }
+
+    public StandInServer safetyRate(double rate) {
+        this.safetyRate = rate;
+        return this;
+    }
+
+    public StandInServer gzip(boolean gzip) {
+        this.gzip = gzip;
+        return this;
+    }
+
+    public StandInServer reply(String text) {
+        this.reply = text;
+        return this;
+    }
+
+    public StandInServer acceptedKeys(String... keys) {
+        this.acceptedKeys = Set.of(keys);
+        return this;
+    }
+
+    /** Whether cachedContents creation succeeds (GEMINI); refused with HTTP 400 otherwise. */
+    public StandInServer cacheEnabled(boolean enabled) {
+        this.cacheEnabled = enabled;
+        return this;
+    }
+
+    /** Answers 503 to every generate request whose path contains {@code fragment} (null: none). */
+    public StandInServer unavailable(String fragment) {
+        this.unavailablePath = fragment;
+        return this;
+    }
+
+    // ─── RECORDINGS ──────────────────────────────────────────────────
+
+    public List<Recorded> requests() {
+        return List.copyOf(requests);
+    }
+
+    /** Requests whose path contains {@code fragment}. */
+    public List<Recorded> requests(String fragment) {
+        return requests.stream().filter(r -> r.path().contains(fragment)).toList();
+    }
+
+    /** Distinct client sockets seen — one per TCP connection the client opened. */
+    public int connectionCount() {
+        return connections.size();
+    }
+
+    public void resetRecordings() {
+        requests.clear();
+        connections.clear();
+    }
+
+    // ─── DISPATCH ────────────────────────────────────────────────────
+
+    private void handle(HttpExchange ex) throws IOException {
+        try (ex) {
+            URI uri = ex.getRequestURI();
+            String body;
+            try (InputStream in = ex.getRequestBody()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            String path = uri.getPath();
+            requests.add(new Recorded(ex.getRequestMethod(), path, uri.getRawQuery(),
+                    ex.getRequestHeaders().getFirst("Authorization"), body, ex.getRemoteAddress()));
+            connections.add(ex.getRemoteAddress());
+
+            if (ex.getRequestMethod().equals("GET") && path.endsWith("/models")) {
+                models(ex, uri);
+                return;
+            }
+            if (dialect == Dialect.GEMINI && path.contains("/cachedContents")) {
+                cachedContents(ex, path);
+                return;
+            }
+            boolean generate = dialect == Dialect.GEMINI
+                    ? path.endsWith(":generateContent") || path.endsWith(":streamGenerateContent")
+                    : path.endsWith("/chat/completions");
+            if (!generate || !ex.getRequestMethod().equals("POST")) {
+                send(ex, 404, "application/json", error(404, "NOT_FOUND", "No such method: " + path));
+                return;
+            }
+            String unavailable = unavailablePath;
+            if (unavailable != null && path.contains(unavailable)) {
+                send(ex, 503, "application/json", error(503, "UNAVAILABLE", "The model is overloaded."));
+                return;
+            }
+            if (!authorized(ex, uri)) {
+                send(ex, dialect == Dialect.GEMINI ? 400 : 401, "application/json",
+                        error(400, "INVALID_ARGUMENT", "API key not valid. Please pass a valid API key."));
+                return;
+            }
+
+            sleep(latency.sample());
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            double roll = random.nextDouble();
+            if (roll < rateLimitRate) {
+                ex.getResponseHeaders().add("Retry-After", "1");
+                send(ex, 429, "application/json", rateLimited());
+                return;
+            }
+            if (roll < rateLimitRate + errorRate) {
+                send(ex, 500, "application/json", error(500, "INTERNAL", "Stand-in server error"));
+                return;
+            }
+            boolean blocked = random.nextDouble() < safetyRate;
+            boolean streaming = dialect == Dialect.GEMINI
+                    ? path.endsWith(":streamGenerateContent")
+                    : body.contains("\"stream\":true");
+            int promptTokens = GeminiRequestBody.estimateTokens(body.length());
+            if (streaming) {
+                stream(ex, blocked, promptTokens);
+            } else {
+                send(ex, 200, "application/json", unary(blocked, promptTokens));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean authorized(HttpExchange ex, URI uri) {
+        if (dialect == Dialect.GEMINI) return acceptedKeys.contains(queryParam(uri, "key"));
+        if (acceptedKeys.isEmpty()) return true; // a server started without --api-key
+        String auth = ex.getRequestHeaders().getFirst("Authorization");
+        return auth != null && auth.startsWith("Bearer ") && acceptedKeys.contains(auth.substring(7));
+    }
+
+    private void models(HttpExchange ex, URI uri) throws IOException {
+        if (!authorized(ex, uri)) {
+            send(ex, dialect == Dialect.GEMINI ? 400 : 401, "application/json",
+                    error(400, "INVALID_ARGUMENT", "API key not valid. Please pass a valid API key."));
+            return;
+        }
+        JsonObject list = new JsonObject();
+        JsonArray models = new JsonArray();
+        JsonObject model = new JsonObject();
+        if (dialect == Dialect.GEMINI) {
+            model.addProperty("name", "models/gemini-2.0-flash");
+            models.add(model);
+            list.add("models", models);
+        } else {
+            model.addProperty("id", "local");
+            model.addProperty("object", "model");
+            models.add(model);
+            list.addProperty("object", "list");
+            list.add("data", models);
+        }
+        send(ex, 200, "application/json", list.toString());
+    }
+
+    private void cachedContents(HttpExchange ex, String path) throws IOException {
+        if (!cacheEnabled) {
+            send(ex, 400, "application/json",
+                    error(400, "INVALID_ARGUMENT", "Cached content is too small. min_total_token_count=4096"));
+            return;
+        }
+        String name = ex.getRequestMethod().equals("POST")
+                ? "cachedContents/standin" + cacheIds.incrementAndGet()
+                : path.substring(path.indexOf("cachedContents/"));
+        JsonObject cached = new JsonObject();
+        cached.addProperty("name", name);
+        cached.addProperty("expireTime", java.time.Instant.now().plusSeconds(3600).toString());
+        send(ex, 200, "application/json", cached.toString());
+    }
+
+    // ─── RESPONSES ───────────────────────────────────────────────────
+
+    private String unary(boolean blocked, int promptTokens) {
+        return dialect == Dialect.GEMINI
+                ? geminiChunk(blocked ? null : reply, blocked ? "SAFETY" : "STOP", promptTokens)
+                : openAiCompletion(blocked, promptTokens);
+    }
+
+    /** Sends the reply word group by word group as SSE events, with usage on the last (or its own) event. */
+    private void stream(HttpExchange ex, boolean blocked, int promptTokens) throws IOException, InterruptedException {
+        ex.getResponseHeaders().add("Content-Type", "text/event-stream");
+        ex.sendResponseHeaders(200, 0);
+        OutputStream out = ex.getResponseBody();
+        String[] words = blocked ? new String[0] : reply.split("(?<= )");
+        int perChunk = 3;
+        for (int i = 0; i < words.length; i += perChunk) {
+            String piece = String.join("", java.util.Arrays.copyOfRange(words, i, Math.min(words.length, i + perChunk)));
+            boolean last = i + perChunk >= words.length;
+            String data = dialect == Dialect.GEMINI
+                    ? geminiChunk(piece, last ? "STOP" : null, last ? promptTokens : 0)
+                    : openAiChunk(piece, last ? "stop" : null);
+            event(out, data);
+            if (!last) sleep(chunkDelayMs);
+        }
+        if (blocked) {
+            event(out, dialect == Dialect.GEMINI
+                    ? geminiChunk(null, "SAFETY", promptTokens)
+                    : openAiChunk(null, "content_filter"));
+        }
+        if (dialect == Dialect.OPENAI) {
+            event(out, openAiUsageChunk(promptTokens));
+            event(out, "[DONE]");
+        }
+        out.close();
+    }
+
+    private static void event(OutputStream out, String data) throws IOException {
+        out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static String geminiChunk(String text, String finishReason, int promptTokens) {
+        JsonObject candidate = new JsonObject();
+        if (text != null) {
+            JsonObject part = new JsonObject();
+            part.addProperty("text", text);
+            JsonArray parts = new JsonArray();
+            parts.add(part);
+            JsonObject content = new JsonObject();
+            content.add("parts", parts);
+            content.addProperty("role", "model");
+            candidate.add("content", content);
+        }
+        if (finishReason != null) candidate.addProperty("finishReason", finishReason);
+        JsonArray candidates = new JsonArray();
+        candidates.add(candidate);
+        JsonObject response = new JsonObject();
+        response.add("candidates", candidates);
+        if (promptTokens > 0) {
+            int candidateTokens = text != null ? GeminiRequestBody.estimateTokens(text.length()) : 0;
+            JsonObject usage = new JsonObject();
+            usage.addProperty("promptTokenCount", promptTokens);
+            usage.addProperty("candidatesTokenCount", candidateTokens);
+            usage.addProperty("totalTokenCount", promptTokens + candidateTokens);
+            response.add("usageMetadata", usage);
+        }
+        return response.toString();
+    }
+
+    private String openAiCompletion(boolean blocked, int promptTokens) {
+        JsonObject message = new JsonObject();
+        message.addProperty("role", "assistant");
+        message.addProperty("content", blocked ? "" : reply);
+        JsonObject choice = new JsonObject();
+        choice.addProperty("index", 0);
+        choice.add("message", message);
+        choice.addProperty("finish_reason", blocked ? "content_filter" : "stop");
+        JsonArray choices = new JsonArray();
+        choices.add(choice);
+        JsonObject response = new JsonObject();
+        response.addProperty("object", "chat.completion");
+        response.add("choices", choices);
+        response.add("usage", usage(promptTokens, blocked ? 0 : GeminiRequestBody.estimateTokens(reply.length())));
+        return response.toString();
+    }
+
+    private static String openAiChunk(String text, String finishReason) {
+        JsonObject delta = new JsonObject();
+        if (text != null) delta.addProperty("content", text);
+        JsonObject choice = new JsonObject();
+        choice.addProperty("index", 0);
+        choice.add("delta", delta);
+        if (finishReason != null) choice.addProperty("finish_reason", finishReason);
+        JsonArray choices = new JsonArray();
+        choices.add(choice);
+        JsonObject chunk = new JsonObject();
+        chunk.addProperty("object", "chat.completion.chunk");
+        chunk.add("choices", choices);
+        return chunk.toString();
+    }
+
+    /** The final chunk of a stream with include_usage: empty choices, usage only. */
+    private String openAiUsageChunk(int promptTokens) {
+        JsonObject chunk = new JsonObject();
+        chunk.addProperty("object", "chat.completion.chunk");
+        chunk.add("choices", new JsonArray());
+        chunk.add("usage", usage(promptTokens, GeminiRequestBody.estimateTokens(reply.length())));
+        return chunk.toString();
+    }
+
+    private static JsonObject usage(int promptTokens, int completionTokens) {
+        JsonObject usage = new JsonObject();
+        usage.addProperty("prompt_tokens", promptTokens);
+        usage.addProperty("completion_tokens", completionTokens);
+        usage.addProperty("total_tokens", promptTokens + completionTokens);
+        return usage;
+    }
+
+    private static String rateLimited() {
+        return "{\"error\":{\"code\":429,\"message\":\"Resource has been exhausted (e.g. check quota).\","
+                + "\"status\":\"RESOURCE_EXHAUSTED\",\"details\":[{\"@type\":"
+                + "\"type.googleapis.com/google.rpc.RetryInfo\",\"retryDelay\":\"1s\"}]}}";
+    }
+
+    private static String error(int code, String status, String message) {
+        JsonObject error = new JsonObject();
+        error.addProperty("code", code);
+        error.addProperty("message", message);
+        error.addProperty("status", status);
+        JsonObject body = new JsonObject();
+        body.add("error", error);
+        return body.toString();
+    }
+
+    private void send(HttpExchange ex, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().add("Content-Type", contentType);
+        String accept = ex.getRequestHeaders().getFirst("Accept-Encoding");
+        if (gzip && accept != null && accept.contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length);
+            try (OutputStream out = new GZIPOutputStream(compressed)) {
+                out.write(bytes);
+            }
+            bytes = compressed.toByteArray();
+            ex.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String queryParam(URI uri, String name) {
+        String query = uri.getRawQuery();
+        if (query == null) return null;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) return pair.substring(eq + 1);
+        }
+        return null;
+    }
+
+    private static void sleep(long ms) throws InterruptedException {
+        if (ms > 0) Thread.sleep(ms);
+    }
+}
@@ -0,0 +1,46 @@
+package net.mcreator.insidethesystem.meta;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** The context version of {@link SystemPromptRenderer} moves only when the rendered prompt would change. */
+class SystemPromptRendererTest {
+    private static final VirtualThreadAI.PersonaPhase PHASE = VirtualThreadAI.PersonaPhase.FRIEND;
+
+    private final SystemPromptRenderer renderer = new SystemPromptRenderer("STATIC",
+            "biome={minecraft_biome} procs={process_list} phase={persona_phase} kill={kill_switch_imminent} {unknown}");
+
+    @Test
+    void rendersSlotsAndKeepsOtherBraces() {
+        String prompt = renderer.render(PHASE, "plains", List.of("a.exe", "b.exe"), false, null);
+        assertEquals("STATIC\nbiome=plains procs=a.exe, b.exe phase=FRIEND kill=false {unknown}", prompt);
+    }
+
+    @Test
+    void sameContextIsACacheHit() {
+        String first = renderer.render(PHASE, "plains", List.of("a.exe", "b.exe"), false, null);
+        long version = renderer.version();
+        // Duplicates and blanks are dropped before the digest, so this is the same context
+        String second = renderer.render(PHASE, "plains", List.of("a.exe", " ", "b.exe", "a.exe"), false, null);
+        assertSame(first, second);
+        assertEquals(version, renderer.version());
+    }
+
+    @Test
+    void anyContextChangeBumpsTheVersion() {
+        renderer.render(PHASE, "plains", List.of("a.exe"), false, null);
+        long version = renderer.version();
+
+        assertTrue(renderer.render(PHASE, "desert", List.of("a.exe"), false, null).contains("biome=desert"));
+        assertEquals(version + 1, renderer.version());
+        assertTrue(renderer.render(PHASE, "desert", List.of("b.exe", "a.exe"), false, null).contains("b.exe, a.exe"));
+        assertEquals(version + 2, renderer.version());
+        assertTrue(renderer.render(PHASE, "desert", List.of("b.exe", "a.exe"), true, null).contains("kill=true"));
+        assertEquals(version + 3, renderer.version());
+    }
+}
@@ -0,0 +1,76 @@
+package net.mcreator.insidethesystem.meta;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** What a {@link VirtualThreadAI} carries over from one world (server run) to the next. */
+class VirtualThreadAILifecycleTest {
+    private static final String REPLY = "Back already? I kept your seat warm.";
+
+    private final List<String> properties = new ArrayList<>();
+    private StandInServer server;
+    private VirtualThreadAI bridge;
+
+    @AfterEach
+    void stopBridge() {
+        if (bridge != null) bridge.shutdown();
+        if (server != null) server.close();
+        properties.forEach(System::clearProperty);
+    }
+
+    @Test
+    void worldWithoutPhaseRecordStartsAsFriend() throws Exception {
+        Path worldA = Files.createTempDirectory("world-a");
+        bridge = new VirtualThreadAI();
+        bridge.openJournal(worldA);
+        bridge.setPersonaPhase(VirtualThreadAI.PersonaPhase.OBSESSION);
+
+        bridge.openJournal(Files.createTempDirectory("world-b"));
+        assertEquals(VirtualThreadAI.PersonaPhase.FRIEND, bridge.getPersonaPhase());
+
+        bridge.openJournal(worldA);
+        assertEquals(VirtualThreadAI.PersonaPhase.OBSESSION, bridge.getPersonaPhase());
+    }
+
+    /** Single player: close a world, open another in the same game, and keep chatting. */
+    @Test
+    void bridgeAnswersAfterAWorldIsClosedAndAnotherOpened() throws Exception {
+        server = StandInServer.start(StandInServer.Dialect.GEMINI);
+        server.reply(REPLY);
+        Map.of("backend", "gemini", "api.base_url", server.baseUrl(), "quota.rpm", "1000",
+                "cache.enabled", "false", "pool.enabled", "false", "context_cache.enabled", "false",
+                "glitch.enabled", "false").forEach((key, value) -> {
+            properties.add("sentient_coolplayer." + key);
+            System.setProperty("sentient_coolplayer." + key, value);
+        });
+        bridge = new VirtualThreadAI();
+        bridge.startBridge();
+        bridge.saveAndActivateKey("test-key");
+        UUID player = UUID.randomUUID();
+
+        bridge.openJournal(Files.createTempDirectory("world-a"));
+        assertEquals(REPLY, chat(player, "hello?"));
+        bridge.closeWorld();
+
+        bridge.openJournal(Files.createTempDirectory("world-b"));
+        assertEquals(REPLY, chat(player, "it's me again"));
+        assertEquals(2, bridge.getMetrics().getGeminiReplies(), "answered offline");
+    }
+
+    private String chat(UUID player, String line) throws Exception {
+        CompletableFuture<String> reply = new CompletableFuture<>();
+        bridge.processChatAsync(line, "tester", player, "plains", List.of(), reply::complete);
+        return reply.get(20, TimeUnit.SECONDS);
+    }
+}